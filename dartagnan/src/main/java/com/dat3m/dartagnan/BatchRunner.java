@@ -0,0 +1,229 @@
+package com.dat3m.dartagnan;
+
+import com.dat3m.dartagnan.parsers.cat.ParserCat;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.verification.solving.MethodSelector;
+import com.dat3m.dartagnan.witness.WitnessGraph;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sosy_lab.common.configuration.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.dat3m.dartagnan.configuration.Method.PORTFOLIO;
+import static com.dat3m.dartagnan.configuration.OptionNames.*;
+import static com.dat3m.dartagnan.utils.Result.FAIL;
+import static com.dat3m.dartagnan.utils.Result.PASS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    Verifies all litmus tests of a directory (and its subdirectories) against the same memory model.
+    The tests are parsed and verified in parallel by a fixed number of workers, reusing solver contexts across tests
+    (see SolverContextPool), and each result is appended to a .csv file as soon as it is available.
+    To split a sweep across machines, each machine verifies a different shard of the tests.
+ */
+@Options
+class BatchRunner {
+
+    private static final Logger logger = LogManager.getLogger(BatchRunner.class);
+
+    // The results are written to the .csv file, so the output of Dartagnan is discarded
+    private static final PrintStream NULL_OUT = new PrintStream(OutputStream.nullOutputStream());
+
+    @Option(name=BATCH_EXPECTED,
+            description="A .csv file with the expected result of the tests, where each line has the form " +
+                    "<path>,<1 if the condition is reachable, 0 otherwise>. The paths may be suffixes of the test paths.")
+    private String expectedPath = "";
+
+    @Option(name=BATCH_OUTPUT,
+            description="The .csv file the results get written to (default: output/batch.csv).")
+    private String outputPath = "";
+
+    @Option(name=BATCH_SHARD,
+            description="Only verifies the i-th of n shards of the tests, given as i/n (with 0 <= i < n).")
+    private String shard = "0/1";
+
+    @Option(name=BATCH_WORKERS,
+            description="Number of tests verified in parallel.")
+    @IntegerOption(min=1)
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    @Option(name=BATCH_FEATURES,
+            description="Adds the method and the features of each test the auto method selects by (see " +
+                    "MethodSelector) to the results, e.g. to retrain the selection rules from the runtimes.")
+    private boolean logFeatures = false;
+
+    private int shardIndex;
+    private int shardCount;
+
+    private BatchRunner(Configuration config) throws InvalidConfigurationException {
+        config.inject(this);
+        String[] parts = shard.split("/");
+        try {
+            shardIndex = Integer.parseInt(parts[0]);
+            shardCount = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidConfigurationException("Illegal shard " + shard);
+        }
+        if (parts.length != 2 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new InvalidConfigurationException("Illegal shard " + shard);
+        }
+    }
+
+    static BatchRunner fromConfig(Configuration config) throws InvalidConfigurationException {
+        return new BatchRunner(config);
+    }
+
+    void run(Dartagnan o, Configuration config, File directory, File fileModel) throws Exception {
+        ParserRuleContext catModel = new ParserCat().parseTree(Files.readString(fileModel.toPath()));
+        MethodSelector selector = logFeatures ? o.getMethodSelector() : null;
+        Map<String, Result> expectations = readExpectations();
+
+        List<Path> tests;
+        try (Stream<Path> fileStream = Files.walk(directory.toPath())) {
+            // Sorting makes the shards independent of the order of the file system
+            List<Path> allTests = fileStream
+                    .filter(Files::isRegularFile)
+                    .filter(f -> f.toString().endsWith(".litmus"))
+                    .sorted()
+                    .collect(Collectors.toList());
+            tests = IntStream.range(0, allTests.size())
+                    .filter(i -> i % shardCount == shardIndex)
+                    .mapToObj(allTests::get)
+                    .collect(Collectors.toList());
+        }
+        File output = new File(outputPath.isEmpty() ? System.getenv("DAT3M_HOME") + "/output/batch.csv" : outputPath);
+        logger.info("Verifying {} tests of {} (shard {}) with {} workers, results go to {}",
+                tests.size(), directory, shard, workers, output);
+
+        long startTime = System.currentTimeMillis();
+        AtomicInteger expected = new AtomicInteger();
+        AtomicInteger unexpected = new AtomicInteger();
+        // A plain executor: its threads must not count as ForkJoinHelper workers, otherwise the solvers
+        // of the tests would fork their own subtasks into the batch pool
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try (SolverContextPool contexts = new SolverContextPool();
+             PrintWriter csv = new PrintWriter(new FileWriter(output, UTF_8))) {
+            csv.println("test, expected, result, parsing time(ms), verification time(ms)" + (logFeatures ?
+                    ", method, feature time(ms), " + String.join(", ", MethodSelector.FEATURES) : ""));
+            List<Callable<String>> jobs = tests.stream().map(test -> (Callable<String>) () -> {
+                Result expectedResult = getExpectation(expectations, test);
+                List<String> values = runTest(o, config, test, catModel, contexts, selector);
+                String result = values.get(0);
+                if (expectedResult != null && (result.equals(PASS.name()) || result.equals(FAIL.name()))) {
+                    (result.equals(expectedResult.name()) ? expected : unexpected).incrementAndGet();
+                }
+                synchronized (csv) {
+                    csv.println(test + ", " + expectedResult + ", " + String.join(", ", values));
+                    csv.flush();
+                }
+                return result;
+            }).collect(Collectors.toList());
+            for (Future<String> job : pool.invokeAll(jobs)) {
+                job.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        System.out.printf("Verified %d tests in %ds: %d as expected, %d unexpected%n", tests.size(),
+                (System.currentTimeMillis() - startTime) / 1000, expected.get(), unexpected.get());
+    }
+
+    /*
+        Returns the result, the parsing time and the verification time of <test> and, if features are logged,
+        the method, the time to extract the features and the features. The feature extraction preprocesses and analyses
+        the program, so the time of these steps is not part of the verification time.
+     */
+    private List<String> runTest(Dartagnan o, Configuration config, Path test, ParserRuleContext catModel,
+                                 SolverContextPool contexts, MethodSelector selector) {
+        long startTime = System.currentTimeMillis();
+        long parsingTime = 0;
+        long featureTime = 0;
+        String method = o.getMethod().asStringOption();
+        Map<String, Long> features = null;
+        String result;
+        try {
+            Dartagnan.BoundedTaskFactory taskFactory = Dartagnan.createTaskFactory(o, config, test.toFile(),
+                    catModel, new WitnessGraph());
+            // Portfolios parse the test for each strategy, so their parsing time is part of the verification time
+            if (o.getMethod() != PORTFOLIO || logFeatures) {
+                taskFactory.getFirst();
+            }
+            parsingTime = System.currentTimeMillis() - startTime;
+            if (logFeatures) {
+                features = MethodSelector.extractFeatures(taskFactory.getFirst());
+                if (selector != null) {
+                    method = selector.select(features).toString();
+                }
+                featureTime = System.currentTimeMillis() - startTime - parsingTime;
+            }
+            result = contexts.run(o, (ctx, sdm, solverConfig) ->
+                    Dartagnan.verify(o, taskFactory, ctx, sdm, solverConfig, NULL_OUT)).toString();
+        } catch (InterruptedException e) {
+            result = "TIMEOUT";
+        } catch (Exception e) {
+            logger.warn(test + ": " + e.getMessage(), e);
+            result = "ERROR";
+        }
+        long verificationTime = System.currentTimeMillis() - startTime - parsingTime - featureTime;
+        List<String> values = new ArrayList<>(List.of(result, String.valueOf(parsingTime),
+                String.valueOf(verificationTime)));
+        if (logFeatures) {
+            values.add(method);
+            values.add(String.valueOf(featureTime));
+            for (String feature : MethodSelector.FEATURES) {
+                values.add(features == null ? "" : String.valueOf(features.get(feature)));
+            }
+        }
+        return values;
+    }
+
+    private Map<String, Result> readExpectations() throws IOException, InvalidConfigurationException {
+        Map<String, Result> expectations = new HashMap<>();
+        if (expectedPath.isEmpty()) {
+            return expectations;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(expectedPath, UTF_8))) {
+            String str;
+            while ((str = reader.readLine()) != null) {
+                String[] line = str.split(",");
+                if (line.length == 2) {
+                    try {
+                        expectations.put(line[0].trim(), Integer.parseInt(line[1].trim()) == 1 ? FAIL : PASS);
+                    } catch (NumberFormatException e) {
+                        throw new InvalidConfigurationException("Illegal line in " + expectedPath + ": " + str);
+                    }
+                }
+            }
+        }
+        return expectations;
+    }
+
+    // The expectations may use any suffix of the path of <test> (e.g. "litmus/X86/SB.litmus")
+    private static Result getExpectation(Map<String, Result> expectations, Path test) {
+        String path = test.toString().replace(File.separatorChar, '/');
+        int start = 0;
+        while (true) {
+            Result result = expectations.get(path.substring(start));
+            start = path.indexOf('/', start) + 1;
+            if (result != null || start == 0) {
+                return result;
+            }
+        }
+    }
+}
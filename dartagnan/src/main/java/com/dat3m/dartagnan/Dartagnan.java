@@ -6,21 +6,26 @@ import com.dat3m.dartagnan.parsers.program.ProgramParser;
 import com.dat3m.dartagnan.parsers.witness.ParserWitness;
 import com.dat3m.dartagnan.program.Program;
 import com.dat3m.dartagnan.program.Program.SourceLanguage;
+import com.dat3m.dartagnan.program.processing.LoopUnrolling;
 import com.dat3m.dartagnan.utils.Result;
 import com.dat3m.dartagnan.utils.options.BaseOptions;
 import com.dat3m.dartagnan.verification.RefinementTask;
+import com.dat3m.dartagnan.verification.ResultCache;
 import com.dat3m.dartagnan.verification.VerificationTask;
 import com.dat3m.dartagnan.verification.model.ExecutionModel;
 import com.dat3m.dartagnan.verification.solving.*;
 import com.dat3m.dartagnan.witness.WitnessBuilder;
 import com.dat3m.dartagnan.witness.WitnessGraph;
-import com.dat3m.dartagnan.wmm.Wmm;
 import com.google.common.collect.ImmutableSet;
+import org.antlr.v4.runtime.ParserRuleContext;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.sosy_lab.common.ShutdownManager;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.BasicLogManager;
 import org.sosy_lab.java_smt.SolverContextFactory;
@@ -28,19 +33,32 @@ import org.sosy_lab.java_smt.api.ProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverContext;
 import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.nio.file.Files;
+import java.util.stream.Collectors;
 
 import static com.dat3m.dartagnan.configuration.OptionInfo.collectOptions;
-import static com.dat3m.dartagnan.configuration.OptionNames.PHANTOM_REFERENCES;
+import static com.dat3m.dartagnan.configuration.Method.CAAT;
+import static com.dat3m.dartagnan.configuration.Method.ASSUME;
+import static com.dat3m.dartagnan.configuration.Method.AUTO;
+import static com.dat3m.dartagnan.configuration.Method.PORTFOLIO;
+import static com.dat3m.dartagnan.configuration.OptionNames.*;
 import static com.dat3m.dartagnan.configuration.Property.*;
 import static com.dat3m.dartagnan.utils.GitInfo.CreateGitInfo;
 import static com.dat3m.dartagnan.utils.Result.*;
 import static com.dat3m.dartagnan.utils.visualization.ExecutionGraphVisualizer.generateGraphvizFile;
 import static java.lang.Boolean.TRUE;
 import static java.lang.String.valueOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 @Options
 public class Dartagnan extends BaseOptions {
@@ -50,8 +68,149 @@ public class Dartagnan extends BaseOptions {
 	private static final Set<String> supportedFormats = 
     		ImmutableSet.copyOf(Arrays.asList(".litmus", ".bpl", ".c", ".i"));
 
-	private Dartagnan(Configuration config) throws InvalidConfigurationException {
+	@Option(
+		name=SERVE,
+		description="Runs Dartagnan as a verification server accepting jobs on this local port (0 to disable).")
+	@IntegerOption(min=0, max=65535)
+	private int serverPort = 0;
+
+	@Option(
+		name=SERVE_WORKERS,
+		description="Maximal number of jobs the verification server runs concurrently.")
+	@IntegerOption(min=1)
+	private int serverWorkers = Runtime.getRuntime().availableProcessors();
+
+	@Option(
+		name=BATCH,
+		description="Verifies all litmus tests in this directory in parallel (see " + BATCH + ".* for further options).")
+	private String batchPath;
+
+	@Option(
+		name=CACHE,
+		description="Directory of a cache for definitive verification results (empty to disable).")
+	private String cachePath = "";
+
+	@Option(
+		name=CACHE_SIZE,
+		description="Maximal size (in MB) of the result cache before the least recently used results get evicted.")
+	@IntegerOption(min=1)
+	private int cacheSize = 100;
+
+	@Option(
+		name=BOUND_SHARE_REASONS,
+		description="Reuses the refinement reasons learned with one unrolling bound for the next ones " +
+				"(in a temporary file unless " + REASON_STORE + " is given).")
+	private boolean shareReasons = false;
+
+	@Option(
+		name=REASON_STORE,
+		description="File the refinement reasons are shared in (empty for a temporary file, see " + BOUND_SHARE_REASONS + ").")
+	private String reasonStorePath = "";
+
+	@Option(
+		name=WITNESS_ORIGINAL_PROGRAM_PATH,
+		description="Path to the original C file, witnesses are only written if it is given (see WitnessBuilder).")
+	private String originalProgramFilePath;
+
+	// The strategies of method PORTFOLIO and the rules of method AUTO.
+	// They are parsed right away to fail early on malformed descriptions, before any solver gets started.
+	private final List<PortfolioSolver.Strategy> strategies;
+	private final MethodSelector methodSelector;
+
+	Dartagnan(Configuration config) throws InvalidConfigurationException {
 		config.recursiveInject(this);
+		strategies = getMethod() == PORTFOLIO ? PortfolioSolver.parseStrategies(getPortfolio(), getSolver()) : null;
+		methodSelector = getMethod() == AUTO ? MethodSelector.fromFile(getMethodRules()) : null;
+	}
+
+	// Null unless the method is AUTO
+	MethodSelector getMethodSelector() {
+		return methodSelector;
+	}
+
+	/*
+	    Creates the tasks for increasing unrolling bounds. Each bound needs its own program and memory model,
+	    since both get unrolled, analysed and encoded. The factory only does the bound-independent work once:
+	    the CAT model is parsed once and C programs get compiled once.
+	    Method ASSUME deepens the bound without new tasks: its first task gets unrolled with the maximal bound
+	    and bound guards, and verifies all bounds with a single encoding (see DeepeningSolver).
+	 */
+	static class BoundedTaskFactory {
+
+		private final Dartagnan o;
+		private final Configuration config;
+		private final File source;
+		private final ParserRuleContext catModel;
+		private final WitnessGraph witness;
+		private final File reasonStore;
+		private final int firstBound;
+		private final boolean deepensInPlace;
+		private VerificationTask first;
+
+		private BoundedTaskFactory(Dartagnan o, Configuration config, File source, ParserRuleContext catModel,
+								   WitnessGraph witness, File reasonStore) throws InvalidConfigurationException {
+			this.o = o;
+			this.config = config;
+			this.source = source;
+			this.catModel = catModel;
+			this.witness = witness;
+			this.reasonStore = reasonStore;
+			this.firstBound = LoopUnrolling.fromConfig(config).getUnrollingBound();
+			this.deepensInPlace = o.getMethod() == ASSUME && !o.getProperty().contains(RACES)
+					&& o.hasMaxBound() && o.getMaxBound() > firstBound;
+		}
+
+		VerificationTask create(int bound) throws Exception {
+			ConfigurationBuilder builder = Configuration.builder().copyFrom(config).setOption(BOUND, valueOf(bound));
+			if(reasonStore != null) {
+				builder.setOption(REASON_STORE, reasonStore.getPath());
+			}
+			if(deepensInPlace) {
+				builder.setOption(BOUND_GUARDS, "true");
+			}
+			return VerificationTask.builder()
+					.withConfig(builder.build())
+					.withWitness(witness)
+					.build(new ProgramParser().parse(source), new ParserCat().parse(catModel), o.getProperty());
+		}
+
+		// The task of the first bound is only created once, callers may share it (e.g. to extract features first)
+		VerificationTask getFirst() throws Exception {
+			if(first == null) {
+				first = create(deepensInPlace ? o.getMaxBound() : firstBound);
+			}
+			return first;
+		}
+
+		// The bounds to check in order: we always do bounds 1 and 2 and then use the step
+		List<Integer> getBounds() {
+			List<Integer> bounds = new ArrayList<>();
+			int bound = firstBound;
+			bounds.add(bound);
+			while(o.hasMaxBound() && bound < o.getMaxBound()) {
+				bound = Math.min(bound == 1 ? 2 : bound + o.getBoundStep(), o.getMaxBound());
+				bounds.add(bound);
+			}
+			return bounds;
+		}
+
+		boolean deepensInPlace() {
+			return deepensInPlace;
+		}
+
+		// Creates one task for each memory model with the first bound. The tasks share the program (see MultiModelSolver).
+		List<VerificationTask> createForModels(List<File> modelFiles) throws Exception {
+			Configuration taskConfig = Configuration.builder().copyFrom(config).setOption(BOUND, valueOf(firstBound)).build();
+			Program program = new ProgramParser().parse(source);
+			List<VerificationTask> tasks = new ArrayList<>();
+			for(File f : modelFiles) {
+				tasks.add(VerificationTask.builder()
+						.withConfig(taskConfig)
+						.withWitness(witness)
+						.build(program, new ParserCat().parse(f), o.getProperty()));
+			}
+			return tasks;
+		}
 	}
 
 	public static void main(String[] args) throws Exception {
@@ -63,28 +222,24 @@ public class Dartagnan extends BaseOptions {
 
     	CreateGitInfo();
 
-    	String[] argKeyword = Arrays.stream(args)
-				.filter(s->s.startsWith("-"))
-				.toArray(String[]::new);
-		Configuration config = Configuration.fromCmdLineArguments(argKeyword); // TODO: We don't parse configs yet
+		Configuration config = Configuration.fromCmdLineArguments(getOptions(args)); // TODO: We don't parse configs yet
 		Dartagnan o = new Dartagnan(config);
 
-		if(Arrays.stream(args).noneMatch(a -> supportedFormats.stream().anyMatch(a::endsWith))) {
-			throw new IllegalArgumentException("Input program not given or format not recognized");
+		if(o.serverPort > 0) {
+			new VerificationServer(o.serverWorkers).serve(o.serverPort);
+			return;
 		}
-		// get() is guaranteed to success
-		File fileProgram = new File(Arrays.stream(args).filter(a -> supportedFormats.stream().anyMatch(a::endsWith)).findFirst().get());
-		logger.info("Program path: " + fileProgram);
-
-		if(Arrays.stream(args).noneMatch(a -> a.endsWith(".cat"))) {
-			throw new IllegalArgumentException("CAT model not given or format not recognized");
+		if(o.batchPath != null) {
+			BatchRunner.fromConfig(config).run(o, config, new File(o.batchPath), getModelFile(args));
+			return;
 		}
-		// get() is guaranteed to success		
-		File fileModel = new File(Arrays.stream(args).filter(a -> a.endsWith(".cat")).findFirst().get());		
-		logger.info("CAT file path: " + fileModel);	
+
+		File fileProgram = getProgramFile(args);
+		logger.info("Program path: " + fileProgram);
+		List<File> modelFiles = getModelFiles(args);
+		File fileModel = modelFiles.get(0);
+		modelFiles.forEach(f -> logger.info("CAT file path: " + f));
         
-		Wmm mcm = new ParserCat().parse(fileModel);
-        Program p = new ProgramParser().parse(fileProgram);
         EnumSet<Property> properties = o.getProperty();
         
         WitnessGraph witness = new WitnessGraph();
@@ -93,10 +248,17 @@ public class Dartagnan extends BaseOptions {
         	witness = new ParserWitness().parse(new File(o.getWitnessPath()));
         }
 
-		VerificationTask task = VerificationTask.builder()
-                .withConfig(config)
-                .withWitness(witness)
-                .build(p, mcm, properties);
+		if(modelFiles.size() > 1) {
+			checkMultiModelOptions(o);
+		}
+		ParserRuleContext catModel = new ParserCat().parseTree(Files.readString(fileModel.toPath()));
+		BoundedTaskFactory taskFactory = createTaskFactory(o, config, fileProgram, catModel, witness);
+		List<VerificationTask> modelTasks = modelFiles.size() > 1 ? taskFactory.createForModels(modelFiles) : List.of();
+
+        if(properties.contains(RACES) && properties.size() > 1) {
+        	System.out.println("Data race detection cannot be combined with other properties");
+        	System.exit(1);
+        }
 
         ShutdownManager sdm = ShutdownManager.create();
     	Thread t = new Thread(() -> {
@@ -113,82 +275,20 @@ public class Dartagnan extends BaseOptions {
 
     	try {
             t.start();
-            Configuration solverConfig = Configuration.builder()
-                    .setOption(PHANTOM_REFERENCES, valueOf(o.usePhantomReferences()))
-                    .build();
+            Configuration solverConfig = getSolverConfig(o);
             try (SolverContext ctx = SolverContextFactory.createSolverContext(
             		solverConfig,
                     BasicLogManager.create(solverConfig),
                     sdm.getNotifier(),
-                    o.getSolver());
-                 ProverEnvironment prover = ctx.newProverEnvironment(ProverOptions.GENERATE_MODELS))
+                    o.getSolver()))
             {
-                Result result = UNKNOWN;
-                if(properties.contains(RACES)) {
-                	if(properties.size() > 1) {
-                    	System.out.println("Data race detection cannot be combined with other properties");
-                    	System.exit(1);
-                	}
-                	result = DataRaceSolver.run(ctx, prover, task);
+                if(modelTasks.isEmpty()) {
+                    verify(o, taskFactory, ctx, sdm, solverConfig, System.out);
                 } else {
-                	// Property is either LIVENESS and/or REACHABILITY
-                	switch (o.getMethod()) {
-                		case TWO:
-                			try (ProverEnvironment prover2 = ctx.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
-                				result = TwoSolvers.run(ctx, prover, prover2, task);
-                			}
-                			break;
-                		case INCREMENTAL:
-                			result = IncrementalSolver.run(ctx, prover, task);
-                			break;
-                		case ASSUME:
-                			result = AssumeSolver.run(ctx, prover, task);
-                			break;
-                		case CAAT:
-                			result = RefinementSolver.run(ctx, prover,
-                					RefinementTask.fromVerificationTaskWithDefaultBaselineWMM(task));
-                			break;
-                	}
+                    verifyModels(o, modelTasks, modelFiles, ctx, System.out);
                 }
-
                 // Verification ended, we can interrupt the timeout Thread
                 t.interrupt();
-
-            	if(result.equals(FAIL) && o.generateGraphviz()) {
-                	ExecutionModel m = new ExecutionModel(task);
-                	m.initialize(prover.getModel(), ctx);
-    				String name = task.getProgram().getName().substring(0, task.getProgram().getName().lastIndexOf('.'));
-    				generateGraphvizFile(m, 1, (x, y) -> true, System.getenv("DAT3M_HOME") + "/output/", name);        		
-            	}
-                
-                if (p.getFormat().equals(SourceLanguage.LITMUS)) {
-                    if (p.getAssFilter() != null) {
-                        System.out.println("Filter " + (p.getAssFilter()));
-                    }
-                    System.out.println("Condition " + p.getAss().toStringWithType());
-                    System.out.println(result == FAIL ? "Ok" : "No");
-                } else {
-                	if(result == FAIL) {
-                		if(TRUE.equals(prover.getModel().evaluate(REACHABILITY.getSMTVariable(ctx)))) {
-                			System.out.println("Safety violation found");
-                		}
-                		if(TRUE.equals(prover.getModel().evaluate(LIVENESS.getSMTVariable(ctx)))) {
-                			System.out.println("Liveness violation found");
-                		}
-                	}
-                    System.out.println(result);
-                }
-
-				try {
-					WitnessBuilder w = new WitnessBuilder(task, ctx, prover, result);
-	                // We only write witnesses for REACHABILITY (if the path to the original C file was given) 
-					// and if we are not doing witness validation
-	                if (properties.contains(REACHABILITY) && w.canBeBuilt() && !o.runValidator()) {
-						w.build().write();
-	                }
-				} catch(InvalidConfigurationException e) {
-					logger.warn(e.getMessage());
-				}
             }
         } catch (InterruptedException e){
         	logger.warn("Timeout elapsed. The SMT solver was stopped");
@@ -200,4 +300,229 @@ public class Dartagnan extends BaseOptions {
         	System.exit(1);
         }
     }
+
+    static String[] getOptions(String[] args) {
+    	return Arrays.stream(args)
+				.filter(s->s.startsWith("-"))
+				.toArray(String[]::new);
+    }
+
+    static File getProgramFile(String[] args) {
+		if(Arrays.stream(args).noneMatch(a -> supportedFormats.stream().anyMatch(a::endsWith))) {
+			throw new IllegalArgumentException("Input program not given or format not recognized");
+		}
+		// get() is guaranteed to success
+		return new File(Arrays.stream(args).filter(a -> supportedFormats.stream().anyMatch(a::endsWith)).findFirst().get());
+    }
+
+    static File getModelFile(String[] args) {
+		return getModelFiles(args).get(0);
+    }
+
+    static List<File> getModelFiles(String[] args) {
+		if(Arrays.stream(args).noneMatch(a -> a.endsWith(".cat"))) {
+			throw new IllegalArgumentException("CAT model not given or format not recognized");
+		}
+		return Arrays.stream(args).filter(a -> a.endsWith(".cat")).map(File::new).collect(Collectors.toList());
+    }
+
+    static Configuration getSolverConfig(Dartagnan o) throws InvalidConfigurationException {
+    	return Configuration.builder()
+                .setOption(PHANTOM_REFERENCES, valueOf(o.usePhantomReferences()))
+                .build();
+    }
+
+    static BoundedTaskFactory createTaskFactory(Dartagnan o, Configuration config, File fileProgram,
+                                                ParserRuleContext catModel, WitnessGraph witness) throws Exception {
+		File source = new ProgramParser().compile(fileProgram);
+		File reasonStore = null;
+		if(o.shareReasons && o.hasMaxBound() && o.reasonStorePath.isEmpty()) {
+			reasonStore = File.createTempFile("reasons", ".txt");
+			reasonStore.deleteOnExit();
+		}
+		return new BoundedTaskFactory(o, config, source, catModel, witness, reasonStore);
+    }
+
+    /*
+        Verifies the first task of <taskFactory> and, if configured, increases the unrolling bound until a definitive
+        result is found. All bounds are verified with the same solver context. The result is printed to <out>.
+        If a result cache is configured, definitive results are looked up before the task gets encoded.
+     */
+    static Result verify(Dartagnan o, BoundedTaskFactory taskFactory, SolverContext ctx,
+                         ShutdownManager sdm, Configuration solverConfig, PrintStream out) throws Exception {
+        // Violation graphs need a model, so they cannot be generated from cached results
+        ResultCache cache = o.cachePath.isEmpty() || o.generateGraphviz() ? null :
+                new ResultCache(new File(o.cachePath), o.cacheSize * 1024L * 1024L);
+        // A portfolio creates a task for each of its strategies. The task of the bound is only needed
+        // for the cache lookup and for data races (which are not checked by the portfolio).
+        boolean needsTask = o.getMethod() != PORTFOLIO || cache != null || o.getProperty().contains(RACES);
+        List<Integer> bounds = taskFactory.getBounds();
+        int current = 0;
+        while(true) {
+            int bound = bounds.get(current);
+            VerificationTask task = !needsTask ? null : current == 0 ? taskFactory.getFirst() : taskFactory.create(bound);
+            // A task deepened in place is looked up with its maximal bound. This is sound since the verdict
+            // does not depend on the smaller bounds checked before.
+            String key = null;
+            if(cache != null) {
+                task.preprocessProgram();
+                key = ResultCache.fingerprint(task);
+                ResultCache.Entry entry = cache.lookup(key);
+                if(entry != null) {
+                    logger.info("Result found in the cache: " + key);
+                    entry.getOutput().forEach(out::println);
+                    entry.restoreWitness();
+                    return entry.getResult();
+                }
+            }
+
+            // The output gets recorded to store it in the cache
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            PrintStream printer = key == null ? out : new PrintStream(buffer, true, UTF_8);
+            File[] witness = { null };
+            try (ProverEnvironment prover = ctx.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+                boolean isLast = taskFactory.deepensInPlace() || current == bounds.size() - 1;
+                Result result = taskFactory.deepensInPlace() ?
+                        DeepeningSolver.run(ctx, prover, task, bounds) :
+                        runMethod(o, task, taskFactory, bound, ctx, prover, solverConfig, sdm, printer, witness);
+
+                if(result != UNKNOWN || isLast) {
+                    // The winner of a portfolio processes its result itself, since it owns the model
+                    if (o.getMethod() != PORTFOLIO || result == UNKNOWN || o.getProperty().contains(RACES)) {
+                        witness[0] = processResult(o, task != null ? task : taskFactory.create(bound), ctx, prover,
+                                result, printer);
+                    }
+                    if(key != null) {
+                        String output = buffer.toString(UTF_8);
+                        out.print(output);
+                        if(result != UNKNOWN) {
+                            cache.store(key, new ResultCache.Entry(result, output.lines().collect(Collectors.toList()),
+                                    witness[0], witness[0] == null ? null : Files.readString(witness[0].toPath(), UTF_8)));
+                        }
+                    }
+                    return result;
+                }
+            }
+
+            current++;
+            logger.info("Deepening the unrolling bound to " + bounds.get(current));
+        }
+    }
+
+    // <task> is null for method PORTFOLIO, unless the task of the bound is needed anyway (see verify)
+    private static Result runMethod(Dartagnan o, VerificationTask task, BoundedTaskFactory taskFactory, int bound,
+                                    SolverContext ctx, ProverEnvironment prover, Configuration solverConfig,
+                                    ShutdownManager sdm, PrintStream out, File[] witness) throws Exception {
+        if(o.getProperty().contains(RACES)) {
+        	// Only the refinement can check data races lazily, all other methods encode them eagerly
+        	return o.getMethod() == CAAT ?
+        			RefinementSolver.run(ctx, prover, RefinementTask.fromVerificationTaskWithDefaultBaselineWMM(task)) :
+        			DataRaceSolver.run(ctx, prover, task);
+        }
+        // Property is either LIVENESS and/or REACHABILITY
+        switch (o.getMethod()) {
+        	case TWO:
+        		try (ProverEnvironment prover2 = ctx.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+        			return TwoSolvers.run(ctx, prover, prover2, task);
+        		}
+        	case INCREMENTAL:
+        		return IncrementalSolver.run(ctx, prover, task);
+        	case ASSUME:
+        		return AssumeSolver.run(ctx, prover, task);
+        	case CAAT:
+        		return RefinementSolver.run(ctx, prover,
+        				RefinementTask.fromVerificationTaskWithDefaultBaselineWMM(task));
+        	case PORTFOLIO:
+        		// Each strategy needs its own copy of the program and the memory model
+        		return PortfolioSolver.run(o.strategies, () -> taskFactory.create(bound), solverConfig, sdm.getNotifier(),
+        				(c, pr, tk, r) -> witness[0] = processResult(o, tk, c, pr, r, out));
+        	case AUTO:
+        		Map<String, Long> features = MethodSelector.extractFeatures(task);
+        		MethodSelector.Choice choice = o.methodSelector.select(features);
+        		logger.info("Features: " + features);
+        		logger.info("Selected method: " + choice);
+        		return choice.run(ctx, prover, task);
+        }
+        return UNKNOWN;
+    }
+
+    // Several memory models are verified at once in the style of AssumeSolver, for a single bound and without witnesses
+    static void checkMultiModelOptions(Dartagnan o) throws InvalidConfigurationException {
+        if(o.hasMethod() && o.getMethod() != ASSUME) {
+            throw new InvalidConfigurationException("Several memory models can only be verified with method "
+                    + ASSUME.asStringOption());
+        }
+        if(o.getProperty().contains(RACES)) {
+            throw new InvalidConfigurationException("Several memory models cannot be checked for data races");
+        }
+        Map<String, Boolean> unsupported = Map.of(
+                VALIDATE, o.runValidator(),
+                WITNESS_GRAPHVIZ, o.generateGraphviz(),
+                WITNESS_ORIGINAL_PROGRAM_PATH, o.originalProgramFilePath != null,
+                MAX_BOUND, o.hasMaxBound());
+        for(Map.Entry<String, Boolean> option : unsupported.entrySet()) {
+            if(option.getValue()) {
+                throw new InvalidConfigurationException("Option " + option.getKey() + " is not supported with several memory models");
+            }
+        }
+    }
+
+    // Verifies the program of <tasks> against all their memory models at once and prints a table of the verdicts
+    static List<Result> verifyModels(Dartagnan o, List<VerificationTask> tasks, List<File> modelFiles,
+                                     SolverContext ctx, PrintStream out) throws Exception {
+        try (ProverEnvironment prover = ctx.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+            List<Result> results = MultiModelSolver.run(ctx, prover, tasks);
+            int width = modelFiles.stream().mapToInt(f -> f.getName().length()).max().orElse(0);
+            for(int i = 0; i < tasks.size(); i++) {
+                out.println(String.format("%-" + width + "s  %s", modelFiles.get(i).getName(), results.get(i)));
+            }
+            return results;
+        }
+    }
+
+    // Prints the result and generates the requested violation graphs and witnesses.
+    // Returns the file the witness was written to (or null).
+    private static File processResult(Dartagnan o, VerificationTask task, SolverContext ctx, ProverEnvironment prover,
+                                      Result result, PrintStream out) throws Exception {
+        Program p = task.getProgram();
+        EnumSet<Property> properties = task.getProperty();
+        if(result.equals(FAIL) && o.generateGraphviz()) {
+            ExecutionModel m = new ExecutionModel(task);
+            m.initialize(prover.getModel(), ctx);
+            String name = task.getProgram().getName().substring(0, task.getProgram().getName().lastIndexOf('.'));
+            generateGraphvizFile(m, 1, (x, y) -> true, System.getenv("DAT3M_HOME") + "/output/", name);
+        }
+
+        if (p.getFormat().equals(SourceLanguage.LITMUS)) {
+            if (p.getAssFilter() != null) {
+                out.println("Filter " + (p.getAssFilter()));
+            }
+            out.println("Condition " + p.getAss().toStringWithType());
+            out.println(result == FAIL ? "Ok" : "No");
+        } else {
+            if(result == FAIL) {
+                if(TRUE.equals(prover.getModel().evaluate(REACHABILITY.getSMTVariable(ctx)))) {
+                    out.println("Safety violation found");
+                }
+                if(TRUE.equals(prover.getModel().evaluate(LIVENESS.getSMTVariable(ctx)))) {
+                    out.println("Liveness violation found");
+                }
+            }
+            out.println(result);
+        }
+
+        try {
+            WitnessBuilder w = new WitnessBuilder(task, ctx, prover, result);
+            // We only write witnesses for REACHABILITY (if the path to the original C file was given)
+            // and if we are not doing witness validation
+            if (properties.contains(REACHABILITY) && w.canBeBuilt() && !o.runValidator()) {
+                WitnessGraph graph = w.build();
+                graph.write();
+                return graph.getFile();
+            }
+        } catch(InvalidConfigurationException e) {
+            logger.warn(e.getMessage());
+        }
+        return null;
+    }
 }
@@ -0,0 +1,89 @@
+package com.dat3m.dartagnan;
+
+import com.dat3m.dartagnan.wmm.utils.SMTVariableTable;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.BasicLogManager;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.SolverContextFactory;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+/*
+    Keeps solver contexts alive between verification jobs, which saves creating a context (and loading the native
+    solver) for each job. Contexts are pooled per solver and used by one job at a time.
+    A context whose shutdown got requested (e.g. because its job timed out) cannot be reused and gets closed.
+ */
+class SolverContextPool implements AutoCloseable {
+
+    @FunctionalInterface
+    interface Job<T> {
+        T run(SolverContext ctx, ShutdownManager sdm, Configuration solverConfig) throws Exception;
+    }
+
+    // A single log manager for all contexts (each log manager registers itself as a management bean)
+    private final LogManager solverLogger;
+    private final Map<String, Queue<Entry>> idle = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    SolverContextPool() throws InvalidConfigurationException {
+        this.solverLogger = BasicLogManager.create(Configuration.defaultConfiguration());
+    }
+
+    // Runs <job> with a context for the solver chosen by <o> and shuts it down once the timeout of <o> elapsed
+    <T> T run(Dartagnan o, Job<T> job) throws Exception {
+        Configuration solverConfig = Dartagnan.getSolverConfig(o);
+        String key = o.getSolver() + ":" + o.usePhantomReferences();
+        Entry entry = idle.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>()).poll();
+        if (entry == null) {
+            ShutdownManager sdm = ShutdownManager.create();
+            entry = new Entry(sdm, SolverContextFactory.createSolverContext(
+                    solverConfig,
+                    solverLogger,
+                    sdm.getNotifier(),
+                    o.getSolver()));
+        }
+        ShutdownManager sdm = entry.sdm;
+        ScheduledFuture<?> timeout = o.hasTimeout() ?
+                timer.schedule(() -> sdm.requestShutdown("Timeout"), o.getTimeout(), TimeUnit.SECONDS) : null;
+        try {
+            return job.run(entry.ctx, sdm, solverConfig);
+        } finally {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            // The variables of this job are of no use to later jobs
+            SMTVariableTable.release(entry.ctx);
+            if (sdm.getNotifier().shouldShutdown()) {
+                entry.ctx.close();
+            } else {
+                idle.get(key).add(entry);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        idle.values().forEach(entries -> entries.forEach(entry -> entry.ctx.close()));
+        idle.clear();
+    }
+
+    private static class Entry {
+        private final ShutdownManager sdm;
+        private final SolverContext ctx;
+
+        Entry(ShutdownManager sdm, SolverContext ctx) {
+            this.sdm = sdm;
+            this.ctx = ctx;
+        }
+    }
+}
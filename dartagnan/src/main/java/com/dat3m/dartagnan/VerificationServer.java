@@ -0,0 +1,140 @@
+package com.dat3m.dartagnan;
+
+import com.dat3m.dartagnan.configuration.Property;
+import com.dat3m.dartagnan.parsers.cat.ParserCat;
+import com.dat3m.dartagnan.parsers.witness.ParserWitness;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.witness.WitnessGraph;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static com.dat3m.dartagnan.configuration.Property.RACES;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    A long-lived Dartagnan process that verifies jobs sent over a local socket.
+    Each line sent by a client is one job, given by the same arguments as a command line call of Dartagnan
+    (separated by whitespace). Jobs run concurrently on a bounded pool of workers. The server answers each job with
+    the lines that Dartagnan would print, each one prefixed by the number of the job within its connection (starting
+    from 1), followed by "<job> DONE <result>". Answers are sent in the order the jobs finish.
+
+    Compared to separate runs, the server saves starting and warming up the JVM, loading the native solvers,
+    and parsing CAT files: their parse trees are cached by the hash of the file contents and each job builds
+    its own memory model from the tree. Solver contexts are reused by later jobs (see SolverContextPool).
+ */
+class VerificationServer {
+
+    private static final Logger logger = LogManager.getLogger(VerificationServer.class);
+
+    private final ExecutorService workers;
+    private final Map<HashCode, ParserRuleContext> catModels = new ConcurrentHashMap<>();
+    private final SolverContextPool contexts;
+
+    VerificationServer(int workers) throws InvalidConfigurationException {
+        this.workers = Executors.newFixedThreadPool(workers);
+        this.contexts = new SolverContextPool();
+    }
+
+    void serve(int port) throws IOException {
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            logger.info("Verification server listening on " + server.getLocalSocketAddress());
+            while (true) {
+                Socket client = server.accept();
+                Thread handler = new Thread(() -> handle(client), "client");
+                handler.setDaemon(true);
+                handler.start();
+            }
+        }
+    }
+
+    private void handle(Socket client) {
+        try (client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(client.getOutputStream(), UTF_8), true)) {
+            List<Future<?>> pending = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                int job = pending.size() + 1;
+                String[] args = line.trim().split("\\s+");
+                pending.add(workers.submit(() -> {
+                    List<String> answer = run(args);
+                    synchronized (out) {
+                        answer.forEach(l -> out.println(job + " " + l));
+                    }
+                }));
+            }
+            // All jobs get answered before the connection is closed
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (IOException | ExecutionException e) {
+            logger.warn("Connection failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Returns the lines Dartagnan prints for the job, followed by "DONE <result>"
+    private List<String> run(String[] args) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, true, UTF_8);
+        String status;
+        try {
+            status = verify(args, out).toString();
+        } catch (InterruptedException e) {
+            status = "TIMEOUT";
+        } catch (Exception e) {
+            logger.error(e.getMessage());
+            out.println(e.getMessage());
+            status = "ERROR";
+        }
+        List<String> answer = new ArrayList<>(buffer.toString(UTF_8).lines().collect(Collectors.toList()));
+        answer.add("DONE " + status);
+        return answer;
+    }
+
+    private Result verify(String[] args, PrintStream out) throws Exception {
+        Configuration config = Configuration.fromCmdLineArguments(Dartagnan.getOptions(args));
+        Dartagnan o = new Dartagnan(config);
+        File fileProgram = Dartagnan.getProgramFile(args);
+        File fileModel = Dartagnan.getModelFile(args);
+
+        EnumSet<Property> properties = o.getProperty();
+        if (properties.contains(RACES) && properties.size() > 1) {
+            throw new IllegalArgumentException("Data race detection cannot be combined with other properties");
+        }
+
+        ParserRuleContext catModel = getCatModel(fileModel);
+        WitnessGraph witness = o.runValidator() ? new ParserWitness().parse(new File(o.getWitnessPath())) : new WitnessGraph();
+        Dartagnan.BoundedTaskFactory taskFactory = Dartagnan.createTaskFactory(o, config, fileProgram, catModel, witness);
+
+        return contexts.run(o, (ctx, sdm, solverConfig) ->
+                Dartagnan.verify(o, taskFactory, ctx, sdm, solverConfig, out));
+    }
+
+    private ParserRuleContext getCatModel(File fileModel) throws IOException {
+        String contents = Files.asCharSource(fileModel, UTF_8).read();
+        HashCode hash = Hashing.sha256().hashString(contents, UTF_8);
+        return catModels.computeIfAbsent(hash, h -> new ParserCat().parseTree(contents));
+    }
+}
@@ -1,9 +1,10 @@
 package com.dat3m.dartagnan.configuration;
 
 import java.util.Arrays;
+import java.util.EnumSet;
 
 public enum Method implements OptionInterface {
-	ASSUME, INCREMENTAL, TWO, CAAT;
+	ASSUME, INCREMENTAL, TWO, CAAT, PORTFOLIO, AUTO;
 	
 	// Used for options in the console
 	@Override
@@ -17,6 +18,10 @@ public enum Method implements OptionInterface {
         		return "assume";
 			case CAAT:
 				return "caat";
+			case PORTFOLIO:
+				return "portfolio";
+			case AUTO:
+				return "auto";
         }
         throw new UnsupportedOperationException("Unrecognized analysis " + this);
 	}
@@ -33,6 +38,10 @@ public enum Method implements OptionInterface {
             	return "Solver with Assumption";
             case CAAT:
             	return "CAAT Solver";
+            case PORTFOLIO:
+            	return "Portfolio";
+            case AUTO:
+            	return "Automatic";
         }
         throw new UnsupportedOperationException("Unrecognized analysis " + this);
 	}
@@ -42,10 +51,12 @@ public enum Method implements OptionInterface {
 	}
 	
 	// Used to decide the order shown by the selector in the UI
+	// The UI does not offer PORTFOLIO, since each of its strategies parses the input files on its own,
+	// nor AUTO, which is resolved by Dartagnan.runMethod
 	public static Method[] orderedValues() {
 		Method[] order = { INCREMENTAL, ASSUME, TWO, CAAT};
 		// Be sure no element is missing
-		assert(Arrays.asList(order).containsAll(Arrays.asList(values())));
+		assert(Arrays.asList(order).containsAll(EnumSet.complementOf(EnumSet.of(PORTFOLIO, AUTO))));
 		return order;
 	}
 }
\ No newline at end of file
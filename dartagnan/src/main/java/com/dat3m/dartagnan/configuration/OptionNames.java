@@ -5,11 +5,26 @@ public class OptionNames {
 	// Base Options
 	public static final String PROPERTY = "property";
 	public static final String BOUND = "bound";
+	public static final String MAX_BOUND = "bound.max";
+	public static final String BOUND_STEP = "bound.step";
+	public static final String BOUND_SHARE_REASONS = "bound.shareReasons";
 	public static final String TARGET = "target";
 	public static final String METHOD = "method";
 	public static final String SOLVER = "solver";
+	public static final String PORTFOLIO = "portfolio";
+	public static final String METHOD_RULES = "method.rules";
 	public static final String TIMEOUT = "timeout";
 	public static final String VALIDATE = "validate";
+	public static final String SERVE = "serve";
+	public static final String SERVE_WORKERS = "serve.workers";
+	public static final String BATCH = "batch";
+	public static final String BATCH_EXPECTED = "batch.expected";
+	public static final String BATCH_OUTPUT = "batch.output";
+	public static final String BATCH_SHARD = "batch.shard";
+	public static final String BATCH_WORKERS = "batch.workers";
+	public static final String BATCH_FEATURES = "batch.features";
+	public static final String CACHE = "cache";
+	public static final String CACHE_SIZE = "cache.maxSize";
 	
 	// Encoding Options
 	public static final String LOCALLY_CONSISTENT = "encoding.locallyConsistent";
@@ -26,14 +41,28 @@ public class OptionNames {
 	public static final String REDUCE_SYMMETRY = "program.processing.reduceSymmetry";
 	public static final String ATOMIC_BLOCKS_AS_LOCKS = "program.processing.atomicBlocksAsLocks";
 	public static final String CONSTANT_PROPAGATION = "program.processing.constantPropagation";
+	public static final String BOUND_GUARDS = "program.processing.boundGuards";
 	
 	// Program Property Options
 	public static final String ALIAS_METHOD = "program.analysis.alias";
 	public static final String ALWAYS_SPLIT_ON_JUMPS = "program.analysis.cf.alwaysSplitOnJump";
 	public static final String MERGE_BRANCHES = "program.analysis.cf.mergeBranches";
 
+	// Memory Model Analysis Options
+	public static final String RELATION_ANALYSIS_PARALLELISM = "wmm.analysis.relations.parallelism";
+
+	// Data Race Options
+	public static final String RACES_BY_LOCATION = "races.byLocation";
+
 	// Refinement Options
 	public static final String BASELINE = "refinement.baseline";
+	public static final String INCREMENTAL_MODEL_UPDATES = "refinement.incrementalModelUpdates";
+	public static final String INCREMENTAL_MODEL_CHECKING = "refinement.incrementalModelChecking";
+	public static final String REASONING_PARALLELISM = "refinement.reasoningParallelism";
+	public static final String MAX_CYCLES = "refinement.maxCycles";
+	public static final String REASON_STORE = "refinement.reasonStore";
+	public static final String BATCH_SIZE = "refinement.batchSize";
+	public static final String EAGER_AXIOM_THRESHOLD = "refinement.eagerAxiomThreshold";
 	
 	// SMT solver Options
 	public static final String PHANTOM_REFERENCES = "solver.z3.usePhantomReferences";
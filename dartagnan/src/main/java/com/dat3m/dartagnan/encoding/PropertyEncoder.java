@@ -1,10 +1,12 @@
 package com.dat3m.dartagnan.encoding;
 
 import com.dat3m.dartagnan.configuration.Property;
+import com.dat3m.dartagnan.expression.BoundGuard;
 import com.dat3m.dartagnan.program.Program;
 import com.dat3m.dartagnan.program.Thread;
 import com.dat3m.dartagnan.program.analysis.AliasAnalysis;
 import com.dat3m.dartagnan.program.event.Tag;
+import com.dat3m.dartagnan.program.event.core.CondJump;
 import com.dat3m.dartagnan.program.event.core.Event;
 import com.dat3m.dartagnan.program.event.core.Label;
 import com.dat3m.dartagnan.program.event.core.Load;
@@ -31,6 +33,7 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -47,6 +50,9 @@ public class PropertyEncoder implements Encoder {
 
     private static final Logger logger = LogManager.getLogger(PropertyEncoder.class);
 
+    // This encoding assumes that the memory model has a happens-before relation with this name
+    private static final String HB = "hb";
+
     private final Program program;
     private final Wmm memoryModel;
     private final AliasAnalysis alias;
@@ -89,8 +95,25 @@ public class PropertyEncoder implements Encoder {
         logger.info("Encoding bound events execution");
 
         BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
-        return program.getCache().getEvents(FilterMinus.get(FilterBasic.get(Tag.BOUND), FilterBasic.get(Tag.SPINLOOP)))
-                .stream().map(Event::exec).reduce(bmgr.makeFalse(), bmgr::or);
+        List<Event> boundEvents = new ArrayList<>(program.getCache().getEvents(FilterMinus.get(FilterBasic.get(Tag.BOUND), FilterBasic.get(Tag.SPINLOOP))));
+        boundEvents.addAll(getBoundGuardJumps(program.getCache().getEvents(FilterBasic.get(Tag.JUMP))));
+        return boundEvents.stream().map(e -> reachesBound(e, ctx)).reduce(bmgr.makeFalse(), bmgr::or);
+    }
+
+    // Jumps that cut off the loop iterations beyond some bound (see LoopUnrolling)
+    private static List<Event> getBoundGuardJumps(List<Event> jumps) {
+        return jumps.stream()
+                .filter(e -> e instanceof CondJump && ((CondJump) e).getGuard() instanceof BoundGuard)
+                .collect(Collectors.toList());
+    }
+
+    // Bound events reach the bound once executed, while bound guard jumps only do if they are taken
+    private static BooleanFormula reachesBound(Event e, SolverContext ctx) {
+        if (e.is(Tag.BOUND)) {
+            return e.exec();
+        }
+        return ctx.getFormulaManager().getBooleanFormulaManager()
+                .and(e.exec(), ((CondJump) e).getGuard().toBoolFormula(e, ctx));
     }
 
     public BooleanFormula encodeAssertions(SolverContext ctx) {
@@ -170,8 +193,10 @@ public class PropertyEncoder implements Encoder {
         BooleanFormula atLeastOneStuck = bmgr.makeFalse();
         for (Thread t : program.getThreads()) {
             BooleanFormula isStuck = isStuckMap.getOrDefault(t, bmgr.makeFalse());
-            BooleanFormula isDone = t.getCache().getEvents(FilterBasic.get(Tag.BOUND)).stream()
-                    .map(e -> bmgr.not(e.exec())).reduce(bmgr.makeTrue(), bmgr::and);
+            List<Event> boundEvents = new ArrayList<>(t.getCache().getEvents(FilterBasic.get(Tag.BOUND)));
+            boundEvents.addAll(getBoundGuardJumps(t.getCache().getEvents(FilterBasic.get(Tag.JUMP))));
+            BooleanFormula isDone = boundEvents.stream()
+                    .map(e -> bmgr.not(reachesBound(e, ctx))).reduce(bmgr.makeTrue(), bmgr::and);
 
             atLeastOneStuck = bmgr.or(atLeastOneStuck, isStuck);
             allStuckOrDone = bmgr.and(allStuckOrDone, bmgr.or(isStuck, isDone));
@@ -183,16 +208,76 @@ public class PropertyEncoder implements Encoder {
     }
 
     public BooleanFormula encodeDataRaces(SolverContext ctx) {
-        final String hb = "hb";
+        logger.info("Encoding data-races");
+        BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
+        BooleanFormula enc = encodeDataRaces(computeRaceCandidates(), ctx);
+        // We use the SMT variable to extract from the model if the property was violated
+		enc = bmgr.equivalence(RACES.getSMTVariable(ctx), enc);
+        return bmgr.and(RACES.getSMTVariable(ctx), enc);
+    }
+
+    // Encodes that at least one of the given (write, memory event) pairs races
+    public BooleanFormula encodeDataRaces(List<Tuple> candidates, SolverContext ctx) {
+        checkHappensBefore();
+        BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
+        BooleanFormula enc = bmgr.makeFalse();
+        for(Tuple candidate : candidates) {
+            enc = bmgr.or(enc, encodeDataRace(candidate, ctx));
+        }
+        return enc;
+    }
+
+    /*
+        Encodes data races for the refinement (see RefinementSolver), which does not encode hb.
+        The literal of each candidate (see getDataRaceLiteral) only implies that both events access the same address.
+        Whether they actually race in the execution of a model gets checked lazily (see WMMSolver.explainNoDataRace).
+     */
+    public BooleanFormula encodeLazyDataRaces(SolverContext ctx) {
+        checkHappensBefore();
+        logger.info("Encoding data-races lazily");
+
+        BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
+        BooleanFormula enc = bmgr.makeFalse();
+        BooleanFormula candidateEnc = bmgr.makeTrue();
+        for(Tuple candidate : computeRaceCandidates()) {
+            MemEvent w = (MemEvent)candidate.getFirst();
+            MemEvent m = (MemEvent)candidate.getSecond();
+            BooleanFormula race = getDataRaceLiteral(candidate, ctx);
+            candidateEnc = bmgr.and(candidateEnc, bmgr.implication(race, bmgr.and(m.exec(), w.exec(),
+                    generalEqual(w.getMemAddressExpr(), m.getMemAddressExpr(), ctx))));
+            enc = bmgr.or(enc, race);
+        }
+        // We use the SMT variable to extract from the model if the property was violated
+		enc = bmgr.equivalence(RACES.getSMTVariable(ctx), enc);
+        return bmgr.and(RACES.getSMTVariable(ctx), enc, candidateEnc);
+    }
+
+    public BooleanFormula getDataRaceLiteral(Tuple candidate, SolverContext ctx) {
+        return ctx.getFormulaManager().getBooleanFormulaManager()
+                .makeVariable("race " + candidate.getFirst().getCId() + " " + candidate.getSecond().getCId());
+    }
+
+    private void checkHappensBefore() {
         checkState(memoryModel.getAxioms().stream().anyMatch(ax ->
-                        ax.isAcyclicity() && ax.getRelation().getName().equals(hb)),
+                        ax.isAcyclicity() && ax.getRelation().getName().equals(HB)),
                 "The provided WMM needs an 'acyclic(hb)' axiom to encode data races.");
-        logger.info("Encoding data-races");
+    }
 
+    // Encodes that the write <candidate.getFirst()> races with the memory event <candidate.getSecond()>
+    public BooleanFormula encodeDataRace(Tuple candidate, SolverContext ctx) {
         BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
         IntegerFormulaManager imgr = ctx.getFormulaManager().getIntegerFormulaManager();
+        MemEvent w = (MemEvent)candidate.getFirst();
+        MemEvent m = (MemEvent)candidate.getSecond();
+        return bmgr.and(m.exec(), w.exec(), edge(HB, m, w, ctx),
+                generalEqual(w.getMemAddressExpr(), m.getMemAddressExpr(), ctx),
+                imgr.equal(intVar(HB, w, ctx),
+                        imgr.add(intVar(HB, m, ctx), imgr.makeNumber(BigInteger.ONE))));
+    }
 
-        BooleanFormula enc = bmgr.makeFalse();
+    // The pairs (w, m) of a write w and a memory event m of another thread that may race
+    public List<Tuple> computeRaceCandidates() {
+        List<Tuple> candidates = new ArrayList<>();
         for(Thread t1 : program.getThreads()) {
             for(Thread t2 : program.getThreads()) {
                 if(t1.getId() == t2.getId()) {
@@ -206,18 +291,45 @@ public class PropertyEncoder implements Encoder {
                             continue;
                         }
                         if(w.canRace() && m.canRace() && alias.mayAlias(w, m)) {
-                            BooleanFormula conflict = bmgr.and(m.exec(), w.exec(), edge(hb, m, w, ctx),
-                                    generalEqual(w.getMemAddressExpr(), m.getMemAddressExpr(), ctx),
-                                    imgr.equal(intVar(hb, w, ctx),
-                                            imgr.add(intVar(hb, m, ctx), imgr.makeNumber(BigInteger.ONE))));
-                            enc = bmgr.or(enc, conflict);
+                            candidates.add(new Tuple(w, m));
                         }
                     }
                 }
             }
         }
-        // We use the SMT variable to extract from the model if the property was violated
-		enc = bmgr.equivalence(RACES.getSMTVariable(ctx), enc);
-        return bmgr.and(RACES.getSMTVariable(ctx), enc);
+        return candidates;
+    }
+
+    // Partitions the race candidates by the classes of (transitively) may-aliasing events they access.
+    // Candidates of different classes access different locations, so each class can be checked on its own.
+    public List<List<Tuple>> computeRaceCandidatesByLocation() {
+        Map<Event, Event> parent = new HashMap<>();
+        List<Tuple> candidates = computeRaceCandidates();
+        for(Tuple candidate : candidates) {
+            Event first = findRepresentative(parent, candidate.getFirst());
+            Event second = findRepresentative(parent, candidate.getSecond());
+            if(first != second) {
+                parent.put(second, first);
+            }
+        }
+        Map<Event, List<Tuple>> classes = new LinkedHashMap<>();
+        for(Tuple candidate : candidates) {
+            classes.computeIfAbsent(findRepresentative(parent, candidate.getFirst()), k -> new ArrayList<>()).add(candidate);
+        }
+        return new ArrayList<>(classes.values());
+    }
+
+    private static Event findRepresentative(Map<Event, Event> parent, Event e) {
+        Event rep = e;
+        while(parent.containsKey(rep)) {
+            rep = parent.get(rep);
+        }
+        // Path compression
+        while(e != rep) {
+            Event next = parent.get(e);
+            parent.put(e, rep);
+            e = next;
+        }
+        return rep;
     }
 }
@@ -17,12 +17,17 @@ import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.SolverContext;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
 
 public class WmmEncoder implements Encoder {
 
     private static final Logger logger = LogManager.getLogger(WmmEncoder.class);
 
     private final Wmm memoryModel;
+    private List<Axiom> axioms;
     private boolean isInitialized = false;
 
     // =====================================================================
@@ -38,6 +43,13 @@ public class WmmEncoder implements Encoder {
 
     @Override
     public void initializeEncoding(SolverContext ctx) {
+        initializeEncoding(ctx, memoryModel.getAxioms());
+    }
+
+    // Only the given axioms (and the relations they need) get encoded, all other axioms are ignored
+    public void initializeEncoding(SolverContext ctx, List<Axiom> axioms) {
+        Preconditions.checkArgument(memoryModel.getAxioms().containsAll(axioms), "Unknown axioms %s.", axioms);
+        this.axioms = new ArrayList<>(axioms);
         for(String relName : Wmm.BASE_RELATIONS) {
             memoryModel.getRelationRepository().getRelation(relName);
         }
@@ -50,12 +62,12 @@ public class WmmEncoder implements Encoder {
             relation.initializeEncoding(ctx);
         }
 
-        for (Axiom axiom : memoryModel.getAxioms()) {
+        for (Axiom axiom : axioms) {
             axiom.initializeEncoding(ctx);
         }
 
         // ====================== Compute encoding information =================
-        for (Axiom ax : memoryModel.getAxioms()) {
+        for (Axiom ax : axioms) {
             ax.getRelation().addEncodeTupleSet(ax.getEncodeTupleSet());
         }
 
@@ -66,6 +78,43 @@ public class WmmEncoder implements Encoder {
         isInitialized = true;
     }
 
+    // Extends the encoding by <newAxioms>: returns the encoding of the new axioms, of the relations
+    // that were not encoded yet, and of the tuples that the new axioms added to the already encoded relations.
+    // Together with the previously returned encodings, it is equivalent to the full encoding of all axioms so far.
+    public BooleanFormula encodeAdditionalAxioms(SolverContext ctx, List<Axiom> newAxioms) {
+        checkInitialized();
+        Preconditions.checkArgument(memoryModel.getAxioms().containsAll(newAxioms), "Unknown axioms %s.", newAxioms);
+        Preconditions.checkArgument(newAxioms.stream().noneMatch(axioms::contains), "Axioms %s are already encoded.", newAxioms);
+        Set<Relation> relations = memoryModel.getRelationRepository().getRelations();
+        for(Relation relation : relations){
+            relation.saveEncodeTupleSets();
+        }
+
+        for(RecursiveGroup recursiveGroup : memoryModel.getRecursiveGroups()){
+            recursiveGroup.setDoRecurse();
+        }
+        for (Axiom ax : newAxioms) {
+            ax.initializeEncoding(ctx);
+            ax.getRelation().addEncodeTupleSet(ax.getEncodeTupleSet());
+        }
+        for (RecursiveGroup recursiveGroup : Lists.reverse(memoryModel.getRecursiveGroups())) {
+            recursiveGroup.updateEncodeTupleSets();
+        }
+        axioms.addAll(newAxioms);
+
+        logger.info("Encoding axioms {}", newAxioms);
+        BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
+        BooleanFormula enc = bmgr.makeTrue();
+        // The relations that were encoded before must be extended before encode marks the new ones as encoded
+        for(Relation relation : relations){
+            enc = bmgr.and(enc, relation.encodeAddedTuples(ctx));
+        }
+        for (Axiom ax : newAxioms) {
+            enc = bmgr.and(enc, ax.getRelation().encode(ctx), ax.consistent(ctx));
+        }
+        return enc;
+    }
+
     private void checkInitialized() {
         Preconditions.checkState(isInitialized, "initializeEncoding must get called before encoding.");
     }
@@ -98,7 +147,7 @@ public class WmmEncoder implements Encoder {
         logger.info("Encoding relations");
         BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
         BooleanFormula enc = encodeAnarchicSemantics(ctx);
-        for (Axiom ax : memoryModel.getAxioms()) {
+        for (Axiom ax : axioms) {
             enc = bmgr.and(enc, ax.getRelation().encode(ctx));
         }
         return enc;
@@ -110,7 +159,7 @@ public class WmmEncoder implements Encoder {
         logger.info("Encoding consistency");
         BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
         BooleanFormula expr = bmgr.makeTrue();
-        for (Axiom ax : memoryModel.getAxioms()) {
+        for (Axiom ax : axioms) {
             expr = bmgr.and(expr, ax.consistent(ctx));
         }
         return expr;
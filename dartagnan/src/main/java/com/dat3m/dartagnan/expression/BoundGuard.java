@@ -0,0 +1,39 @@
+package com.dat3m.dartagnan.expression;
+
+import com.dat3m.dartagnan.program.event.core.Event;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+/*
+    The guard of the jumps that cut off all loop iterations beyond unrolling bound <bound> (see LoopUnrolling).
+    For the program analyses it is a nondeterministic choice, while the solver fixes it via assumptions
+    to check the program for a particular bound (see DeepeningSolver).
+ */
+public class BoundGuard extends BNonDet {
+
+	private final int bound;
+
+	public BoundGuard(int bound) {
+		super(-1);
+		this.bound = bound;
+	}
+
+	public int getBound() {
+		return bound;
+	}
+
+	// All guards of the same bound share the same literal
+	public static BooleanFormula getLiteral(int bound, SolverContext ctx) {
+		return ctx.getFormulaManager().getBooleanFormulaManager().makeVariable("DAT3M_bound_" + bound);
+	}
+
+	@Override
+	public BooleanFormula toBoolFormula(Event e, SolverContext ctx) {
+		return getLiteral(bound, ctx);
+	}
+
+	@Override
+	public String toString() {
+		return "bound(" + bound + ")";
+	}
+}
@@ -26,13 +26,26 @@ public class ParserCat {
         return parse(CharStreams.fromString(raw));
     }
 
+    // Parses <raw> without building the model, so that the same tree can be used to build several models
+    public ParserRuleContext parseTree(String raw) {
+        return parseTree(CharStreams.fromString(raw));
+    }
+
+    // Builds a fresh model from a tree returned by parseTree
+    public Wmm parse(ParserRuleContext parseTree) {
+        return (Wmm) parseTree.accept(new VisitorBase());
+    }
+
     private Wmm parse(CharStream charStream){
+        return parse(parseTree(charStream));
+    }
+
+    private ParserRuleContext parseTree(CharStream charStream){
         CatLexer lexer = new CatLexer(charStream);
         CommonTokenStream tokenStream = new CommonTokenStream(lexer);
 
         CatParser parser = new CatParser(tokenStream);
         parser.addErrorListener(new ParserErrorListener());
-        ParserRuleContext parserEntryPoint = parser.mcm();
-        return (Wmm) parserEntryPoint.accept(new VisitorBase());
+        return parser.mcm();
     }
 }
@@ -20,10 +20,7 @@ public class ProgramParser {
 
     public Program parse(File file) throws Exception {
     	if(file.getPath().endsWith("c")) {
-            compileWithClang(file);
-            compileWithSmack(file);
-            String name = file.getName().substring(0, file.getName().lastIndexOf('.'));
-            return new ProgramParser().parse(new File(System.getenv("DAT3M_HOME") + "/output/" + name + ".bpl"));    		
+            return new ProgramParser().parse(compile(file));
     	}
 
         Program program;
@@ -36,6 +33,18 @@ public class ProgramParser {
         return program;
     }
 
+    // Compiles C files to Boogie and returns the Boogie file, other files are returned as they are.
+    // This allows to parse a C program several times (e.g. with increasing unrolling bounds) but to compile it once.
+    public File compile(File file) throws Exception {
+    	if(!file.getPath().endsWith("c")) {
+    		return file;
+    	}
+        compileWithClang(file);
+        compileWithSmack(file);
+        String name = file.getName().substring(0, file.getName().lastIndexOf('.'));
+        return new File(System.getenv("DAT3M_HOME") + "/output/" + name + ".bpl");
+    }
+
     public Program parse(String raw, String format) throws Exception {
         switch (format) {
         	case "c":
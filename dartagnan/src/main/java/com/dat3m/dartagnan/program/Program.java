@@ -8,6 +8,7 @@ import com.dat3m.dartagnan.program.event.Tag;
 import com.dat3m.dartagnan.program.event.core.Event;
 import com.dat3m.dartagnan.program.filter.FilterBasic;
 import com.dat3m.dartagnan.program.memory.Memory;
+import com.google.common.base.Preconditions;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -132,6 +133,13 @@ public class Program {
         return true;
     }
 
+    // A program unrolled with bound guards (see LoopUnrolling) behaves like unrolled with any smaller bound
+    public void restrictUnrollingBound(int bound) {
+        Preconditions.checkArgument(bound >= 1 && bound <= unrollingBound,
+                "The program can only be restricted to a smaller bound.");
+        unrollingBound = bound;
+    }
+
     // Compilation
     // -----------------------------------------------------------------------------------------------------------------
 
@@ -3,6 +3,7 @@ package com.dat3m.dartagnan.program.analysis;
 import com.dat3m.dartagnan.configuration.Alias;
 import com.dat3m.dartagnan.program.Program;
 import com.dat3m.dartagnan.program.event.core.MemEvent;
+import com.google.common.primitives.ImmutableIntArray;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.sosy_lab.common.configuration.Configuration;
@@ -19,6 +20,10 @@ public interface AliasAnalysis {
     boolean mustAlias(MemEvent a, MemEvent b);
     boolean mayAlias(MemEvent a, MemEvent b);
 
+    // Ids of the locations that <e> may access.
+    // Two events may alias iff they share some id, which allows to index events by their locations.
+    ImmutableIntArray getLocationIds(MemEvent e);
+
     static AliasAnalysis fromConfig(Program program, Configuration config) throws InvalidConfigurationException {
         Config c = new Config(config);
 		logger.info("Selected Alias Analysis: " + c.method);
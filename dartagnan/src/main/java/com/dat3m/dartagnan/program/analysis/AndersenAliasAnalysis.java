@@ -15,6 +15,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Verify;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import com.google.common.primitives.ImmutableIntArray;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 
@@ -45,6 +46,7 @@ public class AndersenAliasAnalysis implements AliasAnalysis {
     private final Graph graph = new Graph();
 
     private final Map<MemEvent, ImmutableSet<Location>> eventAddressSpaceMap = new HashMap<>();
+    private final Map<MemEvent, ImmutableIntArray> eventLocationIdMap = new HashMap<>();
 
     // ================================ Construction ================================
 
@@ -77,6 +79,11 @@ public class AndersenAliasAnalysis implements AliasAnalysis {
         return getMaxAddressSet(x).size() == 1 && getMaxAddressSet(x).containsAll(getMaxAddressSet(y));
     }
 
+    @Override
+    public ImmutableIntArray getLocationIds(MemEvent e) {
+        return eventLocationIdMap.get(e);
+    }
+
     private ImmutableSet<Location> getMaxAddressSet(MemEvent e) {
         return eventAddressSpaceMap.get(e);
     }
@@ -88,6 +95,7 @@ public class AndersenAliasAnalysis implements AliasAnalysis {
         processRegs(program);
         algorithm(program);
         processResults(program);
+        processLocationIds();
     }
 
     private void processLocs(Program program) {
@@ -275,6 +283,18 @@ public class AndersenAliasAnalysis implements AliasAnalysis {
         }
     }
 
+    private void processLocationIds() {
+        // Numbers the locations such that events can be indexed by the locations they may access
+        Map<Location,Integer> ids = new HashMap<>();
+        eventAddressSpaceMap.forEach((e, addresses) -> {
+            ImmutableIntArray.Builder builder = ImmutableIntArray.builder(addresses.size());
+            for(Location l : addresses) {
+                builder.add(ids.computeIfAbsent(l, k -> ids.size()));
+            }
+            eventLocationIdMap.put(e, builder.build());
+        });
+    }
+
     private static final class Constant {
 
         final Location location;
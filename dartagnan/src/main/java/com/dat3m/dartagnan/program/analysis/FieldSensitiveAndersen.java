@@ -12,6 +12,7 @@ import com.dat3m.dartagnan.program.memory.MemoryObject;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import com.google.common.primitives.ImmutableIntArray;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 
@@ -54,6 +55,8 @@ public class FieldSensitiveAndersen implements AliasAnalysis {
     private final Map<Object,List<Offset<Collector>>> stores = new HashMap<>();
     ///Result sets
     private final Map<MemEvent,ImmutableSet<Location>> eventAddressSpaceMap = new HashMap<>();
+    ///Result sets as location ids
+    private final Map<MemEvent,ImmutableIntArray> eventLocationIdMap = new HashMap<>();
 
     // ================================ Construction ================================
 
@@ -77,6 +80,7 @@ public class FieldSensitiveAndersen implements AliasAnalysis {
         for(Event e : program.getCache().getEvents(FilterBasic.get(Tag.MEMORY))) {
             processResults((MemEvent)e);
         }
+        processLocationIds();
     }
 
     // ================================ API ================================
@@ -92,6 +96,11 @@ public class FieldSensitiveAndersen implements AliasAnalysis {
         return a.size() == 1 && a.containsAll(getMaxAddressSet(y));
     }
 
+    @Override
+    public ImmutableIntArray getLocationIds(MemEvent e) {
+        return eventLocationIdMap.get(e);
+    }
+
     private ImmutableSet<Location> getMaxAddressSet(MemEvent e) {
         return eventAddressSpaceMap.get(e);
     }
@@ -169,6 +178,17 @@ public class FieldSensitiveAndersen implements AliasAnalysis {
         eventAddressSpaceMap.put(e,addresses.build());
     }
 
+    protected void processLocationIds() {
+        Map<Location,Integer> ids = new HashMap<>();
+        eventAddressSpaceMap.forEach((e,addresses) -> {
+            ImmutableIntArray.Builder builder = ImmutableIntArray.builder(addresses.size());
+            for(Location l : addresses) {
+                builder.add(ids.computeIfAbsent(l,k->ids.size()));
+            }
+            eventLocationIdMap.put(e,builder.build());
+        });
+    }
+
     private static final class Offset <Base> {
 
         final Base base;
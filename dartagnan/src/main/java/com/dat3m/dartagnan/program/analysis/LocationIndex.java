@@ -0,0 +1,58 @@
+package com.dat3m.dartagnan.program.analysis;
+
+import com.dat3m.dartagnan.program.event.core.Event;
+import com.dat3m.dartagnan.program.event.core.MemEvent;
+import com.google.common.primitives.ImmutableIntArray;
+
+import java.util.*;
+
+// Inverted index from the locations of the alias analysis to the events that may access them.
+// Querying it avoids testing all pairs of events for aliasing, since most of them share no location.
+public class LocationIndex {
+
+    private final AliasAnalysis alias;
+    private final List<? extends Event> events;
+    private final Map<Integer, List<Event>> eventsByLocation = new HashMap<>();
+
+    public LocationIndex(AliasAnalysis alias, List<? extends Event> events) {
+        this.alias = alias;
+        this.events = events;
+        for (Event e : events) {
+            ImmutableIntArray ids = alias.getLocationIds((MemEvent) e);
+            for (int i = 0; i < ids.length(); i++) {
+                eventsByLocation.computeIfAbsent(ids.get(i), k -> new ArrayList<>()).add(e);
+            }
+        }
+    }
+
+    // Returns the indexed events that may alias with <e>, each one once.
+    public Collection<Event> getMayAlias(MemEvent e) {
+        ImmutableIntArray ids = alias.getLocationIds(e);
+        List<List<Event>> buckets = new ArrayList<>(ids.length());
+        int size = 0;
+        for (int i = 0; i < ids.length(); i++) {
+            List<Event> bucket = eventsByLocation.get(ids.get(i));
+            if (bucket != null) {
+                buckets.add(bucket);
+                size += bucket.size();
+            }
+        }
+        if (buckets.size() == 1) {
+            return buckets.get(0);
+        }
+        if (size > events.size()) {
+            // Events that may access many locations appear in many buckets,
+            // in which case scanning all events is cheaper than merging the buckets
+            List<Event> result = new ArrayList<>();
+            for (Event other : events) {
+                if (alias.mayAlias(e, (MemEvent) other)) {
+                    result.add(other);
+                }
+            }
+            return result;
+        }
+        Set<Event> result = new LinkedHashSet<>();
+        buckets.forEach(result::addAll);
+        return result;
+    }
+}
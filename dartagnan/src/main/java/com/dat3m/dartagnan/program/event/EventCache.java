@@ -6,25 +6,26 @@ import com.dat3m.dartagnan.program.filter.FilterBasic;
 import com.google.common.collect.ImmutableList;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+// Thread-safe, so that the relation analysis can query the events of the program in parallel
 public class EventCache {
 
-    private final Map<FilterAbstract, ImmutableList<Event>> events = new HashMap<>();
+    private final Map<FilterAbstract, ImmutableList<Event>> events = new ConcurrentHashMap<>();
 
     public EventCache(List<Event> events){
         this.events.put(FilterBasic.get(Tag.ANY), ImmutableList.copyOf(events));
     }
 
     public ImmutableList<Event> getEvents(FilterAbstract filter){
-        if(!events.containsKey(filter)){
+        return events.computeIfAbsent(filter, key -> {
             ImmutableList.Builder<Event> builder = new ImmutableList.Builder<>();
-            for(Event e : getEvents(FilterBasic.get(Tag.ANY))){
+            for(Event e : events.get(FilterBasic.get(Tag.ANY))){
                 if(filter.filter(e)){
                     builder.add(e);
                 }
             }
-            events.put(filter, builder.build());
-        }
-        return events.get(filter);
+            return builder.build();
+        });
     }
 }
\ No newline at end of file
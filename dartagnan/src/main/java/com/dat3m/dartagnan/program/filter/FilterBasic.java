@@ -2,12 +2,12 @@ package com.dat3m.dartagnan.program.filter;
 
 import com.dat3m.dartagnan.program.event.core.Event;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class FilterBasic extends FilterAbstract {
 
-    private final static Map<String, FilterBasic> instances = new HashMap<>();
+    private final static Map<String, FilterBasic> instances = new ConcurrentHashMap<>();
 
     public static FilterBasic get(String param){
         return instances.computeIfAbsent(param, FilterBasic::new);
@@ -2,12 +2,12 @@ package com.dat3m.dartagnan.program.filter;
 
 import com.dat3m.dartagnan.program.event.core.Event;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class FilterUnion extends FilterAbstract {
 
-    private final static Map<String, FilterUnion> instances = new HashMap<>();
+    private final static Map<String, FilterUnion> instances = new ConcurrentHashMap<>();
 
     public static FilterUnion get(FilterAbstract filter1, FilterAbstract filter2){
         String key = mkName(filter1, filter2);
@@ -1,5 +1,6 @@
 package com.dat3m.dartagnan.program.processing;
 
+import com.dat3m.dartagnan.expression.BoundGuard;
 import com.dat3m.dartagnan.program.Program;
 import com.dat3m.dartagnan.program.Thread;
 import com.dat3m.dartagnan.program.event.EventFactory;
@@ -19,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 
 import static com.dat3m.dartagnan.configuration.OptionNames.BOUND;
+import static com.dat3m.dartagnan.configuration.OptionNames.BOUND_GUARDS;
 import static com.dat3m.dartagnan.configuration.OptionNames.PRINT_PROGRAM_AFTER_UNROLLING;
 
 @Options
@@ -40,6 +42,14 @@ public class LoopUnrolling implements ProgramProcessor {
         this.bound = bound;
     }
 
+    @Option(name = BOUND_GUARDS,
+            description = "Starts each unrolled loop iteration i > 1 with a jump to the end of the thread " +
+                    "that is taken iff the program is checked for bound i-1 (see DeepeningSolver).",
+            secure = true)
+    private boolean boundGuards = false;
+
+    public boolean usesBoundGuards() { return boundGuards; }
+
     @Option(name = PRINT_PROGRAM_AFTER_UNROLLING,
             description = "Prints the program after unrolling.",
             secure = true)
@@ -139,12 +149,13 @@ public class LoopUnrolling implements ProgramProcessor {
             }
         }
 
+        Label exit = (Label) loopBackJump.getThread().getExit();
         int iterCounter = 0;
         while (--bound >= 0) {
             iterCounter++;
             if (bound == 0) {
-                Label exit = (Label) loopBackJump.getThread().getExit();
                 loopBegin.setName(loopBegin.getName() + "_" + iterCounter);
+                addBoundGuard(loopBegin, iterCounter, exit);
                 for (CondJump cont : continues) {
                     if (!cont.isGoto()) {
                         logger.warn("Conditional jump {} was replaced by unconditional bound event", cont);
@@ -161,6 +172,7 @@ public class LoopUnrolling implements ProgramProcessor {
                 Map<Event, Event> copyCtx = new HashMap<>();
                 List<Event> copies = copyPath(loopBegin, loopBackJump, copyCtx);
                 ((Label)copyCtx.get(loopBegin)).setName(loopBegin.getName() + "_" + iterCounter);
+                addBoundGuard((Label)copyCtx.get(loopBegin), iterCounter, exit);
 
                 // Insert copies at right place
                 loopBegin.getPredecessor().setSuccessor(copies.get(0));
@@ -186,6 +198,18 @@ public class LoopUnrolling implements ProgramProcessor {
         }
     }
 
+    // The iteration starting at <iterationBegin> is only executed if the bound is at least <iteration>
+    private void addBoundGuard(Label iterationBegin, int iteration, Label exit) {
+        if (!boundGuards || iteration == 1) {
+            return;
+        }
+        CondJump cut = EventFactory.newJump(new BoundGuard(iteration - 1), exit);
+        cut.addFilters(Tag.NOOPT);
+        Event next = iterationBegin.getSuccessor();
+        iterationBegin.setSuccessor(cut);
+        cut.setSuccessor(next);
+    }
+
     private List<Event> copyPath(Event from, Event until, Map<Event, Event> copyContext) {
         List<Event> copies = new ArrayList<>();
         Event cur = from;
@@ -18,6 +18,9 @@ public class CAATModel {
     private final Set<Constraint> constraints;
     private final PredicateHierarchy hierarchy;
 
+    // Whether the derived predicates were populated since the last domain initialization
+    private boolean isPopulated;
+
     // ======================================== Construction ==============================================
 
     private CAATModel(PredicateHierarchy hierarchy, Set<Constraint> constraints) {
@@ -58,14 +61,18 @@ public class CAATModel {
         return predicateMap.get(name);
     }
 
+    public boolean isPopulated() { return isPopulated; }
+
     // ======================================== Initialization ==============================================
 
     public void initializeToDomain(Domain<?> domain) {
         this.hierarchy.initializeToDomain(domain);
+        this.isPopulated = false;
     }
 
     public void populate() {
         this.hierarchy.populate();
+        this.isPopulated = true;
     }
 
     // ======================================== Consistency ==============================================
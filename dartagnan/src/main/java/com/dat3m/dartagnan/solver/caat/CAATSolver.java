@@ -2,36 +2,56 @@ package com.dat3m.dartagnan.solver.caat;
 
 
 import com.dat3m.dartagnan.solver.caat.constraints.Constraint;
-import com.dat3m.dartagnan.solver.caat.misc.PathAlgorithm;
+import com.dat3m.dartagnan.solver.caat.misc.ForkJoinHelper;
 import com.dat3m.dartagnan.solver.caat.reasoning.CAATLiteral;
 import com.dat3m.dartagnan.solver.caat.reasoning.Reasoner;
 import com.dat3m.dartagnan.utils.logic.Conjunction;
 import com.dat3m.dartagnan.utils.logic.DNF;
+import com.google.common.base.Preconditions;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import static com.dat3m.dartagnan.solver.caat.CAATSolver.Status.CONSISTENT;
 import static com.dat3m.dartagnan.solver.caat.CAATSolver.Status.INCONSISTENT;
 
 
-public class CAATSolver {
+public class CAATSolver implements AutoCloseable {
 
     // ======================================== Fields  ==============================================
 
     private final Reasoner reasoner;
+    // If present, reasons of independent constraints (and of their independent violations) get computed in parallel.
+    private final ForkJoinPool reasoningPool;
 
     // The statistics of the last call
     private Statistics stats;
 
     // ======================================== Construction ==============================================
 
-    private CAATSolver() {
+    private CAATSolver(int parallelism) {
+        Preconditions.checkArgument(parallelism > 0, "The parallelism level must be positive.");
         this.reasoner = new Reasoner();
+        this.reasoningPool = parallelism > 1 ? ForkJoinHelper.newPool(parallelism) : null;
     }
 
     public static CAATSolver create() {
-        return new CAATSolver();
+        return new CAATSolver(1);
+    }
+
+    public static CAATSolver create(int parallelism) {
+        return new CAATSolver(parallelism);
+    }
+
+    // Shuts down the threads used for the reason computation
+    @Override
+    public void close() {
+        if (reasoningPool != null) {
+            reasoningPool.shutdown();
+        }
     }
 
     // ======================================== Accessors ==============================================
@@ -48,7 +68,8 @@ public class CAATSolver {
             - All base predicates are populated or will populate themselves.
 
         <check> will:
-            - Populate the derived predicates in <model>
+            - Populate the derived predicates in <model> (unless this was already done, e.g., because
+              the model got updated incrementally)
             - Check consistency of <model>
             - If applicable, compute base reasons of consistency violations
             - Return results about the computation
@@ -57,10 +78,11 @@ public class CAATSolver {
         Result result = new Result();
         stats = result.getStatistics();
 
-        PathAlgorithm.ensureCapacity(model.getDomain().size());
         // ============== Populate derived predicates ===============
         long curTime = System.currentTimeMillis();
-        model.populate();
+        if (!model.isPopulated()) {
+            model.populate();
+        }
         stats.populationTime = System.currentTimeMillis() - curTime;
 
         // ============== Check for inconsistencies ===============
@@ -68,6 +90,7 @@ public class CAATSolver {
         List<Constraint> violatedConstraints = model.getViolatedConstraints();
         Status status = violatedConstraints.isEmpty() ? CONSISTENT : INCONSISTENT;
         result.setStatus(status);
+        result.setViolatedConstraints(violatedConstraints);
         stats.consistencyCheckTime = System.currentTimeMillis() - curTime;
 
         if (status == INCONSISTENT) {
@@ -83,9 +106,13 @@ public class CAATSolver {
     // ======================================== Reason computation ==============================================
 
     private DNF<CAATLiteral> computeInconsistencyReasons(List<Constraint> violatedConstraints) {
+        List<DNF<CAATLiteral>> constraintReasons = reasoningPool == null ?
+                ForkJoinHelper.map(violatedConstraints, reasoner::computeViolationReasons) :
+                reasoningPool.invoke(ForkJoinTask.adapt(
+                        () -> ForkJoinHelper.map(violatedConstraints, reasoner::computeViolationReasons)));
         List<Conjunction<CAATLiteral>> reasons = new ArrayList<>();
-        for (Constraint constraint : violatedConstraints) {
-            reasons.addAll(reasoner.computeViolationReasons(constraint).getCubes());
+        for (DNF<CAATLiteral> constraintReason : constraintReasons) {
+            reasons.addAll(constraintReason.getCubes());
         }
         stats.numComputedReasons += reasons.size();
         DNF<CAATLiteral> result = new DNF<>(reasons); // The conversion to DNF removes duplicates and dominated clauses
@@ -99,13 +126,16 @@ public class CAATSolver {
     public static class Result {
         private Status status;
         private DNF<CAATLiteral> baseReasons;
+        private List<Constraint> violatedConstraints;
         private final Statistics stats;
 
         public Status getStatus() { return status; }
         public DNF<CAATLiteral> getBaseReasons() { return baseReasons; }
+        public List<Constraint> getViolatedConstraints() { return violatedConstraints; }
         public Statistics getStatistics() { return stats; }
 
         void setStatus(Status status) { this.status = status; }
+        void setViolatedConstraints(List<Constraint> constraints) { this.violatedConstraints = constraints; }
         void setBaseReasons(DNF<CAATLiteral> reasons) {
             this.baseReasons = reasons;
         }
@@ -114,6 +144,7 @@ public class CAATSolver {
             stats = new Statistics();
             status = Status.INCONCLUSIVE;
             baseReasons = DNF.FALSE();
+            violatedConstraints = Collections.emptyList();
         }
 
         @Override
@@ -3,6 +3,9 @@ package com.dat3m.dartagnan.solver.caat.constraints;
 
 import com.dat3m.dartagnan.solver.caat.domain.Domain;
 import com.dat3m.dartagnan.solver.caat.misc.DenseIntegerSet;
+import com.dat3m.dartagnan.solver.caat.misc.EdgeConsumer;
+import com.dat3m.dartagnan.solver.caat.misc.EdgeDirection;
+import com.dat3m.dartagnan.solver.caat.misc.ForkJoinHelper;
 import com.dat3m.dartagnan.solver.caat.misc.ObjectPool;
 import com.dat3m.dartagnan.solver.caat.misc.PathAlgorithm;
 import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
@@ -19,18 +22,25 @@ public class AcyclicityConstraint extends AbstractConstraint {
 
     private final RelationGraph constrainedGraph;
 
-    private static final ObjectPool<DenseIntegerSet> SET_COLLECTION_POOL =
-            new ObjectPool<>(DenseIntegerSet::new, 10);
-
+    private final ObjectPool<DenseIntegerSet> sccPool = new ObjectPool<>(DenseIntegerSet::new, 10);
+    private final PathAlgorithm pathAlgorithm = new PathAlgorithm();
 
     private final List<DenseIntegerSet> violatingSccs = new ArrayList<>();
     private final DenseIntegerSet markedNodes = new DenseIntegerSet();
     private Node[] nodeMap;
+    // The maximal number of cycles reported by getViolations (0 means no limit)
+    private int maxNumberOfCycles = 0;
 
     public AcyclicityConstraint(RelationGraph constrainedGraph) {
         this.constrainedGraph = constrainedGraph;
     }
 
+    public int getMaxNumberOfCycles() { return maxNumberOfCycles; }
+    public void setMaxNumberOfCycles(int maxNumberOfCycles) {
+        Preconditions.checkArgument(maxNumberOfCycles >= 0, "The maximal number of cycles must be non-negative.");
+        this.maxNumberOfCycles = maxNumberOfCycles;
+    }
+
     @Override
     public RelationGraph getConstrainedPredicate() {
         return constrainedGraph;
@@ -57,57 +67,91 @@ public class AcyclicityConstraint extends AbstractConstraint {
             return Collections.emptyList();
         }
 
+        // The SCCs are disjoint, so we can search their cycles independently (and in parallel if possible)
+        List<List<List<Edge>>> sccCycles = ForkJoinHelper.map(violatingSccs, this::computeCycles);
         List<List<Edge>> cycles = new ArrayList<>();
-        // Current implementation: For all marked events <e> in all SCCs:
+        sccCycles.forEach(cycles::addAll);
+        if (maxNumberOfCycles > 0 && cycles.size() > maxNumberOfCycles) {
+            // We keep the shortest cycles since they give the smallest reasons
+            cycles.sort(Comparator.comparingInt(List::size));
+            cycles = new ArrayList<>(cycles.subList(0, maxNumberOfCycles));
+        }
+        return cycles;
+    }
+
+    private List<List<Edge>> computeCycles(Set<Integer> scc) {
+        // Each parallel search needs its own working memory
+        PathAlgorithm pathAlgorithm = ForkJoinHelper.canFork() ? new PathAlgorithm() : this.pathAlgorithm;
+        List<List<Edge>> cycles = new ArrayList<>();
+        // Current implementation: For all marked events <e> in the SCC:
         // (1) find a shortest path C from <e> to <e> (=cycle)
         // (2) remove all nodes in C from the search space (those nodes are likely to give the same cycle)
-        // (3) remove chords and normalize cycle order (starting from element with smallest id)
-        for (Set<Integer> scc : violatingSccs) {
-            MaterializedSubgraphView subgraph = new MaterializedSubgraphView(constrainedGraph, scc);
-            Set<Integer> nodes = new HashSet<>(Sets.intersection(scc, markedNodes));
-            while (!nodes.isEmpty()) {
-                int e = nodes.stream().findAny().get();
-
-                List<Edge> cycle = PathAlgorithm.findShortestPath(subgraph, e, e);
-                cycle = new ArrayList<>(cycle);
-
-                cycle.forEach(edge -> nodes.remove(edge.getFirst()));
-                //TODO: Most cycles have chords, so a specialized algorithm that avoids
-                // chords altogether would be great
-                reduceChordsAndNormalize(cycle);
-                if (!cycles.contains(cycle)) {
-                    cycles.add(cycle);
-                }
+        // (3) shrink C to a chordless cycle and normalize its order (starting from element with smallest id)
+        // We stop early once <maxNumberOfCycles> many cycles are found.
+        MaterializedSubgraphView subgraph = new MaterializedSubgraphView(constrainedGraph, scc);
+        Set<Integer> nodes = new HashSet<>(Sets.intersection(scc, markedNodes));
+        while (!nodes.isEmpty() && (maxNumberOfCycles == 0 || cycles.size() < maxNumberOfCycles)) {
+            int e = nodes.stream().findAny().get();
+
+            List<Edge> cycle = pathAlgorithm.findShortestPath(subgraph, e, e);
+            cycle.forEach(edge -> nodes.remove(edge.getFirst()));
+            cycle = removeChords(cycle);
+            normalize(cycle);
+            if (!cycles.contains(cycle)) {
+                cycles.add(cycle);
             }
         }
 
         return cycles;
     }
 
-    private void reduceChordsAndNormalize(List<Edge> cycle) {
-        // Reduces chords by iteratively merging first and last edge if possible
-        // Note that edges in the middle should not have chords since
-        // we start with a shortest cycle rooted at some node <e>
-        //TODO: after the first merge, the two nodes of the merged edge
-        // both may allow further merging but we only iteratively merge one of the two.
-        boolean prog;
-        do {
-            if (cycle.size() == 1) {
-                // Self-cycles are not reducible
-                return;
+    /*
+        Shrinks <cycle> until it is chordless (i.e. induced): no two of its nodes are connected
+        by an edge other than the cycle edges.
+        A shortest cycle through some node can still have chords that bypass that node.
+        A chord from the i-th to the j-th node of the cycle closes the shorter cycle that takes the chord
+        and then follows the old cycle from j back to i. We always take the chord that gives the shortest cycle,
+        and repeat until no chord is left.
+     */
+    private List<Edge> removeChords(List<Edge> cycle) {
+        List<Edge> current = new ArrayList<>(cycle);
+        while (current.size() > 1) {
+            final int size = current.size();
+            Edge bestChord = null;
+            int bestFrom = -1;
+            int bestLength = size;
+            for (int i = 0; i < size; i++) {
+                final int from = current.get(i).getFirst();
+                for (int offset = 2; offset <= size; offset++) {
+                    // The new cycle consists of the chord plus the (size - offset) edges following the chord's target
+                    final int length = 1 + size - offset;
+                    if (length >= bestLength) {
+                        continue;
+                    }
+                    final int to = current.get((i + offset) % size).getFirst();
+                    Edge chord = constrainedGraph.getById(from, to);
+                    if (chord != null) {
+                        bestChord = chord;
+                        bestFrom = i;
+                        bestLength = length;
+                    }
+                }
+            }
+            if (bestChord == null) {
+                break;
             }
-            prog = false;
-            Edge in = cycle.get(cycle.size() - 1);
-            Edge out = cycle.get(0);
-            Edge chord = constrainedGraph.get(new Edge(in.getFirst(), out.getSecond()));
-            if (chord != null) {
-                cycle.remove(cycle.size() - 1);
-                cycle.set(0, chord);
-                prog = true;
+            List<Edge> reduced = new ArrayList<>(bestLength);
+            reduced.add(bestChord);
+            final int start = bestFrom + size - (bestLength - 1);
+            for (int k = 0; k < bestLength - 1; k++) {
+                reduced.add(current.get((start + k) % size));
             }
-        } while (prog);
+            current = reduced;
+        }
+        return current;
+    }
 
-        // Normalize
+    private void normalize(List<Edge> cycle) {
         int first = 0;
         int minId = Integer.MAX_VALUE;
         int counter = 0;
@@ -130,6 +174,8 @@ public class AcyclicityConstraint extends AbstractConstraint {
     @Override
     public void onBacktrack(CAATPredicate predicate, int time) {
         cleanUp();
+        // The remaining edges may still form cycles, so we need to mark them again.
+        onChanged(predicate, predicate.setView());
     }
 
     @Override
@@ -151,7 +197,7 @@ public class AcyclicityConstraint extends AbstractConstraint {
     }
 
     private void cleanUp() {
-        violatingSccs.forEach(SET_COLLECTION_POOL::returnToPool);
+        violatingSccs.forEach(sccPool::returnToPool);
         violatingSccs.clear();
         markedNodes.clear();
     }
@@ -160,10 +206,19 @@ public class AcyclicityConstraint extends AbstractConstraint {
     // ============== Tarjan & SCCs ================
 
     private final Deque<Node> stack = new ArrayDeque<>();
+    private final Deque<Node> callStack = new ArrayDeque<>();
     private int index = 0;
+    // The successors of all nodes on the call stack, in call stack order.
+    // They are collected without Edge objects and dropped once their node is finished.
+    private int[] successors = new int[64];
+    private int numSuccessors = 0;
+    private final EdgeConsumer successorCollector = (id1, id2, time, derivLength) -> pushSuccessor(id2);
+
     private void tarjan() {
         index = 0;
+        numSuccessors = 0;
         stack.clear();
+        callStack.clear();
 
         for (Node node : nodeMap) {
             node.reset();
@@ -176,48 +231,75 @@ public class AcyclicityConstraint extends AbstractConstraint {
         }
     }
 
-    // The TEMP_LIST is used to temporary hold the nodes in an SCC.
+    // The tempList is used to temporary hold the nodes in an SCC.
     // The SCC will only actually get created if it is violating! (selfloop or size > 1)
-    private static final ArrayList<Integer> TEMP_LIST = new ArrayList<>();
-    private void strongConnect(Node v) {
-        v.index = index;
-        v.lowlink = index;
-        stack.push(v);
-        v.isOnStack = true;
-        index++;
+    private final ArrayList<Integer> tempList = new ArrayList<>();
+
+    // Tarjan's algorithm with an explicit call stack: long chains (e.g. along po) would overflow the JVM stack
+    private void strongConnect(Node root) {
+        visit(root);
+        callStack.push(root);
+        while (!callStack.isEmpty()) {
+            Node v = callStack.peek();
+            if (v.nextSuccessor < v.successorsEnd) {
+                Node w = nodeMap[successors[v.nextSuccessor++]];
+                if (w == v) {
+                    v.hasSelfLoop = true;
+                }
+                if (!w.wasVisited()) {
+                    visit(w);
+                    callStack.push(w);
+                } else if (w.isOnStack) {
+                    v.lowlink = Math.min(v.lowlink, w.index);
+                }
+                continue;
+            }
 
-        for (Edge e : constrainedGraph.outEdges(v.id)) {
-            Node w = nodeMap[e.getSecond()];
-            if (!w.wasVisited()) {
-                strongConnect(w);
-                v.lowlink = Math.min(v.lowlink, w.lowlink);
-            } else if (w.isOnStack) {
-                v.lowlink = Math.min(v.lowlink, w.index);
+            // All successors of <v> are done
+            callStack.pop();
+            numSuccessors = v.successorsStart;
+            if (!callStack.isEmpty()) {
+                Node parent = callStack.peek();
+                parent.lowlink = Math.min(parent.lowlink, v.lowlink);
             }
 
-            if (w == v) {
-                v.hasSelfLoop = true;
+            if (v.lowlink == v.index) {
+                Node w;
+                do {
+                    w = stack.pop();
+                    w.isOnStack = false;
+                    tempList.add(w.id);
+                } while (w != v);
+
+                if (v.hasSelfLoop || tempList.size() > 1) {
+                    DenseIntegerSet scc = sccPool.get();
+                    scc.ensureCapacity(domain.size());
+                    scc.clear();
+                    scc.addAll(tempList);
+                    violatingSccs.add(scc);
+                }
+                tempList.clear();
             }
         }
+    }
 
+    private void visit(Node v) {
+        v.index = index;
+        v.lowlink = index;
+        stack.push(v);
+        v.isOnStack = true;
+        index++;
+        v.successorsStart = numSuccessors;
+        constrainedGraph.forEachEdge(v.id, EdgeDirection.OUTGOING, successorCollector);
+        v.successorsEnd = numSuccessors;
+        v.nextSuccessor = v.successorsStart;
+    }
 
-        if (v.lowlink == v.index) {
-            Node w;
-            do {
-                w = stack.pop();
-                w.isOnStack = false;
-                TEMP_LIST.add(w.id);
-            } while (w != v);
-
-            if (v.hasSelfLoop || TEMP_LIST.size() > 1) {
-                DenseIntegerSet scc = SET_COLLECTION_POOL.get();
-                scc.ensureCapacity(domain.size());
-                scc.clear();
-                scc.addAll(TEMP_LIST);
-                violatingSccs.add(scc);
-            }
-            TEMP_LIST.clear();
+    private void pushSuccessor(int id) {
+        if (numSuccessors == successors.length) {
+            successors = Arrays.copyOf(successors, numSuccessors << 1);
         }
+        successors[numSuccessors++] = id;
     }
 
     private static class Node {
@@ -227,6 +309,10 @@ public class AcyclicityConstraint extends AbstractConstraint {
         boolean isOnStack = false;
         int index = -1;
         int lowlink = -1;
+        // The successors of this node are successors[successorsStart..successorsEnd-1] while it is on the call stack
+        int successorsStart = 0;
+        int successorsEnd = 0;
+        int nextSuccessor = 0;
 
         public Node(int id) {
             this.id = id;
@@ -241,6 +327,7 @@ public class AcyclicityConstraint extends AbstractConstraint {
             isOnStack = false;
             index = -1;
             lowlink = -1;
+            successorsStart = successorsEnd = nextSuccessor = 0;
         }
 
         @Override
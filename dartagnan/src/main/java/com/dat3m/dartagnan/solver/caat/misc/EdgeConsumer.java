@@ -0,0 +1,7 @@
+package com.dat3m.dartagnan.solver.caat.misc;
+
+// Receives the edges of a relation graph in unpacked form, so traversals need not allocate Edge objects.
+@FunctionalInterface
+public interface EdgeConsumer {
+    void accept(int id1, int id2, int time, int derivationLength);
+}
@@ -0,0 +1,153 @@
+package com.dat3m.dartagnan.solver.caat.misc;
+
+import java.util.Arrays;
+
+/*
+    An open-addressing hash table from (id1, id2)-pairs to the (time, derivation length)-pairs of edges.
+    Both pairs are packed into single longs, so neither lookups nor insertions allocate any objects.
+    Collisions are resolved by linear probing, and removals use backward-shift deletion
+    so that no tombstones accumulate when the graph is repeatedly backtracked.
+ */
+public final class EdgeTable {
+
+    // Returned by get if there is no entry. Packed pairs of non-negative ints are never negative.
+    public static final long NONE = -1L;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+
+    public EdgeTable() {
+        this(64);
+    }
+
+    public EdgeTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public static long pack(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    public static int high(long packed) { return (int) (packed >>> 32); }
+    public static int low(long packed) { return (int) packed; }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    // Returns the packed (time, derivation length) of the edge (id1, id2) or NONE if there is no such edge.
+    public long get(int id1, int id2) {
+        final long key = pack(id1, id2);
+        final long[] keys = this.keys;
+        final long[] values = this.values;
+        int i = indexOf(key);
+        long v;
+        while ((v = values[i]) != NONE) {
+            if (keys[i] == key) {
+                return v;
+            }
+            i = (i + 1) & mask;
+        }
+        return NONE;
+    }
+
+    public boolean contains(int id1, int id2) {
+        return get(id1, id2) != NONE;
+    }
+
+    // Adds the edge (id1, id2) with the packed <value> unless it is present already.
+    // Returns true if the edge got added.
+    public boolean putIfAbsent(int id1, int id2, long value) {
+        final long key = pack(id1, id2);
+        int i = indexOf(key);
+        while (values[i] != NONE) {
+            if (keys[i] == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > threshold) {
+            allocate(values.length << 1);
+        }
+        return true;
+    }
+
+    public boolean remove(int id1, int id2) {
+        final long key = pack(id1, id2);
+        int i = indexOf(key);
+        while (values[i] != NONE) {
+            if (keys[i] == key) {
+                size--;
+                shiftBack(i);
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(values, NONE);
+            size = 0;
+        }
+    }
+
+    // ============================ Internals ============================
+
+    private int indexOf(long key) {
+        // Fibonacci hashing: spreads the (mostly small) ids over all bits
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    // Closes the gap at <gap> by moving up entries of the probe sequence that follows it.
+    private void shiftBack(int gap) {
+        final long[] keys = this.keys;
+        final long[] values = this.values;
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == NONE) {
+                break;
+            }
+            int home = indexOf(keys[i]);
+            // The entry at <i> can fill the gap only if its home slot does not lie cyclically in (gap, i]
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        values[gap] = NONE;
+    }
+
+    private void allocate(int capacity) {
+        final long[] oldKeys = keys;
+        final long[] oldValues = values;
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(values, NONE);
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+        if (oldValues != null) {
+            for (int j = 0; j < oldValues.length; j++) {
+                if (oldValues[j] != NONE) {
+                    int i = indexOf(oldKeys[j]);
+                    while (values[i] != NONE) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.dat3m.dartagnan.solver.caat.misc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Function;
+
+/*
+    Helper methods for computations that may run inside a pool created by <newPool>.
+    The methods only fork if the caller already runs inside such a pool, so sequential callers are unaffected
+    and the level of parallelism is solely determined by the pool (see CAATSolver).
+    Callers that run inside other pools (e.g. the common pool) are treated as sequential callers.
+ */
+public final class ForkJoinHelper {
+
+    private ForkJoinHelper() { }
+
+    public static ForkJoinPool newPool(int parallelism) {
+        return new ForkJoinPool(parallelism, WorkerThread::new, null, false);
+    }
+
+    // Returns true if the current thread can fork subtasks
+    public static boolean canFork() {
+        return Thread.currentThread() instanceof WorkerThread;
+    }
+
+    // Applies <function> to all <items> and returns the results in the order of the items.
+    // If possible, the items get processed as parallel subtasks.
+    public static <T, R> List<R> map(Collection<? extends T> items, Function<? super T, ? extends R> function) {
+        List<R> results = new ArrayList<>(items.size());
+        if (items.size() < 2 || !canFork()) {
+            for (T item : items) {
+                results.add(function.apply(item));
+            }
+            return results;
+        }
+
+        List<ForkJoinTask<? extends R>> tasks = new ArrayList<>(items.size());
+        for (T item : items) {
+            tasks.add(ForkJoinTask.adapt(() -> function.apply(item)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+        for (ForkJoinTask<? extends R> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    private static class WorkerThread extends ForkJoinWorkerThread {
+        WorkerThread(ForkJoinPool pool) {
+            super(pool);
+        }
+    }
+}
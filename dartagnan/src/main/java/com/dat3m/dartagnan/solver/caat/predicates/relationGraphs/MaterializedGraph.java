@@ -1,6 +1,7 @@
 package com.dat3m.dartagnan.solver.caat.predicates.relationGraphs;
 
 import com.dat3m.dartagnan.solver.caat.domain.Domain;
+import com.dat3m.dartagnan.solver.caat.misc.EdgeConsumer;
 import com.dat3m.dartagnan.solver.caat.misc.EdgeDirection;
 import com.dat3m.dartagnan.solver.caat.predicates.AbstractPredicate;
 import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
@@ -29,6 +30,11 @@ public abstract class MaterializedGraph extends AbstractPredicate implements Rel
         return simpleGraph.get(edge);
     }
 
+    @Override
+    public Edge getById(int a, int b) {
+        return simpleGraph.getById(a, b);
+    }
+
     @Override
     public boolean containsById(int a, int b) {
         return simpleGraph.containsById(a, b);
@@ -100,6 +106,11 @@ public abstract class MaterializedGraph extends AbstractPredicate implements Rel
         return simpleGraph.edgeIterator(e, dir);
     }
 
+    @Override
+    public void forEachEdge(int e, EdgeDirection dir, EdgeConsumer action) {
+        simpleGraph.forEachEdge(e, dir, action);
+    }
+
     @Override
     public int size() {
         return simpleGraph.size();
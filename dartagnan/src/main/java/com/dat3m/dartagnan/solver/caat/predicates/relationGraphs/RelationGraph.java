@@ -1,5 +1,6 @@
 package com.dat3m.dartagnan.solver.caat.predicates.relationGraphs;
 
+import com.dat3m.dartagnan.solver.caat.misc.EdgeConsumer;
 import com.dat3m.dartagnan.solver.caat.misc.EdgeDirection;
 import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
 import com.dat3m.dartagnan.solver.caat.predicates.Derivable;
@@ -27,7 +28,8 @@ public interface RelationGraph extends CAATPredicate {
     // ================= Default methods ==================
 
     default boolean contains(Edge edge) { return get(edge) != null; }
-    default boolean containsById(int id1, int id2) { return contains(getById(id1, id2)); }
+    // Lookups by ids. Graphs that store their edges should override these to avoid allocating a probe edge.
+    default boolean containsById(int id1, int id2) { return getById(id1, id2) != null; }
     default Edge getById(int id1, int id2) { return get(new Edge(id1, id2)); }
 
     default int getMinSize(int e, EdgeDirection dir) { return size(e, dir); }
@@ -62,6 +64,12 @@ public interface RelationGraph extends CAATPredicate {
         return edgeStream(e, dir).iterator();
     }
 
+    // Traversal without Edge objects. Graphs that store their edges should override this to avoid any allocation.
+    default void forEachEdge(int e, EdgeDirection dir, EdgeConsumer action) {
+        edgeIterator(e, dir).forEachRemaining(edge ->
+                action.accept(edge.getFirst(), edge.getSecond(), edge.getTime(), edge.getDerivationLength()));
+    }
+
     default Iterable<Edge> edges() { return OneTimeIterable.create(edgeIterator()); }
     default Iterable<Edge> edges(int e, EdgeDirection dir)
     { return OneTimeIterable.create(edgeIterator(e, dir)); }
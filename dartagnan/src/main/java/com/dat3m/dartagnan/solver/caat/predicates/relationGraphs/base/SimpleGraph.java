@@ -1,8 +1,9 @@
 package com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.base;
 
 import com.dat3m.dartagnan.solver.caat.domain.Domain;
+import com.dat3m.dartagnan.solver.caat.misc.EdgeConsumer;
 import com.dat3m.dartagnan.solver.caat.misc.EdgeDirection;
-import com.dat3m.dartagnan.solver.caat.misc.EdgeList;
+import com.dat3m.dartagnan.solver.caat.misc.EdgeTable;
 import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
 import com.dat3m.dartagnan.solver.caat.predicates.Derivable;
 import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.Edge;
@@ -10,19 +11,26 @@ import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.RelationGraph;
 
 import java.util.*;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Spliterator.*;
 
 
 /*
     This is a simple graph that allows adding edges directly.
     It is mostly used as an internal implementation for many relationgraphs.
+    The edges are stored in primitive form: the edge table maps the ids of each edge to its packed
+    time and derivation length, and the adjacency arrays of each node hold the ids of its neighbours
+    together with the same packed data. Edge objects are only created when the edges are accessed as such
+    (e.g. by iterators), while the primitive methods (add, containsById, forEachEdge) do not allocate.
  */
 public final class SimpleGraph extends AbstractBaseGraph {
-    private DataItem[] outgoing = new DataItem[0];
-    private DataItem[] ingoing = new DataItem[0];
+    private Adjacency[] outgoing = new Adjacency[0];
+    private Adjacency[] ingoing = new Adjacency[0];
     private int maxTime = 0;
     private int numEvents = 0;
 
-    private final HashMap<Edge, Edge> edgeMap = new HashMap<>(100);
+    private final EdgeTable edgeMap = new EdgeTable(100);
 
     @Override
     public List<RelationGraph> getDependencies() {
@@ -46,26 +54,27 @@ public final class SimpleGraph extends AbstractBaseGraph {
         if (maxTime <= time) {
             return;
         }
+        maxTime = 0;
         final int bound = Math.min(numEvents, outgoing.length);
         for (int i = 0; i < bound; i++) {
-            DataItem item = outgoing[i];
-            if (item != null) {
-                item.backtrackTo(time);
-                maxTime = Math.max(maxTime, item.maxTime);
+            Adjacency adj = outgoing[i];
+            if (adj != null) {
+                adj.backtrackTo(time, i);
+                maxTime = Math.max(maxTime, adj.maxTime);
             }
         }
 
         final int bound2 = Math.min(numEvents, ingoing.length);
         for (int i = 0; i < bound2; i++) {
-            DataItem item = ingoing[i];
-            if (item != null) {
-                item.backtrackTo(time);
+            Adjacency adj = ingoing[i];
+            if (adj != null) {
+                adj.backtrackTo(time, i);
             }
         }
 
     }
 
-    private DataItem getItem(int e, EdgeDirection dir) {
+    private Adjacency getAdjacency(int e, EdgeDirection dir) {
         switch (dir) {
             case OUTGOING:
                 return outgoing[e];
@@ -76,13 +85,19 @@ public final class SimpleGraph extends AbstractBaseGraph {
         }
     }
 
-    public Collection<Edge> getEdges(int e, EdgeDirection dir) {
-        DataItem item = getItem(e, dir);
-        return item == null ? Collections.emptyList() : item.edgeList;
+    public Edge get(Edge edge) {
+        return getById(edge.getFirst(), edge.getSecond());
     }
 
-    public Edge get(Edge edge) {
-        return edgeMap.get(edge);
+    @Override
+    public Edge getById(int id1, int id2) {
+        final long data = edgeMap.get(id1, id2);
+        return data == EdgeTable.NONE ? null : toEdge(id1, id2, data);
+    }
+
+    @Override
+    public boolean containsById(int id1, int id2) {
+        return edgeMap.contains(id1, id2);
     }
 
     @Override
@@ -92,32 +107,36 @@ public final class SimpleGraph extends AbstractBaseGraph {
 
     @Override
     public int size(int e, EdgeDirection dir) {
-        DataItem item = getItem(e, dir);
-        return item == null ? 0 : item.size();
+        Adjacency adj = getAdjacency(e, dir);
+        return adj == null ? 0 : adj.size;
     }
 
     public boolean contains(Edge e) {
-        return edgeMap.containsKey(e);
+        return edgeMap.contains(e.getFirst(), e.getSecond());
     }
 
     public boolean add(Edge e) {
-        if (edgeMap.putIfAbsent(e, e) != null) {
+        return add(e.getFirst(), e.getSecond(), e.getTime(), e.getDerivationLength());
+    }
+
+    // Adds the edge (id1, id2) unless it is present already. Returns true if the edge got added.
+    public boolean add(int id1, int id2, int time, int derivationLength) {
+        final long data = EdgeTable.pack(time, derivationLength);
+        if (!edgeMap.putIfAbsent(id1, id2, data)) {
             return false;
         }
-        int firstId = e.getFirst();
-        int secondId = e.getSecond();
-        maxTime = Math.max(maxTime, e.getTime());
-        DataItem item1 = outgoing[firstId];
-        if (item1 == null) {
-            outgoing[firstId] = item1 = new DataItem(true);
+        maxTime = Math.max(maxTime, time);
+        Adjacency adj1 = outgoing[id1];
+        if (adj1 == null) {
+            outgoing[id1] = adj1 = new Adjacency(true);
         }
-        item1.add(e);
+        adj1.add(id2, data);
 
-        DataItem item2 = ingoing[secondId];
-        if (item2 == null) {
-            ingoing[secondId] = item2 = new DataItem( false);
+        Adjacency adj2 = ingoing[id2];
+        if (adj2 == null) {
+            ingoing[id2] = adj2 = new Adjacency(false);
         }
-        item2.add(e);
+        adj2.add(id1, data);
 
         return true;
     }
@@ -136,38 +155,60 @@ public final class SimpleGraph extends AbstractBaseGraph {
 
         final int bound = Math.min(numEvents, outgoing.length);
         for (int i = 0; i < bound; i++) {
-            DataItem item = outgoing[i];
-            if (item != null) {
-                item.clear();
+            Adjacency adj = outgoing[i];
+            if (adj != null) {
+                adj.clear();
             }
         }
 
         final int bound2 = Math.min(numEvents, ingoing.length);
         for (int i = 0; i < bound2; i++) {
-            DataItem item = ingoing[i];
-            if (item != null) {
-                item.clear();
+            Adjacency adj = ingoing[i];
+            if (adj != null) {
+                adj.clear();
+            }
+        }
+    }
+
+    // Like the iterators, this visits the most recently added edges first.
+    // Edges that get added to this graph by <action> are not visited.
+    @Override
+    public void forEachEdge(int e, EdgeDirection dir, EdgeConsumer action) {
+        Adjacency adj = getAdjacency(e, dir);
+        if (adj == null) {
+            return;
+        }
+        final boolean isOutgoing = adj.isOutgoing;
+        int i = adj.size;
+        while (--i >= 0) {
+            // The arrays may get reallocated by <action>, but the first <size> entries stay in place
+            final int other = adj.ids[i];
+            final long data = adj.data[i];
+            if (isOutgoing) {
+                action.accept(e, other, EdgeTable.high(data), EdgeTable.low(data));
+            } else {
+                action.accept(other, e, EdgeTable.high(data), EdgeTable.low(data));
             }
         }
     }
 
     @Override
     public Stream<Edge> edgeStream() {
-        return Arrays.stream(outgoing, 0, Math.min(numEvents, outgoing.length))
-                .filter(item -> item != null && !item.isEmpty())
-                .flatMap(DataItem::stream);
+        return StreamSupport.stream(Spliterators.spliterator(edgeIterator(), size(),
+                SIZED | DISTINCT | NONNULL), false);
     }
 
     @Override
     public Stream<Edge> edgeStream(int e, EdgeDirection dir) {
-        DataItem item = getItem(e, dir);
-        return item == null ? Stream.empty() : item.stream();
+        Adjacency adj = getAdjacency(e, dir);
+        return adj == null ? Stream.empty() : StreamSupport.stream(Spliterators.spliterator(adj.iterator(e), adj.size,
+                SIZED | DISTINCT | NONNULL), false);
     }
 
     @Override
     public Iterator<Edge> edgeIterator(int e, EdgeDirection dir) {
-        DataItem item = getItem(e, dir);
-        return item == null ? Collections.emptyIterator() : item.iterator();
+        Adjacency adj = getAdjacency(e, dir);
+        return adj == null ? Collections.emptyIterator() : adj.iterator(e);
     }
 
     @Override
@@ -193,62 +234,81 @@ public final class SimpleGraph extends AbstractBaseGraph {
         return name != null ? name : SimpleGraph.class.getSimpleName() + ": " + size();
     }
 
-    private final class DataItem implements Iterable<Edge> {
-        final List<Edge> edgeList;
-        final boolean deleteFromMap;
+    private static Edge toEdge(int id1, int id2, long data) {
+        return new Edge(id1, id2, EdgeTable.high(data), EdgeTable.low(data));
+    }
+
+    // The neighbours of a single node in one direction, ordered by the time they got added.
+    private final class Adjacency {
+        final boolean isOutgoing;
+        int[] ids = new int[20];
+        long[] data = new long[20];
+        int size;
         int maxTime;
 
-        public DataItem(boolean deleteFromMap) {
-            edgeList = new EdgeList(20);
-            this.deleteFromMap = deleteFromMap;
-            maxTime = 0;
+        public Adjacency(boolean isOutgoing) {
+            this.isOutgoing = isOutgoing;
         }
 
-        public int size() {
-            return edgeList.size();
-        }
-        public boolean isEmpty() {
-            return edgeList.isEmpty();
+        public void add(int other, long edgeData) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size << 1);
+                data = Arrays.copyOf(data, size << 1);
+            }
+            ids[size] = other;
+            data[size] = edgeData;
+            size++;
+            maxTime = Math.max(maxTime, EdgeTable.high(edgeData));
         }
 
-        public boolean add(Edge e) {
-            edgeList.add(e);
-            maxTime = Math.max(maxTime, e.getTime());
-            return true;
+        public Edge get(int node, int index) {
+            return isOutgoing ? toEdge(node, ids[index], data[index]) : toEdge(ids[index], node, data[index]);
         }
 
+        // Iterates from the most recently added edge to the oldest one
+        public Iterator<Edge> iterator(int node) {
+            return new Iterator<>() {
+                int index = size;
 
-        public Iterator<Edge> iterator() {
-            return edgeList.iterator();
-        }
-        public Stream<Edge> stream() {
-            return edgeList.stream();
+                @Override
+                public boolean hasNext() {
+                    return index > 0;
+                }
+
+                @Override
+                public Edge next() {
+                    if (index <= 0) {
+                        throw new NoSuchElementException();
+                    }
+                    return get(node, --index);
+                }
+            };
         }
 
         public void clear() {
-            edgeList.clear();
+            size = 0;
             maxTime = 0;
         }
 
-        public void backtrackTo(int time) {
-            //NOTE: We use the fact that the edge list
+        public void backtrackTo(int time, int node) {
+            //NOTE: We use the fact that the adjacency
             // should be sorted by timestamp (since edges with higher timestamp get added later)
             if (maxTime > time) {
-                final List<Edge> edgeList = this.edgeList;
-                final Map<Edge, Edge> edgeMap = SimpleGraph.this.edgeMap;
-                int i = edgeList.size();
-                while (--i >= 0) {
-                    Edge e = edgeList.get(i);
-                    if (e.getTime() > time) {
-                        edgeList.remove(i);
-                        if (deleteFromMap) {
-                            edgeMap.remove(e);
+                final EdgeTable edgeMap = SimpleGraph.this.edgeMap;
+                while (--size >= 0) {
+                    final int edgeTime = EdgeTable.high(data[size]);
+                    if (edgeTime > time) {
+                        // Only the outgoing adjacencies delete from the table, so each edge gets deleted once
+                        if (isOutgoing) {
+                            edgeMap.remove(node, ids[size]);
                         }
                     } else {
-                        maxTime = e.getTime();
+                        size++;
+                        maxTime = edgeTime;
                         return;
                     }
                 }
+                size = 0;
                 maxTime = 0;
             }
         }
@@ -257,40 +317,39 @@ public final class SimpleGraph extends AbstractBaseGraph {
 
     private class EdgeIterator implements Iterator<Edge> {
 
-        int index = -1;
-        List<Edge> innerList = Collections.emptyList();
+        int node = -1;
+        Adjacency adj = null;
         int innerIndex = 0;
-        Edge edge = null;
 
         public EdgeIterator() {
             findNext();
         }
 
         private void findNext() {
-            edge = null;
-            if (++innerIndex >= innerList.size()) {
+            if (adj == null || ++innerIndex >= adj.size) {
+                adj = null;
                 innerIndex = 0;
-                while (++index < numEvents) {
-                    DataItem item = outgoing[index];
-                    if (item != null && !item.isEmpty()) {
-                        innerList = item.edgeList;
-                        edge = innerList.get(0);
+                while (++node < numEvents) {
+                    Adjacency next = outgoing[node];
+                    if (next != null && next.size > 0) {
+                        adj = next;
                         return;
                     }
                 }
-            } else {
-                edge = innerList.get(innerIndex);
             }
         }
 
         @Override
         public boolean hasNext() {
-            return edge != null;
+            return adj != null;
         }
 
         @Override
         public Edge next() {
-            Edge e = edge;
+            if (adj == null) {
+                throw new NoSuchElementException();
+            }
+            Edge e = adj.get(node, innerIndex);
             findNext();
             return e;
         }
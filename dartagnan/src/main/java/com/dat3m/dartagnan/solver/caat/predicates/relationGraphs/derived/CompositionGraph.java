@@ -1,6 +1,7 @@
 package com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.derived;
 
 
+import com.dat3m.dartagnan.solver.caat.misc.EdgeDirection;
 import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
 import com.dat3m.dartagnan.solver.caat.predicates.Derivable;
 import com.dat3m.dartagnan.solver.caat.predicates.misc.PredicateVisitor;
@@ -49,11 +50,6 @@ public class CompositionGraph extends MaterializedGraph {
         }
     }
 
-    private Edge combine(Edge a, Edge b, int time) {
-        return new Edge(a.getFirst(), b.getSecond(), time,
-                Math.max(a.getDerivationLength(), b.getDerivationLength()) + 1);
-    }
-
     @Override
     @SuppressWarnings("unchecked")
     public Collection<Edge> forwardPropagate(CAATPredicate changedSource, Collection<? extends Derivable> added) {
@@ -77,21 +73,26 @@ public class CompositionGraph extends MaterializedGraph {
         return newEdges;
     }
 
+    // The combined edges are traversed and added in primitive form, so only the newly added ones get allocated
     private void updateFirst(Edge a, Collection<Edge> addedEdges) {
-        for (Edge b : second.outEdges(a.getSecond())) {
-            Edge c = combine(a, b, a.getTime());
-            if (simpleGraph.add(c)) {
-                addedEdges.add(c);
-            }
-        }
+        final int id1 = a.getFirst();
+        final int time = a.getTime();
+        final int length = a.getDerivationLength();
+        second.forEachEdge(a.getSecond(), EdgeDirection.OUTGOING, (x, id2, t, bLength) ->
+                addCombined(id1, id2, time, Math.max(length, bLength) + 1, addedEdges));
     }
 
     private void updateSecond(Edge b, Collection<Edge> addedEdges) {
-        for (Edge a : first.inEdges(b.getFirst())) {
-            Edge c = combine(a, b, b.getTime());
-            if (simpleGraph.add(c)) {
-                addedEdges.add(c);
-            }
+        final int id2 = b.getSecond();
+        final int time = b.getTime();
+        final int length = b.getDerivationLength();
+        first.forEachEdge(b.getFirst(), EdgeDirection.INGOING, (id1, y, t, aLength) ->
+                addCombined(id1, id2, time, Math.max(aLength, length) + 1, addedEdges));
+    }
+
+    private void addCombined(int id1, int id2, int time, int derivLength, Collection<Edge> addedEdges) {
+        if (simpleGraph.add(id1, id2, time, derivLength)) {
+            addedEdges.add(new Edge(id1, id2, time, derivLength));
         }
     }
 
@@ -41,6 +41,11 @@ public class DifferenceGraph extends AbstractPredicate implements RelationGraph
         return second.contains(edge) ? null : first.get(edge);
     }
 
+    @Override
+    public Edge getById(int id1, int id2) {
+        return second.containsById(id1, id2) ? null : first.getById(id1, id2);
+    }
+
     @Override
     public boolean contains(Edge edge) {
         return first.contains(edge) && !second.contains(edge);
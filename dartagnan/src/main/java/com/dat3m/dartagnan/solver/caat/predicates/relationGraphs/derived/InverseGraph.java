@@ -1,5 +1,6 @@
 package com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.derived;
 
+import com.dat3m.dartagnan.solver.caat.misc.EdgeConsumer;
 import com.dat3m.dartagnan.solver.caat.misc.EdgeDirection;
 import com.dat3m.dartagnan.solver.caat.predicates.AbstractPredicate;
 import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
@@ -31,7 +32,12 @@ public class InverseGraph extends AbstractPredicate implements RelationGraph {
 
     @Override
     public Edge get(Edge edge) {
-        Edge e = inner.get(edge.inverse());
+        return getById(edge.getFirst(), edge.getSecond());
+    }
+
+    @Override
+    public Edge getById(int id1, int id2) {
+        Edge e = inner.getById(id2, id1);
         return e == null ? null : derive(e);
     }
 
@@ -42,7 +48,7 @@ public class InverseGraph extends AbstractPredicate implements RelationGraph {
 
     @Override
     public boolean contains(Edge edge) {
-        return inner.contains(edge.inverse());
+        return inner.containsById(edge.getSecond(), edge.getFirst());
     }
 
     @Override
@@ -105,6 +111,11 @@ public class InverseGraph extends AbstractPredicate implements RelationGraph {
         return Iterators.transform(inner.edgeIterator(e, dir.flip()), this::derive);
     }
 
+    @Override
+    public void forEachEdge(int e, EdgeDirection dir, EdgeConsumer action) {
+        inner.forEachEdge(e, dir.flip(), (id1, id2, time, derivLength) -> action.accept(id2, id1, time, derivLength + 1));
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public Collection<Edge> forwardPropagate(CAATPredicate changedSource, Collection<? extends Derivable> added) {
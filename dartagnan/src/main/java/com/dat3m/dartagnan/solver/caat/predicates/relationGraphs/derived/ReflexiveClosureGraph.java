@@ -34,6 +34,11 @@ public class ReflexiveClosureGraph extends AbstractPredicate implements Relation
         return edge.isLoop() ? edge.with(0, 0) : inner.get(edge);
     }
 
+    @Override
+    public Edge getById(int id1, int id2) {
+        return id1 == id2 ? new Edge(id1, id2) : inner.getById(id1, id2);
+    }
+
     @Override
     public int size(int e, EdgeDirection dir) {
         return inner.size(e, dir) + (inner.containsById(e, e) ? 0 : 1);
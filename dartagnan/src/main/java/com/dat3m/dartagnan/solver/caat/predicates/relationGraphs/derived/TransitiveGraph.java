@@ -1,5 +1,6 @@
 package com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.derived;
 
+import com.dat3m.dartagnan.solver.caat.misc.EdgeDirection;
 import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
 import com.dat3m.dartagnan.solver.caat.predicates.Derivable;
 import com.dat3m.dartagnan.solver.caat.predicates.misc.PredicateVisitor;
@@ -27,48 +28,192 @@ public class TransitiveGraph extends MaterializedGraph {
         return e.withDerivationLength(e.getDerivationLength() + 1);
     }
 
-    private Edge combine(Edge a, Edge b, int time) {
-        return new Edge(a.getFirst(), b.getSecond(), time,
-                Math.max(a.getDerivationLength(), b.getDerivationLength()) + 1);
-    }
+    /*
+        The initial population computes the closure in bulk instead of adding the edges one by one.
+        The closure is computed level by level, where a level (t, d) consists of all inner edges
+        with time <= t and derivation length <= d. A pair (a, b) gets the lexicographically smallest level (t, d)
+        at which b is reachable from a. The resulting edge (a, b, t, d + 1) is thus supported
+        by a path that survives backtracking to <t> and whose edges are all shorter than the edge itself,
+        as required by the reasoning (see Reasoner.visitTransitiveClosure).
+        Each level is closed by condensing the strongly connected components (in reverse topological order)
+        and propagating bitsets of reachable events over the resulting DAG.
+        During population all edges usually share the same time, so there are only few levels.
+        If there are too many of them, we fall back to the incremental procedure.
+     */
+    private static final int MAX_BULK_LEVELS = 8;
 
     @Override
     public void repopulate() {
-        //TODO: This is inefficient for many edges (the likely default case!)
-        // Initially, we can probably use some non-incremental approach
-        Set<Edge> fakeSet = SetUtil.fakeSet();
-        for (Edge e : inner.edges()) {
-            updateEdge(derive(e), fakeSet);
+        List<Edge> innerEdges = new ArrayList<>();
+        inner.edges().forEach(innerEdges::add);
+        if (innerEdges.isEmpty()) {
+            return;
+        }
+        final int[] times = innerEdges.stream().mapToInt(Edge::getTime).distinct().sorted().toArray();
+        final int[] derivLengths = innerEdges.stream().mapToInt(Edge::getDerivationLength).distinct().sorted().toArray();
+        if (times.length * derivLengths.length > MAX_BULK_LEVELS) {
+            innerEdges.sort(Comparator.comparingInt(Edge::getTime));
+            Set<Edge> fakeSet = SetUtil.fakeSet();
+            for (Edge e : innerEdges) {
+                updateEdge(derive(e), fakeSet);
+            }
+            return;
+        }
+
+        for (int time : times) {
+            for (int derivLength : derivLengths) {
+                List<Edge> levelEdges = new ArrayList<>(innerEdges.size());
+                for (Edge e : innerEdges) {
+                    if (e.getTime() <= time && e.getDerivationLength() <= derivLength) {
+                        levelEdges.add(e);
+                    }
+                }
+                addClosure(levelEdges, time, derivLength + 1);
+            }
+        }
+    }
+
+    // Adds all missing edges of the transitive closure of <edges> with the given time and derivation length.
+    private void addClosure(List<Edge> edges, int time, int derivLength) {
+        final int n = domain.size();
+
+        // Adjacency in compressed form: the successors of v are targets[offsets[v]..offsets[v+1]-1]
+        final int[] offsets = new int[n + 1];
+        for (Edge e : edges) {
+            offsets[e.getFirst() + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        final int[] targets = new int[edges.size()];
+        final int[] fill = Arrays.copyOf(offsets, n);
+        for (Edge e : edges) {
+            targets[fill[e.getFirst()]++] = e.getSecond();
+        }
+
+        // Iterative Tarjan: components are completed in reverse topological order (sinks first)
+        final int[] index = new int[n];
+        final int[] low = new int[n];
+        final int[] comp = new int[n];
+        Arrays.fill(index, -1);
+        Arrays.fill(comp, -1);
+        final int[] stack = new int[n];
+        final int[] callStack = new int[n];
+        final int[] edgePos = new int[n];
+        final int[] members = new int[n];
+        final List<BitSet> reach = new ArrayList<>();
+        int stackSize = 0;
+        int nextIndex = 0;
+        int numMembers = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] != -1 || offsets[root] == offsets[root + 1]) {
+                continue;
+            }
+            int depth = 0;
+            callStack[0] = root;
+            edgePos[root] = offsets[root];
+            index[root] = low[root] = nextIndex++;
+            stack[stackSize++] = root;
+            while (depth >= 0) {
+                final int v = callStack[depth];
+                if (edgePos[v] < offsets[v + 1]) {
+                    final int w = targets[edgePos[v]++];
+                    if (index[w] == -1) {
+                        index[w] = low[w] = nextIndex++;
+                        stack[stackSize++] = w;
+                        edgePos[w] = offsets[w];
+                        callStack[++depth] = w;
+                    } else if (comp[w] == -1) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                // <v> is finished
+                if (low[v] == index[v]) {
+                    final int c = reach.size();
+                    final int first = numMembers;
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        comp[w] = c;
+                        members[numMembers++] = w;
+                    } while (w != v);
+                    reach.add(computeReach(c, first, numMembers, members, comp, offsets, targets, reach, n));
+                    for (int i = first; i < numMembers; i++) {
+                        addEdgesFrom(members[i], reach.get(c), time, derivLength);
+                    }
+                }
+                if (--depth >= 0) {
+                    final int parent = callStack[depth];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+            }
         }
     }
 
-    // Every (transitive) edge that gets added by adding <edge> is collected into <addedEdged>
+    // Computes the events reachable in at least one step from the component <c> (given by members[from..to-1]).
+    // All successor components are completed already.
+    private static BitSet computeReach(int c, int from, int to, int[] members, int[] comp,
+                                       int[] offsets, int[] targets, List<BitSet> reach, int n) {
+        final BitSet reachable = new BitSet(n);
+        boolean isCyclic = to - from > 1;
+        for (int i = from; i < to; i++) {
+            final int v = members[i];
+            for (int j = offsets[v]; j < offsets[v + 1]; j++) {
+                final int w = targets[j];
+                if (comp[w] == c) {
+                    isCyclic = true;
+                } else {
+                    reachable.set(w);
+                    reachable.or(reach.get(comp[w]));
+                }
+            }
+        }
+        if (isCyclic) {
+            for (int i = from; i < to; i++) {
+                reachable.set(members[i]);
+            }
+        }
+        return reachable;
+    }
+
+    private void addEdgesFrom(int v, BitSet reachable, int time, int derivLength) {
+        for (int u = reachable.nextSetBit(0); u >= 0; u = reachable.nextSetBit(u + 1)) {
+            simpleGraph.add(v, u, time, derivLength);
+        }
+    }
+
+    // Every (transitive) edge that gets added by adding <edge> is collected into <addedEdged>.
+    // The adjacent edges are traversed and combined in primitive form, so only the newly added edges get allocated.
     private void updateEdge(Edge edge, Collection<Edge> addedEdges) {
         if (!simpleGraph.add(edge)) {
             return;
         }
         addedEdges.add(edge);
+        final int first = edge.getFirst();
+        final int second = edge.getSecond();
         final int time = edge.getTime();
+        final int length = edge.getDerivationLength();
 
-        for (Edge inEdge : inEdges(edge.getFirst())) {
-            Edge newEdge = combine(inEdge, edge, time);
-            if (simpleGraph.add(newEdge)) {
-                addedEdges.add(newEdge);
-                for (Edge outEdge : outEdges(edge.getSecond())) {
-                    Edge combined = combine(newEdge, outEdge, time);
-                    if (simpleGraph.add(combined)) {
-                        addedEdges.add(combined);
-                    }
-                }
+        simpleGraph.forEachEdge(first, EdgeDirection.INGOING, (id1, x, t, inLength) -> {
+            final int newLength = Math.max(inLength, length) + 1;
+            if (addCombined(id1, second, time, newLength, addedEdges)) {
+                simpleGraph.forEachEdge(second, EdgeDirection.OUTGOING, (y, id2, t2, outLength) ->
+                        addCombined(id1, id2, time, Math.max(newLength, outLength) + 1, addedEdges));
             }
-        }
+        });
 
-        for (Edge outEdge : outEdges(edge.getSecond())) {
-            Edge newEdge = combine(edge, outEdge, time);
-            if (simpleGraph.add(newEdge)) {
-                addedEdges.add(newEdge);
-            }
+        simpleGraph.forEachEdge(second, EdgeDirection.OUTGOING, (y, id2, t, outLength) ->
+                addCombined(first, id2, time, Math.max(length, outLength) + 1, addedEdges));
+    }
+
+    private boolean addCombined(int id1, int id2, int time, int derivLength, Collection<Edge> addedEdges) {
+        if (simpleGraph.add(id1, id2, time, derivLength)) {
+            addedEdges.add(new Edge(id1, id2, time, derivLength));
+            return true;
         }
+        return false;
     }
 
     @Override
@@ -33,14 +33,18 @@ public class UnionGraph extends MaterializedGraph {
         return e.withDerivationLength(e.getDerivationLength() + 1);
     }
 
+    private boolean add(Edge e) {
+        return simpleGraph.add(e.getFirst(), e.getSecond(), e.getTime(), e.getDerivationLength() + 1);
+    }
+
     @Override
     public void repopulate() {
         //TODO: Maybe try to minimize the derivation length initially
         for (Edge e : first.edges()) {
-            simpleGraph.add(derive(e));
+            add(e);
         }
         for (Edge e : second.edges()) {
-            simpleGraph.add(derive(e));
+            add(e);
         }
     }
 
@@ -51,9 +55,9 @@ public class UnionGraph extends MaterializedGraph {
             ArrayList<Edge> newlyAdded = new ArrayList<>();
             Collection<Edge> addedEdges = (Collection<Edge>)added;
             for (Edge e : addedEdges) {
-                Edge edge = derive(e);
-                if (simpleGraph.add(edge)) {
-                    newlyAdded.add(edge);
+                // Edges that are present already get rejected without deriving them first
+                if (add(e)) {
+                    newlyAdded.add(derive(e));
                 }
             }
             return newlyAdded;
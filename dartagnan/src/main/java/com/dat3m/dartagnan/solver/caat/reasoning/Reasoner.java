@@ -3,6 +3,8 @@ package com.dat3m.dartagnan.solver.caat.reasoning;
 import com.dat3m.dartagnan.solver.caat.constraints.AcyclicityConstraint;
 import com.dat3m.dartagnan.solver.caat.constraints.Constraint;
 import com.dat3m.dartagnan.solver.caat.misc.EdgeDirection;
+import com.dat3m.dartagnan.solver.caat.misc.ForkJoinHelper;
+import com.dat3m.dartagnan.solver.caat.misc.PathAlgorithm;
 import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
 import com.dat3m.dartagnan.solver.caat.predicates.Derivable;
 import com.dat3m.dartagnan.solver.caat.predicates.misc.PredicateVisitor;
@@ -14,14 +16,19 @@ import com.dat3m.dartagnan.utils.logic.Conjunction;
 import com.dat3m.dartagnan.utils.logic.DNF;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
-import static com.dat3m.dartagnan.solver.caat.misc.PathAlgorithm.findShortestPath;
-
+/*
+    The Reasoner is thread-safe as long as the predicates it reasons about do not change:
+    the visitors are stateless and every thread performs its path searches with its own PathAlgorithm.
+    Reasons of independent violations are computed in parallel if the Reasoner is called from within a ForkJoinPool.
+ */
 @SuppressWarnings("unchecked")
 public class Reasoner {
 
     private final GraphVisitor graphVisitor = new GraphVisitor();
     private final SetVisitor setVisitor = new SetVisitor();
+    private final ThreadLocal<PathAlgorithm> pathAlgorithm = ThreadLocal.withInitial(PathAlgorithm::new);
 
     public Reasoner() {
     }
@@ -35,7 +42,7 @@ public class Reasoner {
 
         CAATPredicate pred = constraint.getConstrainedPredicate();
         Collection<? extends Collection<? extends Derivable>> violations = constraint.getViolations();
-        List<Conjunction<CAATLiteral>> reasonList = new ArrayList<>(violations.size());
+        List<Conjunction<CAATLiteral>> reasonList;
 
         if (constraint instanceof AcyclicityConstraint) {
             // For acyclicity constraints, it is likely that we encounter the same
@@ -43,26 +50,31 @@ public class Reasoner {
             // so we memoize the computed reasons and reuse them if possible.
             final RelationGraph constrainedGraph = (RelationGraph) pred;
             final int mapSize = violations.stream().mapToInt(Collection::size).sum() * 4 / 3;
-            final Map<Edge, Conjunction<CAATLiteral>> reasonMap = new HashMap<>(mapSize);
+            final Map<Edge, Conjunction<CAATLiteral>> reasonMap = new ConcurrentHashMap<>(mapSize);
 
-            for (Collection<Edge> violation : (Collection<Collection<Edge>>)violations) {
-                Conjunction<CAATLiteral> reason = violation.stream()
-                        .map(edge -> reasonMap.computeIfAbsent(edge, key -> computeReason(constrainedGraph, key)))
-                        .reduce(Conjunction.TRUE(), Conjunction::and);
-                reasonList.add(reason);
-            }
+            reasonList = ForkJoinHelper.map((Collection<Collection<Edge>>) violations, violation -> violation.stream()
+                    .map(edge -> computeMemoizedReason(constrainedGraph, edge, reasonMap))
+                    .reduce(Conjunction.TRUE(), Conjunction::and));
         } else {
-            for (Collection<? extends Derivable> violation : violations) {
-                Conjunction<CAATLiteral> reason = violation.stream()
-                        .map(edge -> computeReason(pred, edge))
-                        .reduce(Conjunction.TRUE(), Conjunction::and);
-                reasonList.add(reason);
-            }
+            reasonList = ForkJoinHelper.map(violations, violation -> violation.stream()
+                    .map(edge -> computeReason(pred, edge))
+                    .reduce(Conjunction.TRUE(), Conjunction::and));
         }
 
         return new DNF<>(reasonList);
     }
 
+    // We do not use computeIfAbsent to avoid blocking other threads while the reason is computed.
+    private Conjunction<CAATLiteral> computeMemoizedReason(RelationGraph graph, Edge edge,
+                                                           Map<Edge, Conjunction<CAATLiteral>> reasonMap) {
+        Conjunction<CAATLiteral> reason = reasonMap.get(edge);
+        if (reason == null) {
+            reason = computeReason(graph, edge);
+            reasonMap.putIfAbsent(edge, reason);
+        }
+        return reason;
+    }
+
     public Conjunction<CAATLiteral> computeReason(CAATPredicate pred, Derivable prop) {
         if (pred instanceof RelationGraph && prop instanceof Edge) {
             return computeReason((RelationGraph) pred, (Edge) prop);
@@ -150,7 +162,7 @@ public class Reasoner {
                     if (e1.getDerivationLength() >= edge.getDerivationLength()) {
                         continue;
                     }
-                    Edge e2 = second.get(new Edge(e1.getSecond(), edge.getSecond()));
+                    Edge e2 = second.getById(e1.getSecond(), edge.getSecond());
                     if (e2 != null && e2.getDerivationLength() < edge.getDerivationLength()) {
                         Conjunction<CAATLiteral> reason = computeReason(first, e1).and(computeReason(second, e2));
                         assert !reason.isFalse();
@@ -162,7 +174,7 @@ public class Reasoner {
                     if (e2.getDerivationLength() >= edge.getDerivationLength()) {
                         continue;
                     }
-                    Edge e1 = first.get(new Edge(edge.getFirst(), e2.getFirst()));
+                    Edge e1 = first.getById(edge.getFirst(), e2.getFirst());
                     if (e1 != null && e1.getDerivationLength() < edge.getDerivationLength()) {
                         Conjunction<CAATLiteral> reason = computeReason(first, e1).and(computeReason(second, e2));
                         assert !reason.isFalse();
@@ -250,7 +262,8 @@ public class Reasoner {
         public Conjunction<CAATLiteral> visitTransitiveClosure(RelationGraph graph, Edge edge, Void unused) {
             RelationGraph inner = (RelationGraph) graph.getDependencies().get(0);
             Conjunction<CAATLiteral> reason = Conjunction.TRUE();
-            List<Edge> path = findShortestPath(inner, edge.getFirst(), edge.getSecond(), edge.getDerivationLength() - 1);
+            List<Edge> path = pathAlgorithm.get()
+                    .findShortestPath(inner, edge.getFirst(), edge.getSecond(), edge.getDerivationLength() - 1);
             for (Edge e : path) {
                 reason = reason.and(computeReason(inner, e));
             }
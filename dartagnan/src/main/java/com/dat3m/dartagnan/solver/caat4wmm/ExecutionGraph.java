@@ -1,11 +1,13 @@
 package com.dat3m.dartagnan.solver.caat4wmm;
 
+import com.dat3m.dartagnan.program.Thread;
 import com.dat3m.dartagnan.program.filter.FilterAbstract;
 import com.dat3m.dartagnan.solver.caat.CAATModel;
 import com.dat3m.dartagnan.solver.caat.constraints.AcyclicityConstraint;
 import com.dat3m.dartagnan.solver.caat.constraints.Constraint;
 import com.dat3m.dartagnan.solver.caat.constraints.EmptinessConstraint;
 import com.dat3m.dartagnan.solver.caat.constraints.IrreflexivityConstraint;
+import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.Edge;
 import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.RelationGraph;
 import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.base.EmptyGraph;
 import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.base.IdentityGraph;
@@ -13,6 +15,7 @@ import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.derived.*;
 import com.dat3m.dartagnan.solver.caat.predicates.sets.SetPredicate;
 import com.dat3m.dartagnan.solver.caat4wmm.basePredicates.*;
 import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.verification.model.EventData;
 import com.dat3m.dartagnan.verification.model.ExecutionModel;
 import com.dat3m.dartagnan.wmm.axiom.Axiom;
 import com.dat3m.dartagnan.wmm.relation.Relation;
@@ -29,14 +32,14 @@ import com.dat3m.dartagnan.wmm.relation.unary.RelInverse;
 import com.dat3m.dartagnan.wmm.relation.unary.RelRangeIdentity;
 import com.dat3m.dartagnan.wmm.relation.unary.RelTrans;
 import com.dat3m.dartagnan.wmm.relation.unary.RelTransRef;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.math.BigInteger;
+import java.util.*;
 
 import static com.dat3m.dartagnan.wmm.relation.RelationNameRepository.*;
 
@@ -69,21 +72,170 @@ public class ExecutionGraph {
     private CAATModel caatModel;
     private EventDomain domain;
 
+    // ---------- Incremental updates ----------
+    // If enabled, rf and co are represented by DynamicWMMGraphs whose edges get pushed into the CAATModel
+    // with increasing timestamps. Between two models that share the same skeleton (i.e. that only differ in rf/co),
+    // we only backtrack and re-propagate the changed edges instead of repopulating the whole CAATModel.
+    private final boolean incrementalUpdates;
+    private final Map<DynamicWMMGraph, Map<Edge, Integer>> dynamicEdgeTimeMap;
+    private ExecutionSkeleton skeleton;
+    private int currentTime;
+
     // =================================================
 
     // ============= Construction & Init ===============
 
     public ExecutionGraph(VerificationTask verificationTask, boolean createOnlyAxiomRelevantGraphs) {
+        this(verificationTask, createOnlyAxiomRelevantGraphs, false);
+    }
+
+    public ExecutionGraph(VerificationTask verificationTask, boolean createOnlyAxiomRelevantGraphs,
+                          boolean incrementalUpdates) {
         this.verificationTask = verificationTask;
+        this.incrementalUpdates = incrementalUpdates && supportsIncrementalUpdates(verificationTask);
         relationGraphMap = HashBiMap.create();
         filterSetMap = HashBiMap.create();
         constraintMap = HashBiMap.create();
+        dynamicEdgeTimeMap = new HashMap<>();
         constructMappings(createOnlyAxiomRelevantGraphs);
     }
 
     public void initializeFromModel(ExecutionModel executionModel) {
+        if (!incrementalUpdates) {
+            domain = new EventDomain(executionModel);
+            caatModel.initializeToDomain(domain);
+            return;
+        }
+        // The static part gets populated at time 0, all dynamic edges are added at time 1.
+        initializeSkeletonFromModel(executionModel);
+        Map<DynamicWMMGraph, Set<Edge>> addedEdges = new HashMap<>();
+        for (DynamicWMMGraph graph : dynamicEdgeTimeMap.keySet()) {
+            addedEdges.put(graph, graph.computeModelEdges());
+        }
+        addDynamicEdges(addedEdges);
+    }
+
+    /*
+        Initializes the CAATModel to the skeleton of <executionModel> (see ExecutionSkeleton)
+        and populates its static part, but leaves all dynamic graphs (rf and co) empty.
+        Their edges can then be added via addDynamicEdges, e.g., level by level (see IncrementalModelReplayer).
+        Requires incremental updates.
+     */
+    public void initializeSkeletonFromModel(ExecutionModel executionModel) {
+        Preconditions.checkState(incrementalUpdates, "The execution graph does not support incremental updates.");
         domain = new EventDomain(executionModel);
         caatModel.initializeToDomain(domain);
+        skeleton = ExecutionSkeleton.from(executionModel);
+        caatModel.populate();
+        currentTime = 0;
+        dynamicEdgeTimeMap.values().forEach(Map::clear);
+    }
+
+    // Returns true if the CAATModel is initialized to the skeleton of <executionModel>
+    public boolean hasSkeletonOf(ExecutionModel executionModel) {
+        return incrementalUpdates && domain != null && skeleton.matches(executionModel);
+    }
+
+    /*
+        Updates the CAATModel to represent <executionModel>.
+        If incremental updates are enabled and the new model only differs from the last one in its rf/co-edges,
+        the CAATModel is backtracked to the latest time at which all its dynamic edges are still valid,
+        and only the remaining edges get propagated. In this case, the CAATModel stays populated.
+        Otherwise, the CAATModel is initialized from scratch.
+        Returns true if an incremental update was performed.
+     */
+    public boolean updateFromModel(ExecutionModel executionModel) {
+        if (!hasSkeletonOf(executionModel)) {
+            initializeFromModel(executionModel);
+            return false;
+        }
+
+        Map<DynamicWMMGraph, Set<Edge>> newEdges = new HashMap<>();
+        int backtrackTime = currentTime;
+        for (DynamicWMMGraph graph : dynamicEdgeTimeMap.keySet()) {
+            Set<Edge> edges = graph.computeModelEdges();
+            newEdges.put(graph, edges);
+            for (Map.Entry<Edge, Integer> entry : dynamicEdgeTimeMap.get(graph).entrySet()) {
+                if (!edges.contains(entry.getKey())) {
+                    backtrackTime = Math.min(backtrackTime, entry.getValue() - 1);
+                }
+            }
+        }
+
+        // Edges that are still present but get backtracked are likely to be stable, so we add them first
+        // (i.e. with a lower timestamp) and the new edges afterwards.
+        Map<DynamicWMMGraph, Set<Edge>> stableEdges = new HashMap<>();
+        for (DynamicWMMGraph graph : dynamicEdgeTimeMap.keySet()) {
+            Set<Edge> stable = new HashSet<>();
+            Set<Edge> fresh = newEdges.get(graph);
+            for (Map.Entry<Edge, Integer> entry : dynamicEdgeTimeMap.get(graph).entrySet()) {
+                if (entry.getValue() <= backtrackTime) {
+                    fresh.remove(entry.getKey());
+                } else if (fresh.remove(entry.getKey())) {
+                    stable.add(entry.getKey());
+                }
+            }
+            stableEdges.put(graph, stable);
+        }
+        backtrackTo(backtrackTime);
+        addDynamicEdges(stableEdges);
+        addDynamicEdges(newEdges);
+
+        return true;
+    }
+
+    /*
+        Adds <edges> to the dynamic graph representing <rel> (rf or co) and propagates them
+        with a new timestamp. Returns the new time of the CAATModel.
+     */
+    public int addDynamicEdges(Relation rel, Collection<Edge> edges) {
+        RelationGraph graph = relationGraphMap.get(rel);
+        Preconditions.checkArgument(graph instanceof DynamicWMMGraph, "%s is not a dynamic relation.", rel);
+        addDynamicEdges(Collections.singletonMap((DynamicWMMGraph) graph, edges));
+        return currentTime;
+    }
+
+    // Adds the <edges> to their respective graphs with a new timestamp (unless there are no edges to add)
+    private void addDynamicEdges(Map<DynamicWMMGraph, ? extends Collection<Edge>> edges) {
+        if (edges.values().stream().allMatch(Collection::isEmpty)) {
+            return;
+        }
+        final int time = ++currentTime;
+        for (Map.Entry<DynamicWMMGraph, ? extends Collection<Edge>> entry : edges.entrySet()) {
+            DynamicWMMGraph graph = entry.getKey();
+            Map<Edge, Integer> edgeTimeMap = dynamicEdgeTimeMap.get(graph);
+            List<Edge> timedEdges = new ArrayList<>(entry.getValue().size());
+            for (Edge e : entry.getValue()) {
+                timedEdges.add(e.withTime(time));
+                edgeTimeMap.put(e, time);
+            }
+            caatModel.getHierarchy().addAndPropagate(graph, timedEdges);
+        }
+    }
+
+    // Incremental updates are not possible if rf or co occur on the right-hand side of a difference
+    private static boolean supportsIncrementalUpdates(VerificationTask task) {
+        for (Relation rel : task.getRelations()) {
+            if (rel.getClass() == RelMinus.class && dependsOnDynamicRelation(rel.getSecond(), new HashSet<>())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean dependsOnDynamicRelation(Relation rel, Set<Relation> visited) {
+        if (!visited.add(rel)) {
+            return false;
+        }
+        if (rel.getClass() == RelRf.class || rel.getClass() == RelCo.class) {
+            return true;
+        }
+        for (Relation dep : rel.getDependencies()) {
+            if (dependsOnDynamicRelation(dep, visited)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     // --------------------------------------------------
@@ -119,6 +271,10 @@ public class ExecutionGraph {
 
     public EventDomain getDomain() { return domain; }
 
+    public boolean usesIncrementalUpdates() { return incrementalUpdates; }
+
+    public int getCurrentTime() { return currentTime; }
+
     public BiMap<Relation, RelationGraph> getRelationGraphMap() {
         return Maps.unmodifiableBiMap(relationGraphMap);
     }
@@ -148,8 +304,21 @@ public class ExecutionGraph {
 
     // ==================== Mutation ======================
 
+    // Limits the number of cycles each acyclicity constraint reports per inconsistency (0 means no limit)
+    public void setMaxNumberOfCycles(int maxNumberOfCycles) {
+        for (Constraint constraint : constraintMap.values()) {
+            if (constraint instanceof AcyclicityConstraint) {
+                ((AcyclicityConstraint) constraint).setMaxNumberOfCycles(maxNumberOfCycles);
+            }
+        }
+    }
+
     public void backtrackTo(int time) {
         caatModel.getHierarchy().backtrackTo(time);
+        if (time < currentTime) {
+            currentTime = time;
+            dynamicEdgeTimeMap.values().forEach(edgeTimeMap -> edgeTimeMap.values().removeIf(t -> t > time));
+        }
     }
 
     // =======================================================
@@ -212,13 +381,13 @@ public class ExecutionGraph {
                     throw new UnsupportedOperationException(rel.getName() + " is marked as special relation but has associated graph.");
             }
         } else if (relClass == RelRf.class) {
-            graph = new ReadFromGraph();
+            graph = incrementalUpdates ? createDynamicGraph(new DynamicReadFromGraph()) : new ReadFromGraph();
         } else if (relClass == RelLoc.class) {
             graph = new LocationGraph();
         } else if (relClass == RelPo.class) {
             graph = new ProgramOrderGraph();
         } else if (relClass == RelCo.class) {
-            graph = new CoherenceGraph();
+            graph = incrementalUpdates ? createDynamicGraph(new DynamicCoherenceGraph()) : new CoherenceGraph();
         } else if (rel.isRecursiveRelation()) {
             RecursiveGraph recGraph = new RecursiveGraph();
             recGraph.setName(rel.getName() + "_rec");
@@ -302,6 +471,11 @@ public class ExecutionGraph {
         return graph;
     }
 
+    private RelationGraph createDynamicGraph(DynamicWMMGraph graph) {
+        dynamicEdgeTimeMap.put(graph, new HashMap<>());
+        return graph;
+    }
+
     private SetPredicate getOrCreateSetFromFilter(FilterAbstract filter) {
         if (filterSetMap.containsKey(filter)) {
             return filterSetMap.get(filter);
@@ -316,5 +490,64 @@ public class ExecutionGraph {
 
     // =======================================================
 
+    //================= Model skeletons =====================
+
+    /*
+        The skeleton of an ExecutionModel is all the information that the static base predicates depend on,
+        i.e., everything but rf and co.
+        Since EventData objects are unique per event, the identity-based comparisons are valid across models.
+     */
+    private static class ExecutionSkeleton {
+        private final List<EventData> events;
+        private final List<BigInteger> addresses;
+        private final Map<Thread, List<List<EventData>>> atomicBlocks;
+        private final Map<EventData, Set<EventData>> addrDeps;
+        private final Map<EventData, Set<EventData>> dataDeps;
+        private final Map<EventData, Set<EventData>> ctrlDeps;
+
+        private ExecutionSkeleton(ExecutionModel model) {
+            events = new ArrayList<>(model.getEventList());
+            addresses = new ArrayList<>(events.size());
+            for (EventData e : events) {
+                addresses.add(e.getAccessedAddress());
+            }
+            // The atomic blocks are views on the (reused) event list of the model, so we need to copy them
+            atomicBlocks = new HashMap<>();
+            model.getAtomicBlocksMap().forEach((thread, blocks) -> {
+                List<List<EventData>> copy = new ArrayList<>(blocks.size());
+                blocks.forEach(block -> copy.add(new ArrayList<>(block)));
+                atomicBlocks.put(thread, copy);
+            });
+            addrDeps = copyDependencies(model.getAddrDepMap());
+            dataDeps = copyDependencies(model.getDataDepMap());
+            ctrlDeps = copyDependencies(model.getCtrlDepMap());
+        }
+
+        static ExecutionSkeleton from(ExecutionModel model) {
+            return new ExecutionSkeleton(model);
+        }
+
+        boolean matches(ExecutionModel model) {
+            List<EventData> modelEvents = model.getEventList();
+            if (!events.equals(modelEvents)) {
+                return false;
+            }
+            for (int i = 0; i < modelEvents.size(); i++) {
+                if (!Objects.equals(addresses.get(i), modelEvents.get(i).getAccessedAddress())) {
+                    return false;
+                }
+            }
+            return atomicBlocks.equals(model.getAtomicBlocksMap())
+                    && addrDeps.equals(model.getAddrDepMap())
+                    && dataDeps.equals(model.getDataDepMap())
+                    && ctrlDeps.equals(model.getCtrlDepMap());
+        }
+
+        private static Map<EventData, Set<EventData>> copyDependencies(Map<EventData, Set<EventData>> deps) {
+            Map<EventData, Set<EventData>> copy = new HashMap<>(deps.size() * 4 / 3);
+            deps.forEach((e, set) -> copy.put(e, new HashSet<>(set)));
+            return copy;
+        }
+    }
 
 }
@@ -0,0 +1,196 @@
+package com.dat3m.dartagnan.solver.caat4wmm;
+
+import com.dat3m.dartagnan.program.event.core.Event;
+import com.dat3m.dartagnan.solver.caat.CAATSolver;
+import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.Edge;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.verification.model.EventData;
+import com.dat3m.dartagnan.verification.model.ExecutionModel;
+import com.dat3m.dartagnan.wmm.relation.Relation;
+import com.dat3m.dartagnan.wmm.utils.Tuple;
+import com.google.common.base.Preconditions;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.math.BigInteger;
+import java.util.*;
+
+import static com.dat3m.dartagnan.wmm.relation.RelationNameRepository.CO;
+import static com.dat3m.dartagnan.wmm.relation.RelationNameRepository.RF;
+
+/*
+    Checks complete models of the SMT solver by replaying their rf/co-assignment level by level.
+    The SMT solver still finds a full model first, since our Z3 bindings offer no propagator callbacks.
+    The skeleton of the execution (executed events, addresses and dependencies) is fixed first.
+    Then the rf- and co-edges are added to the ExecutionGraph in levels (one per read for rf and one per address
+    for co), and the partial execution is checked after each level.
+    Since all constraints are monotone in the dynamic edges (see ExecutionGraph.supportsIncrementalUpdates),
+    a violation of a partial execution is also a violation of all its extensions. Thus, the conflict is reported
+    on the smallest inconsistent prefix of the assignment, which yields shorter refinement lemmas.
+    The levels that a model shares with the previously replayed one are kept, so only the differing suffix
+    gets added to the execution graph and checked.
+ */
+public class IncrementalModelReplayer {
+
+    private final WMMSolver solver;
+    private final ExecutionModel executionModel;
+    private final ExecutionGraph executionGraph;
+    private final Refiner refiner;
+    private final SolverContext context;
+    private final Relation rf;
+    private final Relation co;
+
+    // The replayed levels together with the time of the ExecutionGraph before each of them
+    private final List<Level> levels = new ArrayList<>();
+    private final List<Integer> levelTimes = new ArrayList<>();
+
+    private WMMSolver.Result lastResult;
+    private int numChecks;
+
+    public IncrementalModelReplayer(WMMSolver solver, Refiner refiner, SolverContext context) {
+        Preconditions.checkArgument(solver.getExecutionGraph().usesIncrementalUpdates(),
+                "Replaying models requires an execution graph with incremental updates.");
+        this.solver = solver;
+        this.executionModel = solver.getExecution();
+        this.executionGraph = solver.getExecutionGraph();
+        this.refiner = refiner;
+        this.context = context;
+        VerificationTask task = executionGraph.getVerificationTask();
+        this.rf = task.getMemoryModel().getRelationRepository().getRelation(RF);
+        this.co = task.getMemoryModel().getRelationRepository().getRelation(CO);
+    }
+
+    // The result of the last check of a (partial) execution
+    public WMMSolver.Result getLastResult() { return lastResult; }
+
+    // The number of checks of (partial) executions performed so far
+    public int getNumChecks() { return numChecks; }
+
+    /*
+        Replays the rf/co-assignment of <model> level by level.
+        Returns the lemma of the first inconsistent prefix, or null if the model is consistent.
+     */
+    public BooleanFormula replay(Model model) {
+        executionModel.initialize(model, context);
+        if (!executionGraph.hasSkeletonOf(executionModel)) {
+            levels.clear();
+            levelTimes.clear();
+            executionGraph.initializeSkeletonFromModel(executionModel);
+        }
+
+        List<Level> newLevels = computeLevels();
+        int sharedLevels = 0;
+        while (sharedLevels < levels.size() && sharedLevels < newLevels.size()
+                && levels.get(sharedLevels).equals(newLevels.get(sharedLevels))) {
+            sharedLevels++;
+        }
+        removeLevelsFrom(sharedLevels);
+
+        if (sharedLevels == newLevels.size()) {
+            // Nothing new to add, but we still need to check the (unchanged) assignment
+            return checkPrefix();
+        }
+        for (Level level : newLevels.subList(sharedLevels, newLevels.size())) {
+            addLevel(level);
+            BooleanFormula lemma = checkPrefix();
+            if (lemma != null) {
+                return lemma;
+            }
+        }
+        return null;
+    }
+
+    // ======================================================
+
+    // Undoes the edges of all levels from <index> on
+    private void removeLevelsFrom(int index) {
+        if (index == levels.size()) {
+            return;
+        }
+        executionGraph.backtrackTo(levelTimes.get(index));
+        levels.subList(index, levels.size()).clear();
+        levelTimes.subList(index, levelTimes.size()).clear();
+    }
+
+    private void addLevel(Level level) {
+        levels.add(level);
+        levelTimes.add(executionGraph.getCurrentTime());
+        List<Edge> edges = new ArrayList<>(level.tuples.size());
+        for (Tuple tuple : level.tuples) {
+            edges.add(new Edge(getId(tuple.getFirst()), getId(tuple.getSecond())));
+        }
+        executionGraph.addDynamicEdges(level.rel, edges);
+    }
+
+    // Checks the replayed prefix of the current assignment.
+    // Returns a lemma that is violated by it, or null if no conflict was found.
+    private BooleanFormula checkPrefix() {
+        numChecks++;
+        lastResult = solver.checkExecutionGraph();
+        if (lastResult.getStatus() != CAATSolver.Status.INCONSISTENT) {
+            return null;
+        }
+        return refiner.refine(lastResult.getCoreReasons(), context);
+    }
+
+    // Computes the levels of the current execution model: first the rf-edge of each read, then the co of each address
+    private List<Level> computeLevels() {
+        List<Level> newLevels = new ArrayList<>();
+
+        List<Map.Entry<EventData, EventData>> readsFrom = new ArrayList<>(executionModel.getReadWriteMap().entrySet());
+        readsFrom.sort(Comparator.comparingInt(entry -> entry.getKey().getId()));
+        for (Map.Entry<EventData, EventData> rfEntry : readsFrom) {
+            Tuple tuple = new Tuple(rfEntry.getValue().getEvent(), rfEntry.getKey().getEvent());
+            newLevels.add(new Level(rf, Collections.singletonList(tuple)));
+        }
+
+        List<BigInteger> addresses = new ArrayList<>(executionModel.getCoherenceMap().keySet());
+        addresses.sort(Comparator.naturalOrder());
+        for (BigInteger address : addresses) {
+            List<EventData> writes = executionModel.getCoherenceMap().get(address);
+            List<Tuple> tuples = new ArrayList<>();
+            for (int i = 0; i < writes.size(); i++) {
+                for (int j = i + 1; j < writes.size(); j++) {
+                    tuples.add(new Tuple(writes.get(i).getEvent(), writes.get(j).getEvent()));
+                }
+            }
+            if (!tuples.isEmpty()) {
+                newLevels.add(new Level(co, tuples));
+            }
+        }
+        return newLevels;
+    }
+
+    private int getId(Event e) {
+        return executionModel.getData(e).orElseThrow().getId();
+    }
+
+    // The edges of a dynamic relation that get added (and checked) together
+    private static class Level {
+        private final Relation rel;
+        private final List<Tuple> tuples;
+
+        Level(Relation rel, List<Tuple> tuples) {
+            this.rel = rel;
+            this.tuples = tuples;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            Level other = (Level) obj;
+            return rel.equals(other.rel) && tuples.equals(other.tuples);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * rel.hashCode() + tuples.hashCode();
+        }
+    }
+}
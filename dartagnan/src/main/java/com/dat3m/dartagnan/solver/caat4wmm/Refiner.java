@@ -13,15 +13,14 @@ import com.dat3m.dartagnan.utils.logic.Conjunction;
 import com.dat3m.dartagnan.utils.logic.DNF;
 import com.dat3m.dartagnan.verification.RefinementTask;
 import com.dat3m.dartagnan.wmm.relation.Relation;
+import com.dat3m.dartagnan.wmm.utils.Tuple;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.SolverContext;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.dat3m.dartagnan.GlobalSettings.REFINEMENT_SYMMETRY_LEARNING;
 import static com.dat3m.dartagnan.expression.utils.Utils.generalEqual;
@@ -50,23 +49,96 @@ public class Refiner {
     // This method computes a refinement clause from a set of violations.
     // Furthermore, it computes symmetric violations if symmetry learning is enabled.
     public BooleanFormula refine(DNF<CoreLiteral> coreReasons, SolverContext context) {
-        //TODO: A specialized algorithm that computes the orbit under permutation may be better,
-        // since most violations involve only few threads and hence the orbit is far smaller than the full
-        // set of permutations.
         BooleanFormulaManager bmgr = context.getFormulaManager().getBooleanFormulaManager();
-        BooleanFormula refinement = bmgr.makeTrue();
-        // For each symmetry permutation, we will create refinement clauses
-        for (Function<Event, Event> perm : symmPermutations) {
-            for (Conjunction<CoreLiteral> reason : coreReasons.getCubes()) {
-                BooleanFormula permutedClause = reason.getLiterals().stream()
-                        .map(lit -> bmgr.not(permuteAndConvert(lit, perm, context)))
-                        .reduce(bmgr.makeFalse(), bmgr::or);
-                refinement = bmgr.and(refinement, permutedClause);
+        // Different reasons can have the same symmetric images, so we collect them first to avoid duplicate clauses
+        Set<Conjunction<CoreLiteral>> symmReasons = new LinkedHashSet<>();
+        for (Conjunction<CoreLiteral> reason : coreReasons.getCubes()) {
+            if (learningOption == SymmetryLearning.FULL) {
+                symmReasons.addAll(computeOrbit(reason));
+            } else {
+                symmPermutations.forEach(perm -> symmReasons.add(permute(reason, perm)));
             }
         }
+
+        BooleanFormula refinement = bmgr.makeTrue();
+        for (Conjunction<CoreLiteral> reason : symmReasons) {
+            BooleanFormula clause = reason.getLiterals().stream()
+                    .map(lit -> bmgr.not(convert(lit, context)))
+                    .reduce(bmgr.makeFalse(), bmgr::or);
+            refinement = bmgr.and(refinement, clause);
+        }
         return refinement;
     }
 
+    // This method computes a clause that forbids <guard> whenever <reason> holds.
+    // Unlike <refine>, it does not compute symmetric clauses, since the guard is not subject to the symmetry.
+    public BooleanFormula refine(BooleanFormula guard, Conjunction<CoreLiteral> reason, SolverContext context) {
+        BooleanFormulaManager bmgr = context.getFormulaManager().getBooleanFormulaManager();
+        return reason.getLiterals().stream()
+                .map(lit -> bmgr.not(convert(lit, context)))
+                .reduce(bmgr.not(guard), bmgr::or);
+    }
+
+    /*
+        Computes all distinct images of <reason> under the thread symmetry.
+        A permutation only affects the reason via the threads the reason refers to.
+        Hence, instead of applying all permutations of the symmetry classes, we enumerate
+        all injective mappings from the referenced threads of each class into that class.
+        Since reasons usually refer to few threads, this is far less than the factorial number of permutations.
+        Also, the mappings of different classes are combined, so the result is the full orbit of <reason>.
+     */
+    private Set<Conjunction<CoreLiteral>> computeOrbit(Conjunction<CoreLiteral> reason) {
+        Set<Thread> threads = new HashSet<>();
+        for (CoreLiteral lit : reason.getLiterals()) {
+            CoreLiteral.getEvents(lit).forEach(e -> threads.add(e.getThread()));
+        }
+
+        // Mappings of the referenced threads, constructed class by class
+        List<Map<Thread, Thread>> mappings = new ArrayList<>();
+        mappings.add(new HashMap<>());
+        for (EquivalenceClass<Thread> c : symm.getNonTrivialClasses()) {
+            List<Thread> sources = c.stream().filter(threads::contains)
+                    .sorted(Comparator.comparingInt(Thread::getId)).collect(Collectors.toList());
+            if (sources.isEmpty()) {
+                continue;
+            }
+            List<Thread> targets = new ArrayList<>(c);
+            targets.sort(Comparator.comparingInt(Thread::getId));
+            List<Map<Thread, Thread>> extended = new ArrayList<>();
+            for (Map<Thread, Thread> mapping : mappings) {
+                extendMapping(mapping, sources, 0, targets, new boolean[targets.size()], extended);
+            }
+            mappings = extended;
+        }
+
+        Set<Conjunction<CoreLiteral>> orbit = new LinkedHashSet<>();
+        for (Map<Thread, Thread> mapping : mappings) {
+            orbit.add(permute(reason, e -> {
+                Thread target = mapping.get(e.getThread());
+                return target == null || target == e.getThread() ? e : symm.map(e, target);
+            }));
+        }
+        return orbit;
+    }
+
+    // Adds to <result> all extensions of <mapping> that map sources[i..] injectively into the unused <targets>.
+    private void extendMapping(Map<Thread, Thread> mapping, List<Thread> sources, int i,
+                               List<Thread> targets, boolean[] used, List<Map<Thread, Thread>> result) {
+        if (i == sources.size()) {
+            result.add(new HashMap<>(mapping));
+            return;
+        }
+        for (int j = 0; j < targets.size(); j++) {
+            if (!used[j]) {
+                used[j] = true;
+                mapping.put(sources.get(i), targets.get(j));
+                extendMapping(mapping, sources, i + 1, targets, used, result);
+                mapping.remove(sources.get(i));
+                used[j] = false;
+            }
+        }
+    }
+
     // Computes a list of permutations allowed by the program.
     // Depending on the <learningOption>, the set of computed permutations differs.
     // In particular, for the option NONE, only the identity permutation will be returned.
@@ -96,9 +168,7 @@ public class Refiner {
                     }
                     break;
                 case FULL:
-                    List<Function<Event, Event>> allPerms = symm.createAllPermutations(c);
-                    allPerms.remove(Function.identity()); // We avoid adding multiple identities
-                    perms.addAll(allPerms);
+                    // Symmetric reasons are computed per reason (see computeOrbit)
                     break;
                 default:
                     throw new UnsupportedOperationException("Symmetry learning option: "
@@ -110,26 +180,46 @@ public class Refiner {
     }
 
 
-    // Changes a reasoning <literal> based on a given permutation <perm> and translates the result
-    // into a BooleanFormula for Refinement.
-    private BooleanFormula permuteAndConvert(CoreLiteral literal, Function<Event, Event> perm, SolverContext context) {
+    // Changes a reasoning <reason> based on a given permutation <perm>.
+    private Conjunction<CoreLiteral> permute(Conjunction<CoreLiteral> reason, Function<Event, Event> perm) {
+        if (perm == Function.<Event>identity()) {
+            return reason;
+        }
+        List<CoreLiteral> literals = new ArrayList<>(reason.getSize());
+        for (CoreLiteral literal : reason.getLiterals()) {
+            if (literal instanceof ExecLiteral) {
+                ExecLiteral lit = (ExecLiteral) literal;
+                literals.add(new ExecLiteral(perm.apply(lit.getData()), lit.isNegative()));
+            } else if (literal instanceof AddressLiteral) {
+                AddressLiteral loc = (AddressLiteral) literal;
+                literals.add(new AddressLiteral(perm.apply(loc.getFirst()), perm.apply(loc.getSecond()), loc.isNegative()));
+            } else if (literal instanceof RelLiteral) {
+                RelLiteral lit = (RelLiteral) literal;
+                Tuple tuple = new Tuple(perm.apply(lit.getData().getFirst()), perm.apply(lit.getData().getSecond()));
+                literals.add(new RelLiteral(lit.getName(), tuple, lit.isNegative()));
+            } else {
+                throw new IllegalArgumentException("CoreLiteral " + literal.toString() + " is not supported");
+            }
+        }
+        return new Conjunction<>(literals);
+    }
+
+    // Translates a reasoning <literal> into a BooleanFormula for Refinement.
+    private BooleanFormula convert(CoreLiteral literal, SolverContext context) {
         BooleanFormulaManager bmgr = context.getFormulaManager().getBooleanFormulaManager();
         BooleanFormula enc;
         if (literal instanceof ExecLiteral) {
             ExecLiteral lit = (ExecLiteral) literal;
-            enc = perm.apply(lit.getData()).exec();
+            enc = lit.getData().exec();
         } else if (literal instanceof AddressLiteral) {
             AddressLiteral loc = (AddressLiteral) literal;
-            MemEvent e1 = (MemEvent) perm.apply(loc.getFirst());
-            MemEvent e2 = (MemEvent) perm.apply(loc.getSecond());
+            MemEvent e1 = (MemEvent) loc.getFirst();
+            MemEvent e2 = (MemEvent) loc.getSecond();
             enc = generalEqual(e1.getMemAddressExpr(), e2.getMemAddressExpr(), context);
         } else if (literal instanceof RelLiteral) {
             RelLiteral lit = (RelLiteral) literal;
             Relation rel = task.getMemoryModel().getRelationRepository().getRelation(lit.getName());
-            enc = rel.getSMTVar(
-                    perm.apply(lit.getData().getFirst()),
-                    perm.apply(lit.getData().getSecond()),
-                    context);
+            enc = rel.getSMTVar(lit.getData().getFirst(), lit.getData().getSecond(), context);
         } else {
             throw new IllegalArgumentException("CoreLiteral " + literal.toString() + " is not supported");
         }
@@ -1,7 +1,12 @@
 package com.dat3m.dartagnan.solver.caat4wmm;
 
 
+import com.dat3m.dartagnan.program.event.core.Event;
 import com.dat3m.dartagnan.solver.caat.CAATSolver;
+import com.dat3m.dartagnan.solver.caat.constraints.Constraint;
+import com.dat3m.dartagnan.solver.caat.misc.PathAlgorithm;
+import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.Edge;
+import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.RelationGraph;
 import com.dat3m.dartagnan.solver.caat.reasoning.CAATLiteral;
 import com.dat3m.dartagnan.solver.caat4wmm.coreReasoning.CoreLiteral;
 import com.dat3m.dartagnan.solver.caat4wmm.coreReasoning.CoreReasoner;
@@ -10,28 +15,41 @@ import com.dat3m.dartagnan.utils.logic.DNF;
 import com.dat3m.dartagnan.verification.VerificationTask;
 import com.dat3m.dartagnan.verification.model.ExecutionModel;
 import com.dat3m.dartagnan.wmm.analysis.RelationAnalysis;
+import com.dat3m.dartagnan.wmm.axiom.Axiom;
+import com.google.common.base.Preconditions;
 import org.sosy_lab.java_smt.api.Model;
 import org.sosy_lab.java_smt.api.SolverContext;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /*
     This is our domain-specific bridging component that specializes the CAATSolver to the WMM setting.
 */
-public class WMMSolver {
+public class WMMSolver implements AutoCloseable {
 
     private final ExecutionGraph executionGraph;
     private final ExecutionModel executionModel;
     private final CAATSolver solver;
     private final CoreReasoner reasoner;
+    private final PathAlgorithm pathAlgorithm = new PathAlgorithm();
 
-    public WMMSolver(VerificationTask task) {
+    // Statistics of the last call to loadModel
+    private long lastExtractTime;
+    private long lastUpdateTime;
+    private boolean lastUpdatedIncrementally;
+
+    // <reasoningParallelism> is the number of threads used to compute the reasons of inconsistencies
+    public WMMSolver(VerificationTask task, boolean incrementalUpdates, int reasoningParallelism) {
         task.getAnalysisContext().requires(RelationAnalysis.class);
-        this.executionGraph = new ExecutionGraph(task, true);
+        this.executionGraph = new ExecutionGraph(task, true, incrementalUpdates);
         this.executionModel = new ExecutionModel(task);
         this.reasoner = new CoreReasoner(task, executionGraph);
-        this.solver = CAATSolver.create();
+        this.solver = CAATSolver.create(reasoningParallelism);
+    }
+
+    @Override
+    public void close() {
+        solver.close();
     }
 
     public ExecutionModel getExecution() {
@@ -43,25 +61,62 @@ public class WMMSolver {
     }
 
     public Result check(Model model, SolverContext ctx) {
+        loadModel(model, ctx);
+        return checkLoadedModel();
+    }
+
+    /*
+        Extracting a model needs the SMT solver, while checking it does not.
+        Splitting check(Model, SolverContext) into these two steps allows to extract models one by one
+        and then check them concurrently with different WMMSolvers (see RefinementSolver).
+     */
+    public void loadModel(Model model, SolverContext ctx) {
         // ============ Extract ExecutionModel ==============
         long curTime = System.currentTimeMillis();
         executionModel.initialize(model, ctx);
-        executionGraph.initializeFromModel(executionModel);
-        long extractTime = System.currentTimeMillis() - curTime;
+        lastExtractTime = System.currentTimeMillis() - curTime;
 
+        // ============ Update ExecutionGraph ==============
+        curTime = System.currentTimeMillis();
+        lastUpdatedIncrementally = executionGraph.updateFromModel(executionModel);
+        lastUpdateTime = System.currentTimeMillis() - curTime;
+    }
+
+    public Result checkLoadedModel() {
+        // ============== Check the ExecutionGraph ==============
+        Result result = checkExecutionGraph();
+        Statistics stats = result.stats;
+        stats.modelExtractionTime = lastExtractTime;
+        stats.modelUpdateTime = lastUpdateTime;
+        stats.wasUpdatedIncrementally = lastUpdatedIncrementally;
+
+        return result;
+    }
+
+    /*
+        Checks the consistency of the ExecutionGraph in its current state.
+        Unlike check(Model, SolverContext), this does not extract a new model, so it can be used to check
+        partial executions whose edges got added to the ExecutionGraph directly (see IncrementalModelReplayer).
+     */
+    public Result checkExecutionGraph() {
         // ============== Run the CAATSolver ==============
         CAATSolver.Result caatResult = solver.check(executionGraph.getCAATModel());
         Result result = Result.fromCAATResult(caatResult);
         Statistics stats = result.stats;
-        stats.modelExtractionTime = extractTime;
         stats.modelSize = executionGraph.getDomain().size();
+        for (Constraint constraint : caatResult.getViolatedConstraints()) {
+            result.violatedAxioms.add(executionGraph.getAxiomConstraintMap().inverse().get(constraint));
+        }
 
         if (result.getStatus() == CAATSolver.Status.INCONSISTENT) {
             // ============== Compute Core reasons ==============
-            curTime = System.currentTimeMillis();
+            long curTime = System.currentTimeMillis();
             List<Conjunction<CoreLiteral>> coreReasons = new ArrayList<>(caatResult.getBaseReasons().getNumberOfCubes());
             for (Conjunction<CAATLiteral> baseReason : caatResult.getBaseReasons().getCubes()) {
-                coreReasons.add(reasoner.toCoreReason(baseReason));
+                Set<Event> support = new HashSet<>();
+                Conjunction<CoreLiteral> coreReason = reasoner.toCoreReason(baseReason, support);
+                coreReasons.add(coreReason);
+                result.supportingEvents.computeIfAbsent(coreReason, k -> new HashSet<>()).addAll(support);
             }
             stats.numComputedCoreReasons = coreReasons.size();
             result.coreReasons = new DNF<>(coreReasons);
@@ -72,16 +127,52 @@ public class WMMSolver {
         return result;
     }
 
+    /*
+        Checks whether the write <w> and the memory event <m> race in the last checked (consistent) execution.
+        Like the eager encoding (see PropertyEncoder.encodeDataRace), this requires an hb-edge from <m> to <w>
+        such that the two events can be adjacent in some linearization of <hb>, i.e., there is no other hb-path
+        from <m> to <w>. Returns the core reason of an hb-path that rules out the race, or null if the events race.
+     */
+    public Conjunction<CoreLiteral> explainNoDataRace(String hb, Event w, Event m) {
+        RelationGraph hbGraph = executionGraph.getRelationGraphByName(hb);
+        int wId = executionModel.getData(w).orElseThrow().getId();
+        int mId = executionModel.getData(m).orElseThrow().getId();
+        Edge direct = new Edge(mId, wId);
+        // A path of length at least 2 separates the events
+        List<Edge> path = pathAlgorithm.findShortestPath(hbGraph, mId, wId, edge -> !edge.equals(direct));
+        if (path.isEmpty() && hbGraph.containsById(mId, wId)) {
+            return null;
+        }
+        if (path.isEmpty()) {
+            // Without the edge (m, w), the events are ordered the other way round (hb is acyclic)
+            path = pathAlgorithm.findShortestPath(hbGraph, wId, mId);
+        }
+        Preconditions.checkState(!path.isEmpty(), "The conflicting events %s and %s are not ordered by %s.", w, m, hb);
+        Conjunction<CAATLiteral> baseReason = Conjunction.TRUE();
+        for (Edge edge : path) {
+            baseReason = baseReason.and(solver.getReasoner().computeReason(hbGraph, edge));
+        }
+        return reasoner.toCoreReason(baseReason);
+    }
+
 
     // ===================== Classes ======================
 
     public static class Result {
         private CAATSolver.Status status;
         private DNF<CoreLiteral> coreReasons;
+        private final Map<Conjunction<CoreLiteral>, Set<Event>> supportingEvents = new HashMap<>();
+        private final List<Axiom> violatedAxioms = new ArrayList<>();
         private Statistics stats;
 
         public CAATSolver.Status getStatus() { return status; }
         public DNF<CoreLiteral> getCoreReasons() { return coreReasons; }
+        // The axioms of the target memory model the checked execution violates
+        public List<Axiom> getViolatedAxioms() { return violatedAxioms; }
+        // The events of the base reasons a core reason was computed from (see CoreReasoner)
+        public Set<Event> getSupportingEvents(Conjunction<CoreLiteral> coreReason) {
+            return supportingEvents.getOrDefault(coreReason, Collections.emptySet());
+        }
         public Statistics getStatistics() { return stats; }
 
         Result() {
@@ -109,13 +200,16 @@ public class WMMSolver {
     public static class Statistics {
         CAATSolver.Statistics caatStats;
         long modelExtractionTime;
+        long modelUpdateTime;
         long coreReasonComputationTime;
+        boolean wasUpdatedIncrementally;
         int modelSize;
         int numComputedCoreReasons;
         int numComputedReducedCoreReasons;
 
         public long getModelExtractionTime() { return modelExtractionTime; }
-        public long getPopulationTime() { return caatStats.getPopulationTime(); }
+        // If the model was updated incrementally, the population happened during the update
+        public long getPopulationTime() { return caatStats.getPopulationTime() + modelUpdateTime; }
         public long getBaseReasonComputationTime() { return caatStats.getReasonComputationTime(); }
         public long getCoreReasonComputationTime() { return coreReasonComputationTime; }
         public long getConsistencyCheckTime() { return caatStats.getConsistencyCheckTime(); }
@@ -124,11 +218,13 @@ public class WMMSolver {
         public int getNumComputedReducedBaseReasons() { return caatStats.getNumComputedReducedReasons(); }
         public int getNumComputedCoreReasons() { return numComputedCoreReasons; }
         public int getNumComputedReducedCoreReasons() { return numComputedReducedCoreReasons; }
+        public boolean wasUpdatedIncrementally() { return wasUpdatedIncrementally; }
 
         public String toString() {
             StringBuilder str = new StringBuilder();
             str.append("Model extraction time(ms): ").append(getModelExtractionTime()).append("\n");
-            str.append("Population time(ms): ").append(getPopulationTime()).append("\n");
+            str.append("Population time(ms): ").append(getPopulationTime())
+                    .append(wasUpdatedIncrementally ? " (incremental)" : "").append("\n");
             str.append("Consistency check time(ms): ").append(getConsistencyCheckTime()).append("\n");
             str.append("Base Reason computation time(ms): ").append(getBaseReasonComputationTime()).append("\n");
             str.append("Core Reason computation time(ms): ").append(getCoreReasonComputationTime()).append("\n");
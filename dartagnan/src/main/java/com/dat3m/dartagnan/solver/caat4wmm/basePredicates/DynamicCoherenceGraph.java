@@ -0,0 +1,26 @@
+package com.dat3m.dartagnan.solver.caat4wmm.basePredicates;
+
+import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.Edge;
+import com.dat3m.dartagnan.verification.model.EventData;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// A materialized version of the CoherenceGraph that supports incremental updates.
+public class DynamicCoherenceGraph extends DynamicWMMGraph {
+
+    @Override
+    public Set<Edge> computeModelEdges() {
+        Set<Edge> edges = new HashSet<>();
+        for (List<EventData> sameAddrWrites : model.getCoherenceMap().values()) {
+            for (int i = 0; i < sameAddrWrites.size(); i++) {
+                int id1 = sameAddrWrites.get(i).getId();
+                for (int j = i + 1; j < sameAddrWrites.size(); j++) {
+                    edges.add(new Edge(id1, sameAddrWrites.get(j).getId()));
+                }
+            }
+        }
+        return edges;
+    }
+}
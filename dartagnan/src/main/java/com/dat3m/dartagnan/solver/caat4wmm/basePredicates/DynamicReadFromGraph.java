@@ -0,0 +1,21 @@
+package com.dat3m.dartagnan.solver.caat4wmm.basePredicates;
+
+import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.Edge;
+import com.dat3m.dartagnan.verification.model.EventData;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// A materialized version of the ReadFromGraph that supports incremental updates.
+public class DynamicReadFromGraph extends DynamicWMMGraph {
+
+    @Override
+    public Set<Edge> computeModelEdges() {
+        Set<Edge> edges = new HashSet<>(model.getReadWriteMap().size() * 4 / 3);
+        for (Map.Entry<EventData, EventData> readWrite : model.getReadWriteMap().entrySet()) {
+            edges.add(new Edge(readWrite.getValue().getId(), readWrite.getKey().getId()));
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,28 @@
+package com.dat3m.dartagnan.solver.caat4wmm.basePredicates;
+
+import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
+import com.dat3m.dartagnan.solver.caat.predicates.Derivable;
+import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.Edge;
+
+import java.util.Collection;
+import java.util.Set;
+
+/*
+    A DynamicWMMGraph is a materialized base graph that does not populate itself.
+    Instead, its edges get added from the outside via propagation (see PredicateHierarchy.addAndPropagate).
+    This allows the ExecutionGraph to update the graph incrementally between two models
+    by backtracking only those edges that changed.
+ */
+public abstract class DynamicWMMGraph extends MaterializedWMMGraph {
+
+    // Computes the edges of this graph in the current ExecutionModel (with time and derivation length 0)
+    public abstract Set<Edge> computeModelEdges();
+
+    @Override
+    public void repopulate() { }
+
+    @Override
+    public Collection<Edge> forwardPropagate(CAATPredicate changedSource, Collection<? extends Derivable> added) {
+        return simpleGraph.forwardPropagate(changedSource, added);
+    }
+}
@@ -1,6 +1,7 @@
 package com.dat3m.dartagnan.solver.caat4wmm.basePredicates;
 
 import com.dat3m.dartagnan.solver.caat.domain.Domain;
+import com.dat3m.dartagnan.solver.caat.misc.EdgeConsumer;
 import com.dat3m.dartagnan.solver.caat.misc.EdgeDirection;
 import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.Edge;
 import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.base.SimpleGraph;
@@ -26,6 +27,11 @@ public abstract class MaterializedWMMGraph extends AbstractWMMGraph {
         return simpleGraph.get(edge);
     }
 
+    @Override
+    public Edge getById(int a, int b) {
+        return simpleGraph.getById(a, b);
+    }
+
     @Override
     public boolean containsById(int a, int b) {
         return simpleGraph.containsById(a, b);
@@ -97,6 +103,11 @@ public abstract class MaterializedWMMGraph extends AbstractWMMGraph {
         return simpleGraph.edgeIterator(e, dir);
     }
 
+    @Override
+    public void forEachEdge(int e, EdgeDirection dir, EdgeConsumer action) {
+        simpleGraph.forEachEdge(e, dir, action);
+    }
+
     @Override
     public int size() {
         return simpleGraph.size();
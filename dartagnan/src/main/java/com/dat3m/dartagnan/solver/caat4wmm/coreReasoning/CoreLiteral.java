@@ -1,6 +1,10 @@
 package com.dat3m.dartagnan.solver.caat4wmm.coreReasoning;
 
+import com.dat3m.dartagnan.program.event.core.Event;
 import com.dat3m.dartagnan.utils.logic.Literal;
+import com.dat3m.dartagnan.wmm.utils.Tuple;
+
+import java.util.List;
 
 /* A core literal should be one of the following
     - An event
@@ -8,5 +12,17 @@ import com.dat3m.dartagnan.utils.logic.Literal;
     - An address equality/inequality
 */
 public interface CoreLiteral extends Literal<CoreLiteral> {
-}
 
+    // Returns the events that <literal> refers to
+    static List<Event> getEvents(CoreLiteral literal) {
+        if (literal instanceof ExecLiteral) {
+            return List.of(((ExecLiteral) literal).getData());
+        } else if (literal instanceof AddressLiteral) {
+            return List.of(((AddressLiteral) literal).getFirst(), ((AddressLiteral) literal).getSecond());
+        } else if (literal instanceof RelLiteral) {
+            Tuple tuple = ((RelLiteral) literal).getData();
+            return List.of(tuple.getFirst(), tuple.getSecond());
+        }
+        throw new IllegalArgumentException("CoreLiteral " + literal + " is not supported");
+    }
+}
@@ -0,0 +1,214 @@
+package com.dat3m.dartagnan.solver.caat4wmm.coreReasoning;
+
+import com.dat3m.dartagnan.program.Thread;
+import com.dat3m.dartagnan.program.analysis.ExecutionAnalysis;
+import com.dat3m.dartagnan.program.event.core.Event;
+import com.dat3m.dartagnan.utils.logic.Conjunction;
+import com.dat3m.dartagnan.utils.logic.DNF;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.wmm.relation.Relation;
+import com.dat3m.dartagnan.wmm.utils.Tuple;
+import com.google.common.collect.BiMap;
+import com.google.common.collect.HashBiMap;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    A CoreReasonStore persists core reasons across verification runs of the same program with different unrolling bounds.
+    Events are identified by a key that does not depend on the bound: the id of their thread, their original id (oId),
+    and the number of events of the same thread with the same oId that precede them (i.e., the loop iteration
+    they got unrolled from).
+
+    The keys are only heuristic (e.g. the iterations of nested loops get renumbered if the bound changes),
+    so a remapped reason need not be a reason of the new program.
+    Therefore, each reason is stored together with its supporting events (see CoreReasoner) and a fingerprint of all
+    static information about them: their tags, the may/must-sets of all relations and the execution implications
+    between them. A reason is only imported if the fingerprint of its remapped support is unchanged, in which case
+    the remapped reason implies the same base reason, which is inconsistent in any execution.
+
+    Each line of the store holds one reason, e.g.
+    "3f2a...|0.3.1,0.5.0,1.7.0|exec(0.5.0) & rf(0.3.1,1.7.0)".
+ */
+public class CoreReasonStore {
+
+    private static final Logger logger = LogManager.getLogger(CoreReasonStore.class);
+
+    private static final String EXEC = "exec";
+    private static final String ADDRESS = "memAddr";
+    private static final String AND = " & ";
+    private static final String SEPARATOR = "|";
+
+    private final ExecutionAnalysis exec;
+    private final List<Relation> relations;
+    private final Set<String> entries = new LinkedHashSet<>();
+    private final BiMap<Event, String> eventKeys = HashBiMap.create();
+
+    public CoreReasonStore(VerificationTask task) {
+        this.exec = task.getAnalysisContext().requires(ExecutionAnalysis.class);
+        this.relations = task.getRelationDependencyGraph().getNodeContents().stream()
+                .sorted(Comparator.comparing(Relation::getName))
+                .collect(Collectors.toList());
+        for (Thread thread : task.getProgram().getThreads()) {
+            Map<Integer, Integer> copies = new HashMap<>();
+            for (Event e : thread.getEvents()) {
+                int copy = copies.merge(e.getOId(), 1, Integer::sum) - 1;
+                eventKeys.put(e, thread.getId() + "." + e.getOId() + "." + copy);
+            }
+        }
+    }
+
+    public int size() { return entries.size(); }
+
+    // ================== Import ==================
+
+    // Reads all entries stored in <file> (if it exists)
+    public void load(File file) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    entries.add(line.trim());
+                }
+            }
+        }
+    }
+
+    // Returns all stored reasons that are valid reasons of the current program.
+    public DNF<CoreLiteral> getReasons() {
+        List<Conjunction<CoreLiteral>> cubes = new ArrayList<>();
+        for (String entry : entries) {
+            Conjunction<CoreLiteral> reason = parseEntry(entry);
+            if (reason != null) {
+                cubes.add(reason);
+            }
+        }
+        logger.debug("Imported {} of {} stored reasons.", cubes.size(), entries.size());
+        return new DNF<>(cubes);
+    }
+
+    private Conjunction<CoreLiteral> parseEntry(String entry) {
+        String[] parts = entry.split("\\" + SEPARATOR);
+        if (parts.length != 3) {
+            logger.warn("Skipping malformed entry {}.", entry);
+            return null;
+        }
+        List<Event> support = new ArrayList<>();
+        for (String key : parts[1].split(",")) {
+            Event e = eventKeys.inverse().get(key);
+            if (e == null) {
+                return null;
+            }
+            support.add(e);
+        }
+        if (!computeFingerprint(support).equals(parts[0])) {
+            return null;
+        }
+        List<CoreLiteral> literals = new ArrayList<>();
+        for (String literal : parts[2].split(AND)) {
+            CoreLiteral lit = parseLiteral(literal);
+            if (lit == null) {
+                return null;
+            }
+            literals.add(lit);
+        }
+        return new Conjunction<>(literals);
+    }
+
+    private CoreLiteral parseLiteral(String literal) {
+        boolean isNegative = literal.startsWith("!");
+        int open = literal.indexOf('(');
+        if (open < 0 || !literal.endsWith(")")) {
+            logger.warn("Skipping malformed literal {}.", literal);
+            return null;
+        }
+        String name = literal.substring(isNegative ? 1 : 0, open);
+        String[] keys = literal.substring(open + 1, literal.length() - 1).split(",");
+        Event[] events = new Event[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            events[i] = eventKeys.inverse().get(keys[i]);
+            if (events[i] == null) {
+                return null;
+            }
+        }
+        if (name.equals(EXEC) && events.length == 1) {
+            return new ExecLiteral(events[0], isNegative);
+        } else if (events.length != 2) {
+            return null;
+        } else if (name.equals(ADDRESS)) {
+            return new AddressLiteral(events[0], events[1], isNegative);
+        } else {
+            return new RelLiteral(name, new Tuple(events[0], events[1]), isNegative);
+        }
+    }
+
+    // ================== Export ==================
+
+    public void add(Conjunction<CoreLiteral> reason, Set<Event> supportingEvents) {
+        // Events of the reason itself always belong to its support
+        Set<Event> events = new HashSet<>(supportingEvents);
+        for (CoreLiteral lit : reason.getLiterals()) {
+            events.addAll(CoreLiteral.getEvents(lit));
+        }
+        List<Event> support = new ArrayList<>(events);
+        support.sort(Comparator.comparing(eventKeys::get));
+
+        StringJoiner literals = new StringJoiner(AND);
+        reason.getLiterals().stream().map(this::printLiteral).sorted().forEach(literals::add);
+        entries.add(computeFingerprint(support) + SEPARATOR
+                + support.stream().map(eventKeys::get).collect(Collectors.joining(",")) + SEPARATOR
+                + literals);
+    }
+
+    public void save(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file.toPath(), UTF_8))) {
+            entries.forEach(writer::println);
+        }
+    }
+
+    private String printLiteral(CoreLiteral literal) {
+        String name = literal instanceof ExecLiteral ? EXEC : literal instanceof AddressLiteral ? ADDRESS : literal.getName();
+        return (literal.isNegative() ? "!" : "") + name + "("
+                + CoreLiteral.getEvents(literal).stream().map(eventKeys::get).collect(Collectors.joining(",")) + ")";
+    }
+
+    // ================== Fingerprint ==================
+
+    // Hashes the static information about <support> (in the given order) that reasoning may depend on
+    private String computeFingerprint(List<Event> support) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (Event e : support) {
+            hasher.putString(e.getClass().getSimpleName(), UTF_8).putChar(':');
+            new TreeSet<>(e.getFilters()).forEach(tag -> hasher.putString(tag, UTF_8).putChar(','));
+        }
+        for (Event e1 : support) {
+            for (Event e2 : support) {
+                hasher.putBoolean(exec.isImplied(e1, e2));
+                Tuple tuple = new Tuple(e1, e2);
+                for (Relation rel : relations) {
+                    hasher.putBoolean(rel.getMinTupleSet().contains(tuple));
+                    hasher.putBoolean(rel.getMaxTupleSet().contains(tuple));
+                }
+            }
+        }
+        return hasher.hash().toString();
+    }
+}
@@ -19,7 +19,9 @@ import com.dat3m.dartagnan.wmm.utils.RelationRepository;
 import com.dat3m.dartagnan.wmm.utils.Tuple;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static com.dat3m.dartagnan.wmm.relation.RelationNameRepository.*;
 
@@ -38,6 +40,12 @@ public class CoreReasoner {
 
 
     public Conjunction<CoreLiteral> toCoreReason(Conjunction<CAATLiteral> baseReason) {
+        return toCoreReason(baseReason, new HashSet<>());
+    }
+
+    // Additionally collects all events of <baseReason> into <support>.
+    // Together with the static information about these events, the core reason implies the base reason.
+    public Conjunction<CoreLiteral> toCoreReason(Conjunction<CAATLiteral> baseReason, Set<Event> support) {
 
         RelationRepository repo = memoryModel.getRelationRepository();
         EventDomain domain = executionGraph.getDomain();
@@ -46,6 +54,7 @@ public class CoreReasoner {
         for (CAATLiteral lit : baseReason.getLiterals()) {
             if (lit instanceof ElementLiteral) {
                 Event e = domain.getObjectById(((ElementLiteral) lit).getElement().getId()).getEvent();
+                support.add(e);
                 // We only have static tags, so all of them reduce to execution literals
                 coreReason.add(new ExecLiteral(e, lit.isNegative()));
             } else {
@@ -56,6 +65,8 @@ public class CoreReasoner {
                 Event e2 = domain.getObjectById(edge.getSecond()).getEvent();
                 Tuple tuple = new Tuple(e1, e2);
                 Relation rel = repo.getRelation(lit.getName());
+                support.add(e1);
+                support.add(e2);
 
                 if (lit.isPositive() && rel.getMinTupleSet().contains(tuple)) {
                     // Statically present edges
@@ -69,7 +80,7 @@ public class CoreReasoner {
                         if (lit.isNegative()) {
                             throw new UnsupportedOperationException(String.format("FenceRel %s is not allowed on the rhs of differences.", rel));
                         }
-                        addFenceReason(rel, edge, coreReason);
+                        support.add(addFenceReason(rel, edge, coreReason));
                     } else if (rel.getName().equals(LOC)) {
                         coreReason.add(new AddressLiteral(tuple, lit.isNegative()));
                     } else if (rel.getName().equals(RF) || rel.getName().equals(CO)) {
@@ -125,7 +136,8 @@ public class CoreReasoner {
         }
     }
 
-    private void addFenceReason(Relation rel, Edge edge, List<CoreLiteral> coreReasons) {
+    // Returns the fence that induces <edge>
+    private Event addFenceReason(Relation rel, Edge edge, List<CoreLiteral> coreReasons) {
         FenceGraph fenceGraph = (FenceGraph) executionGraph.getRelationGraph(rel);
         EventDomain domain = executionGraph.getDomain();
         EventData e1 = domain.getObjectById(edge.getFirst());
@@ -139,5 +151,6 @@ public class CoreReasoner {
         if (!exec.isImplied(f.getEvent(), e2.getEvent())) {
             coreReasons.add(new ExecLiteral(e2.getEvent()));
         }
+        return f.getEvent();
     }
 }
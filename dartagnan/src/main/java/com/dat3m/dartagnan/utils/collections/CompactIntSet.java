@@ -0,0 +1,337 @@
+package com.dat3m.dartagnan.utils.collections;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+// A set of non-negative ints (e.g. event ids) that is stored
+//  - as a sorted array while it is sparse (4 bytes per element) and
+//  - as a bitmap once the bitmap gets smaller than the array (1 bit per possible element).
+// Sets never switch back to the sparse representation. Adding a negative value is illegal.
+// Bulk operations (addAll, retainAll, removeAll) work word-wise if both sets are dense.
+
+public final class CompactIntSet {
+
+    private static final int[] EMPTY = new int[0];
+
+    private int[] sparse = EMPTY; // Sorted, only used while dense == null
+    private BitSet dense;
+    private int size;
+
+    public CompactIntSet() { }
+
+    public CompactIntSet(CompactIntSet other) {
+        size = other.size;
+        if (other.dense != null) {
+            dense = (BitSet) other.dense.clone();
+        } else {
+            sparse = Arrays.copyOf(other.sparse, size);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int value) {
+        if (dense != null) {
+            return value >= 0 && dense.get(value);
+        }
+        return Arrays.binarySearch(sparse, 0, size, value) >= 0;
+    }
+
+    public boolean add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value " + value);
+        }
+        if (dense != null) {
+            if (dense.get(value)) {
+                return false;
+            }
+            dense.set(value);
+            size++;
+            return true;
+        }
+        int index = Arrays.binarySearch(sparse, 0, size, value);
+        if (index >= 0) {
+            return false;
+        }
+        index = -index - 1;
+        if (size == sparse.length) {
+            sparse = Arrays.copyOf(sparse, Math.max(4, size + (size >> 1)));
+        }
+        System.arraycopy(sparse, index, sparse, index + 1, size - index);
+        sparse[index] = value;
+        size++;
+        densifyIfSmaller();
+        return true;
+    }
+
+    public boolean remove(int value) {
+        if (dense != null) {
+            if (value < 0 || !dense.get(value)) {
+                return false;
+            }
+            dense.clear(value);
+            size--;
+            return true;
+        }
+        int index = Arrays.binarySearch(sparse, 0, size, value);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    public boolean addAll(CompactIntSet other) {
+        if (other.isEmpty()) {
+            return false;
+        }
+        int oldSize = size;
+        if (dense == null && other.dense == null) {
+            mergeSparse(other);
+        } else {
+            // A union with a dense set does not get sparse again
+            densify();
+            if (other.dense != null) {
+                dense.or(other.dense);
+                size = dense.cardinality();
+            } else {
+                other.forEach(this::add);
+            }
+        }
+        return size != oldSize;
+    }
+
+    public boolean retainAll(CompactIntSet other) {
+        int oldSize = size;
+        if (dense != null && other.dense != null) {
+            dense.and(other.dense);
+            size = dense.cardinality();
+        } else if (dense != null) {
+            // The intersection is not larger than the sparse set
+            int[] result = new int[other.size];
+            int count = 0;
+            for (int i = 0; i < other.size; i++) {
+                if (contains(other.sparse[i])) {
+                    result[count++] = other.sparse[i];
+                }
+            }
+            dense = null;
+            sparse = result;
+            size = count;
+        } else {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (other.contains(sparse[i])) {
+                    sparse[count++] = sparse[i];
+                }
+            }
+            size = count;
+        }
+        return size != oldSize;
+    }
+
+    public boolean removeAll(CompactIntSet other) {
+        int oldSize = size;
+        if (dense != null && other.dense != null) {
+            dense.andNot(other.dense);
+            size = dense.cardinality();
+        } else if (dense != null) {
+            other.forEach(this::remove);
+        } else {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (!other.contains(sparse[i])) {
+                    sparse[count++] = sparse[i];
+                }
+            }
+            size = count;
+        }
+        return size != oldSize;
+    }
+
+    public boolean containsAll(CompactIntSet other) {
+        if (other.size > size) {
+            return false;
+        }
+        PrimitiveIterator.OfInt iterator = other.iterator();
+        while (iterator.hasNext()) {
+            if (!contains(iterator.nextInt())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        sparse = EMPTY;
+        dense = null;
+        size = 0;
+    }
+
+    public void forEach(IntConsumer action) {
+        if (dense != null) {
+            dense.stream().forEach(action);
+        } else {
+            for (int i = 0; i < size; i++) {
+                action.accept(sparse[i]);
+            }
+        }
+    }
+
+    // Iterates in ascending order. The iterator supports removal.
+    public PrimitiveIterator.OfInt iterator() {
+        return dense != null ? new DenseIterator() : new SparseIterator();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        CompactIntSet other = (CompactIntSet) obj;
+        return size == other.size && containsAll(other);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        PrimitiveIterator.OfInt iterator = iterator();
+        while (iterator.hasNext()) {
+            hash += iterator.nextInt();
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        PrimitiveIterator.OfInt iterator = iterator();
+        while (iterator.hasNext()) {
+            builder.append(iterator.nextInt());
+            if (iterator.hasNext()) {
+                builder.append(", ");
+            }
+        }
+        return builder.append("}").toString();
+    }
+
+    // ================== Internals ==================
+
+    private void removeAt(int index) {
+        System.arraycopy(sparse, index + 1, sparse, index, size - index - 1);
+        size--;
+    }
+
+    private void mergeSparse(CompactIntSet other) {
+        int[] result = new int[size + other.size];
+        int i = 0, j = 0, count = 0;
+        while (i < size && j < other.size) {
+            int a = sparse[i];
+            int b = other.sparse[j];
+            if (a <= b) {
+                i++;
+                j += a == b ? 1 : 0;
+                result[count++] = a;
+            } else {
+                j++;
+                result[count++] = b;
+            }
+        }
+        while (i < size) {
+            result[count++] = sparse[i++];
+        }
+        while (j < other.size) {
+            result[count++] = other.sparse[j++];
+        }
+        sparse = result;
+        size = count;
+        densifyIfSmaller();
+    }
+
+    private void densifyIfSmaller() {
+        // The array needs 32 bits per element, the bitmap 1 bit per value up to the largest one
+        if (size > 0 && sparse[0] >= 0 && 32L * size > sparse[size - 1]) {
+            densify();
+        }
+    }
+
+    private void densify() {
+        if (dense != null) {
+            return;
+        }
+        dense = new BitSet(size == 0 ? 0 : sparse[size - 1] + 1);
+        for (int i = 0; i < size; i++) {
+            dense.set(sparse[i]);
+        }
+        sparse = EMPTY;
+    }
+
+    private final class SparseIterator implements PrimitiveIterator.OfInt {
+        private int next = 0;
+        private boolean canRemove = false;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            canRemove = true;
+            return sparse[next++];
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+            canRemove = false;
+            removeAt(--next);
+        }
+    }
+
+    private final class DenseIterator implements PrimitiveIterator.OfInt {
+        private int next = dense.nextSetBit(0);
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return next >= 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = dense.nextSetBit(next + 1);
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            dense.clear(last);
+            size--;
+            last = -1;
+        }
+    }
+}
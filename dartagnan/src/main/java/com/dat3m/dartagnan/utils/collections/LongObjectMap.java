@@ -0,0 +1,105 @@
+package com.dat3m.dartagnan.utils.collections;
+
+import java.util.function.LongFunction;
+
+// An open-addressing hash map from longs to non-null values that does not box its keys.
+// Collisions are resolved by linear probing. There is no removal, since all users only ever add entries.
+
+public final class LongObjectMap<V> {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private V[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+
+    public LongObjectMap() {
+        this(16);
+    }
+
+    public LongObjectMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public V get(long key) {
+        int i = indexOf(key);
+        V v;
+        while ((v = values[i]) != null) {
+            if (keys[i] == key) {
+                return v;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    public V computeIfAbsent(long key, LongFunction<? extends V> mapping) {
+        int i = indexOf(key);
+        V v;
+        while ((v = values[i]) != null) {
+            if (keys[i] == key) {
+                return v;
+            }
+            i = (i + 1) & mask;
+        }
+        v = mapping.apply(key);
+        keys[i] = key;
+        values[i] = v;
+        if (++size > threshold) {
+            allocate(values.length << 1);
+        }
+        return v;
+    }
+
+    // Grows the map at once such that it can hold <expectedSize> entries without rehashing.
+    public void ensureCapacity(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        if (capacity > values.length) {
+            allocate(capacity);
+        }
+    }
+
+    // ============================ Internals ============================
+
+    private static int capacityFor(int expectedSize) {
+        return Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+    }
+
+    private int indexOf(long key) {
+        // Fibonacci hashing: spreads the (mostly small) keys over all bits
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        final long[] oldKeys = keys;
+        final V[] oldValues = values;
+        keys = new long[capacity];
+        values = (V[]) new Object[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+        if (oldValues != null) {
+            for (int j = 0; j < oldValues.length; j++) {
+                if (oldValues[j] != null) {
+                    int i = indexOf(oldKeys[j]);
+                    while (values[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+    }
+}
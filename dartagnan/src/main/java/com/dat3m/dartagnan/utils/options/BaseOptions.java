@@ -2,6 +2,7 @@ package com.dat3m.dartagnan.utils.options;
 
 import com.dat3m.dartagnan.configuration.Method;
 import com.dat3m.dartagnan.configuration.Property;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
@@ -29,13 +30,33 @@ public abstract class BaseOptions {
 	public boolean runValidator() { return witnessPath != null; }
 	public String getWitnessPath() { return witnessPath; }
 
+	@Option(
+		name=MAX_BOUND,
+		description="Iteratively increases the unrolling bound within the same run " +
+				"until a definitive result is found or this bound is reached (0 to disable). " +
+				"Only method assume checks all bounds with a single encoding, the other methods encode each bound anew.")
+	@IntegerOption(min=0)
+	private int maxBound = 0;
+
+	public boolean hasMaxBound() { return maxBound > 0; }
+	public int getMaxBound() { return maxBound; }
+
+	@Option(
+		name=BOUND_STEP,
+		description="Step size for increasing the unrolling bound up to " + MAX_BOUND + ".")
+	@IntegerOption(min=1)
+	private int boundStep = 1;
+
+	public int getBoundStep() { return boundStep; }
+
 	@Option(
 		name=METHOD,
 		description="Solver method to be used.",
 		toUppercase=true)
-	private Method method = Method.getDefault();
+	private Method method;
 
-	public Method getMethod() { return method; }
+	public boolean hasMethod() { return method != null; }
+	public Method getMethod() { return method != null ? method : Method.getDefault(); }
 
 	@Option(
 		name=SOLVER,
@@ -44,6 +65,22 @@ public abstract class BaseOptions {
 	private Solvers solver = Solvers.Z3;
 
 	public Solvers getSolver() { return solver; }
+
+	@Option(
+		name=PORTFOLIO,
+		description="Comma-separated strategies run concurrently by the portfolio method, " +
+				"each given as <method> or <method>:<solver> (default solver: --solver).")
+	private String portfolio = "caat,assume";
+
+	public String getPortfolio() { return portfolio; }
+
+	@Option(
+		name=METHOD_RULES,
+		description="A file with the rules the auto method selects the method by (default: the built-in rules, " +
+				"see MethodSelector).")
+	private String methodRules = "";
+
+	public String getMethodRules() { return methodRules; }
 	
 	@Option(
 		name=TIMEOUT,
@@ -22,15 +22,24 @@ import com.dat3m.dartagnan.wmm.utils.RelationRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.java_smt.api.SolverContext;
 
 import java.util.EnumSet;
+import java.util.stream.Collectors;
 
 import static com.dat3m.dartagnan.configuration.Baseline.*;
 import static com.dat3m.dartagnan.configuration.OptionNames.BASELINE;
+import static com.dat3m.dartagnan.configuration.OptionNames.BATCH_SIZE;
+import static com.dat3m.dartagnan.configuration.OptionNames.EAGER_AXIOM_THRESHOLD;
+import static com.dat3m.dartagnan.configuration.OptionNames.INCREMENTAL_MODEL_CHECKING;
+import static com.dat3m.dartagnan.configuration.OptionNames.INCREMENTAL_MODEL_UPDATES;
+import static com.dat3m.dartagnan.configuration.OptionNames.MAX_CYCLES;
+import static com.dat3m.dartagnan.configuration.OptionNames.REASONING_PARALLELISM;
+import static com.dat3m.dartagnan.configuration.OptionNames.REASON_STORE;
 import static com.dat3m.dartagnan.wmm.relation.RelationNameRepository.*;
 
 /*
@@ -57,6 +66,48 @@ public class RefinementTask extends VerificationTask {
 			toUppercase=true)
 		private EnumSet<Baseline> baselines = EnumSet.noneOf(Baseline.class);
 
+	@Option(name=INCREMENTAL_MODEL_UPDATES,
+			description="Updates the CAAT model incrementally if consecutive models only differ in rf and co.",
+			secure=true)
+		private boolean incrementalModelUpdates = false;
+
+	@Option(name=INCREMENTAL_MODEL_CHECKING,
+			description="Replays the rf/co-assignment of each model level by level " +
+					"(see IncrementalModelReplayer) to report the first conflict, rather than checking it at once.",
+			secure=true)
+		private boolean incrementalModelChecking = false;
+
+	@Option(name=REASONING_PARALLELISM,
+			description="Number of threads used to compute the reasons of inconsistencies found by the CAAT solver.",
+			secure=true)
+	@IntegerOption(min=1)
+		private int reasoningParallelism = 1;
+
+	@Option(name=MAX_CYCLES,
+			description="Maximal number of cycles reported per violated acyclicity axiom (0 for no limit).",
+			secure=true)
+	@IntegerOption(min=0)
+		private int maxCycles = 0;
+
+	@Option(name=REASON_STORE,
+			description="File to import learned core reasons from and to export them to, e.g. to share them " +
+					"between runs with increasing unrolling bounds (empty to disable).",
+			secure=true)
+		private String reasonStore = "";
+
+	@Option(name=EAGER_AXIOM_THRESHOLD,
+			description="Number of refinement iterations in which an axiom of the target WMM has to be violated " +
+					"before it gets encoded eagerly (0 to disable).",
+			secure=true)
+	@IntegerOption(min=0)
+		private int eagerAxiomThreshold = 0;
+
+	@Option(name=BATCH_SIZE,
+			description="Maximal number of models that are checked by the CAAT solver per refinement iteration.",
+			secure=true)
+	@IntegerOption(min=1)
+		private int batchSize = 1;
+
     // ======================================================================
 
     private RefinementTask(Program program, Wmm targetMemoryModel, Wmm baselineModel, 
@@ -73,6 +124,20 @@ public class RefinementTask extends VerificationTask {
 
     public WmmEncoder getBaselineWmmEncoder() { return baselineWmmEncoder; }
 
+    public boolean useIncrementalModelUpdates() { return incrementalModelUpdates; }
+
+    public boolean useIncrementalModelChecking() { return incrementalModelChecking; }
+
+    public int getReasoningParallelism() { return reasoningParallelism; }
+
+    public int getMaxCycles() { return maxCycles; }
+
+    public String getReasonStore() { return reasonStore; }
+
+    public int getBatchSize() { return batchSize; }
+
+    public int getEagerAxiomThreshold() { return eagerAxiomThreshold; }
+
     @Override
     public void performStaticWmmAnalyses() throws InvalidConfigurationException {
         super.performStaticWmmAnalyses();
@@ -87,7 +152,8 @@ public class RefinementTask extends VerificationTask {
     public void initializeEncoders(SolverContext ctx) throws InvalidConfigurationException {
         progEncoder = ProgramEncoder.fromConfig(getProgram(), getAnalysisContext(), getConfig());
         propertyEncoder = PropertyEncoder.fromConfig(getProgram(), getMemoryModel(), getAnalysisContext(), getConfig());
-        //wmmEncoder = WmmEncoder.fromConfig(getMemoryModel(), getAnalysisContext(), getConfig());
+        // The target WMM is checked lazily, only axioms that get strengthened are encoded (see RefinementSolver)
+        wmmEncoder = WmmEncoder.fromConfig(getMemoryModel(), getAnalysisContext(), getConfig());
         symmetryEncoder = SymmetryEncoder.fromConfig(getMemoryModel(), getAnalysisContext(), getConfig());
         baselineWmmEncoder = WmmEncoder.fromConfig(baselineModel, baselineContext, getConfig());
 
@@ -97,14 +163,23 @@ public class RefinementTask extends VerificationTask {
         symmetryEncoder.initializeEncoding(ctx);
         baselineWmmEncoder.initializeEncoding(ctx);
 		logger.info("{}: {}", BASELINE, baselines);
+		logger.info("{}: {}", INCREMENTAL_MODEL_UPDATES, incrementalModelUpdates);
+		logger.info("{}: {}", INCREMENTAL_MODEL_CHECKING, incrementalModelChecking);
+		logger.info("{}: {}", REASONING_PARALLELISM, reasoningParallelism);
+		logger.info("{}: {}", MAX_CYCLES, maxCycles);
+		logger.info("{}: {}", REASON_STORE, reasonStore);
+		logger.info("{}: {}", BATCH_SIZE, batchSize);
+		logger.info("{}: {}", EAGER_AXIOM_THRESHOLD, eagerAxiomThreshold);
     }
 
     public static RefinementTask fromVerificationTaskWithDefaultBaselineWMM(VerificationTask task)
             throws InvalidConfigurationException {
-        return new RefinementTaskBuilder()
+        RefinementTask refinementTask = new RefinementTaskBuilder()
                 .withWitness(task.getWitness())
                 .withConfig(task.getConfig())
                 .build(task.getProgram(), task.getMemoryModel(), task.getProperty());
+        refinementTask.reuseStaticProgramAnalyses(task);
+        return refinementTask;
     }
 
     private Wmm createDefaultWmm() {
@@ -182,6 +257,12 @@ public class RefinementTask extends VerificationTask {
             return this;
         }
 
+        // Overrides the configured baselines the default baseline WMM is created from
+        public RefinementTaskBuilder withBaselines(EnumSet<Baseline> baselines) {
+            this.config.setOption(BASELINE, baselines.stream().map(Enum::name).collect(Collectors.joining(",")));
+            return this;
+        }
+
         @Override
         public RefinementTask build(Program program, Wmm memoryModel, EnumSet<Property> property) throws InvalidConfigurationException {
             return new RefinementTask(program, memoryModel, baselineModel, property, witness, config.build());
@@ -0,0 +1,176 @@
+package com.dat3m.dartagnan.verification;
+
+import com.dat3m.dartagnan.program.Program;
+import com.dat3m.dartagnan.program.event.core.Event;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.utils.printer.Printer;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.dat3m.dartagnan.configuration.OptionNames.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    A ResultCache stores the definitive results (PASS/FAIL) of verification tasks on disk.
+    Tasks are identified by a fingerprint of their processed program, their memory model, their properties,
+    their witness (for validation) and all options that can influence the result.
+    Options that only affect the performance (e.g. the method or the solver) are not part of the fingerprint.
+
+    Each entry stores the output that was printed for the result and, if one was written, the violation witness,
+    so that both can be reproduced without a model. Once the cache exceeds its maximal size, the least recently used
+    entries get evicted. Several processes may share the same cache directory.
+ */
+public class ResultCache {
+
+    private static final Logger logger = LogManager.getLogger(ResultCache.class);
+
+    // Prefixes of options that do not influence the result of a task
+    private static final List<String> IRRELEVANT_OPTIONS = Arrays.asList(METHOD, SOLVER, PORTFOLIO, TIMEOUT,
+            MAX_BOUND, BOUND_STEP, BOUND_SHARE_REASONS, VALIDATE, SERVE, BATCH, CACHE, PHANTOM_REFERENCES, WITNESS_GRAPHVIZ,
+            "refinement.", "printer.");
+
+    private static final String ENTRY = ".result";
+    private static final String WITNESS = ".graphml";
+
+    private final File directory;
+    private final long maxSize;
+
+    // <maxSize> is given in bytes
+    public ResultCache(File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        directory.mkdirs();
+    }
+
+    // Must be called after the program of <task> got processed
+    public static String fingerprint(VerificationTask task) {
+        Program program = task.getProgram();
+        Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putString(new Printer().setShowInitThreads(true).print(program), UTF_8);
+        // The printed program leaves out the types and tags of events (e.g. whether a store is exclusive or strong),
+        // on which the memory model depends
+        for(Event e : program.getEvents()) {
+            hasher.putString(e.getClass().getName(), UTF_8);
+            e.getFilters().stream().sorted().forEach(tag -> hasher.putString(tag, UTF_8).putChar(','));
+            hasher.putChar(';');
+        }
+        hasher.putString(String.valueOf(program.getAss()), UTF_8);
+        hasher.putString(String.valueOf(program.getAssFilter()), UTF_8);
+        // The relations of a model are not ordered
+        task.getMemoryModel().toString().lines().sorted().forEach(l -> hasher.putString(l, UTF_8));
+        hasher.putString(task.getProperty().toString(), UTF_8);
+        hasher.putString(task.getWitness().toXML(), UTF_8);
+        task.getConfig().asPropertiesString().lines()
+                .filter(l -> IRRELEVANT_OPTIONS.stream().noneMatch(l::startsWith))
+                .sorted()
+                .forEach(l -> hasher.putString(l, UTF_8));
+        return hasher.hash().toString();
+    }
+
+    // Returns null if there is no entry for <key>
+    public Entry lookup(String key) {
+        File file = new File(directory, key + ENTRY);
+        try {
+            List<String> lines = Files.readAllLines(file.toPath(), UTF_8);
+            File witnessFile = new File(directory, key + WITNESS);
+            Entry entry = new Entry(Result.valueOf(lines.get(0)), lines.subList(2, lines.size()),
+                    lines.get(1).isEmpty() ? null : new File(lines.get(1)),
+                    witnessFile.exists() ? Files.readString(witnessFile.toPath(), UTF_8) : null);
+            // Marks the entry as recently used
+            file.setLastModified(System.currentTimeMillis());
+            return entry;
+        } catch (IOException | RuntimeException e) {
+            // Missing, evicted (by another process) or broken entries count as cache misses
+            return null;
+        }
+    }
+
+    public void store(String key, Entry entry) {
+        try {
+            if (entry.witness != null) {
+                write(new File(directory, key + WITNESS), entry.witness);
+            }
+            List<String> lines = new ArrayList<>();
+            lines.add(entry.result.name());
+            lines.add(entry.witnessFile == null ? "" : entry.witnessFile.getPath());
+            lines.addAll(entry.output);
+            write(new File(directory, key + ENTRY), String.join("\n", lines) + "\n");
+            evict();
+        } catch (IOException e) {
+            logger.warn("Could not store the result in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    // Writes to a temporary file first, so that other processes never read partial entries
+    private void write(File file, String contents) throws IOException {
+        Path tmp = Files.createTempFile(directory.toPath(), "entry", ".tmp");
+        Files.writeString(tmp, contents, UTF_8);
+        Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void evict() throws IOException {
+        List<File> entries;
+        try (Stream<Path> files = Files.list(directory.toPath())) {
+            entries = files.map(Path::toFile)
+                    .filter(f -> f.getName().endsWith(ENTRY))
+                    .sorted(Comparator.comparingLong(File::lastModified))
+                    .collect(Collectors.toList());
+        }
+        long size = 0;
+        for (File file : entries) {
+            size += file.length() + witnessOf(file).length();
+        }
+        for (File file : entries) {
+            if (size <= maxSize) {
+                break;
+            }
+            size -= file.length() + witnessOf(file).length();
+            file.delete();
+            witnessOf(file).delete();
+        }
+    }
+
+    private File witnessOf(File entry) {
+        String name = entry.getName();
+        return new File(directory, name.substring(0, name.length() - ENTRY.length()) + WITNESS);
+    }
+
+    public static class Entry {
+        private final Result result;
+        private final List<String> output;
+        private final File witnessFile;
+        private final String witness;
+
+        // <witness> holds the contents that were written to <witnessFile> (both may be null)
+        public Entry(Result result, List<String> output, File witnessFile, String witness) {
+            this.result = result;
+            this.output = output;
+            this.witnessFile = witnessFile;
+            this.witness = witness;
+        }
+
+        public Result getResult() { return result; }
+        public List<String> getOutput() { return output; }
+
+        // Writes the stored witness to the file it was originally written to
+        public void restoreWitness() throws IOException {
+            if (witnessFile != null && witness != null) {
+                Files.writeString(witnessFile.toPath(), witness, UTF_8);
+            }
+        }
+    }
+}
@@ -108,6 +108,10 @@ public class VerificationTask {
     // ===================== Utility Methods ====================
 
     public void preprocessProgram() throws InvalidConfigurationException {
+        // The program may have been processed already (e.g. to look up its result in a ResultCache)
+        if(program.isCompiled()) {
+            return;
+        }
         ProcessingManager.fromConfig(config).run(program);
         // This is used to distinguish between Litmus tests (whose assertions are defined differently)
         // and C/Boogie tests.
@@ -117,6 +121,10 @@ public class VerificationTask {
     }
 
     public void performStaticProgramAnalyses() throws InvalidConfigurationException {
+        // The analyses may have been performed already (e.g. to extract the features of a MethodSelector)
+        if(analysisContext.has(ThreadSymmetry.class)) {
+            return;
+        }
         analysisContext.register(BranchEquivalence.class, BranchEquivalence.fromConfig(program, config));
         analysisContext.register(ExecutionAnalysis.class, ExecutionAnalysis.fromConfig(program, analysisContext, config));
         analysisContext.register(Dependency.class, Dependency.fromConfig(program, analysisContext, config));
@@ -132,6 +140,24 @@ public class VerificationTask {
         }
     }
 
+    // Reuses the program analyses of <other>, which has to verify the same (processed) program,
+    // e.g. against a different memory model
+    public void performStaticProgramAnalyses(VerificationTask other) {
+        checkArgument(other.program == program, "The analyses of a different program cannot be reused.");
+        analysisContext.register(BranchEquivalence.class, other.analysisContext.requires(BranchEquivalence.class));
+        analysisContext.register(ExecutionAnalysis.class, other.analysisContext.requires(ExecutionAnalysis.class));
+        analysisContext.register(Dependency.class, other.analysisContext.requires(Dependency.class));
+        analysisContext.register(AliasAnalysis.class, other.analysisContext.requires(AliasAnalysis.class));
+        analysisContext.register(ThreadSymmetry.class, other.analysisContext.requires(ThreadSymmetry.class));
+    }
+
+    // Reuses the program analyses of <other> if it has performed them already
+    public void reuseStaticProgramAnalyses(VerificationTask other) {
+        if(other.analysisContext.has(ThreadSymmetry.class)) {
+            performStaticProgramAnalyses(other);
+        }
+    }
+
     public void performStaticWmmAnalyses() throws InvalidConfigurationException {
         analysisContext.register(WmmAnalysis.class, WmmAnalysis.fromConfig(memoryModel, config));
         analysisContext.register(RelationAnalysis.class, RelationAnalysis.fromConfig(this, analysisContext, config));
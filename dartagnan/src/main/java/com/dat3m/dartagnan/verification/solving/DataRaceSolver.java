@@ -3,20 +3,33 @@ package com.dat3m.dartagnan.verification.solving;
 import com.dat3m.dartagnan.encoding.ProgramEncoder;
 import com.dat3m.dartagnan.encoding.PropertyEncoder;
 import com.dat3m.dartagnan.encoding.WmmEncoder;
+import com.dat3m.dartagnan.program.event.core.MemEvent;
 import com.dat3m.dartagnan.utils.Result;
 import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.wmm.utils.Tuple;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.Model;
 import org.sosy_lab.java_smt.api.ProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverContext;
 import org.sosy_lab.java_smt.api.SolverException;
 
+import java.util.List;
+
+import static com.dat3m.dartagnan.configuration.OptionNames.RACES_BY_LOCATION;
 import static com.dat3m.dartagnan.utils.Result.*;
+import static java.lang.Boolean.TRUE;
+import static java.util.Collections.singletonList;
 
 public class DataRaceSolver {
-	
-	// This analysis assumes that CAT file defining the memory model has a happens-before 
+
+	// This analysis assumes that CAT file defining the memory model has a happens-before
 	// relation named hb: it should contain the following axiom "acyclic hb"
 
     private static final Logger logger = LogManager.getLogger(DataRaceSolver.class);
@@ -24,6 +37,9 @@ public class DataRaceSolver {
 	public static Result run(SolverContext ctx, ProverEnvironment prover, VerificationTask task)
 			throws InterruptedException, SolverException, InvalidConfigurationException {
 
+		Config config = new Config(task.getConfig());
+		logger.info("{}: {}", RACES_BY_LOCATION, config.byLocation);
+
 		task.preprocessProgram();
 		task.performStaticProgramAnalyses();
 		task.performStaticWmmAnalyses();
@@ -32,27 +48,81 @@ public class DataRaceSolver {
 		ProgramEncoder programEncoder = task.getProgramEncoder();
 		PropertyEncoder propertyEncoder = task.getPropertyEncoder();
 		WmmEncoder wmmEncoder = task.getWmmEncoder();
-		
+
 		Result res = UNKNOWN;
-			
+
 		logger.info("Starting encoding using " + ctx.getVersion());
 		prover.addConstraint(programEncoder.encodeFullProgram(ctx));
 		prover.addConstraint(wmmEncoder.encodeFullMemoryModel(ctx));
-		prover.push();
 
-		prover.addConstraint(propertyEncoder.encodeDataRaces(ctx));
+		if(config.byLocation) {
+			res = checkByLocation(ctx, prover, propertyEncoder);
+		} else {
+			prover.push();
+			prover.addConstraint(propertyEncoder.encodeDataRaces(ctx));
+
+			logger.info("Starting first solver.check()");
+			if(prover.isUnsat()) {
+				prover.pop();
+			} else {
+				res = FAIL;
+			}
+		}
 
-		logger.info("Starting first solver.check()");
-		if(prover.isUnsat()) {
-			prover.pop();
+		if(res != FAIL) {
 			prover.addConstraint(propertyEncoder.encodeBoundEventExec(ctx));
 			logger.info("Starting second solver.check()");
 			res = prover.isUnsat() ? PASS : UNKNOWN;
-		} else {
-			res = FAIL;
 		}
 
         logger.info("Verification finished with result " + res);
 		return res;
     }
-}
\ No newline at end of file
+
+	/*
+		Checks the race candidates of each location (see PropertyEncoder.computeRaceCandidatesByLocation)
+		with its own solver call, guarded by an assumption literal. Most locations are usually race-free
+		and their (small) queries are much easier than the disjunction over all candidates.
+		Stops at the first location that races and reports the racing events.
+		Returns FAIL if a race was found and UNKNOWN otherwise (the bound check is still missing).
+	 */
+	private static Result checkByLocation(SolverContext ctx, ProverEnvironment prover, PropertyEncoder propertyEncoder)
+			throws InterruptedException, SolverException {
+		BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
+		List<List<Tuple>> locations = propertyEncoder.computeRaceCandidatesByLocation();
+		logger.info("Checking {} locations for data races", locations.size());
+		for(int i = 0; i < locations.size(); i++) {
+			List<Tuple> candidates = locations.get(i);
+			BooleanFormula assumptionLiteral = bmgr.makeVariable("DAT3M_race_assumption_" + i);
+			prover.addConstraint(bmgr.implication(assumptionLiteral, propertyEncoder.encodeDataRaces(candidates, ctx)));
+
+			logger.debug("Checking location {} with {} race candidates", i, candidates.size());
+			if(!prover.isUnsatWithAssumptions(singletonList(assumptionLiteral))) {
+				try (Model model = prover.getModel()) {
+					for(Tuple candidate : candidates) {
+						if(TRUE.equals(model.evaluate(propertyEncoder.encodeDataRace(candidate, ctx)))) {
+							MemEvent w = (MemEvent)candidate.getFirst();
+							MemEvent m = (MemEvent)candidate.getSecond();
+							logger.info("Data race on {} between events {}: {} and {}: {}",
+									w.getAddress(), w.getCId(), w, m.getCId(), m);
+							break;
+						}
+					}
+				}
+				return FAIL;
+			}
+		}
+		return UNKNOWN;
+	}
+
+	@Options
+	private static final class Config {
+		@Option(name = RACES_BY_LOCATION,
+				description = "Checks the locations that may race one by one, instead of all at once.")
+		private boolean byLocation = false;
+
+		private Config(Configuration config) throws InvalidConfigurationException {
+			config.inject(this);
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package com.dat3m.dartagnan.verification.solving;
+
+import com.dat3m.dartagnan.asserts.AssertTrue;
+import com.dat3m.dartagnan.encoding.ProgramEncoder;
+import com.dat3m.dartagnan.encoding.PropertyEncoder;
+import com.dat3m.dartagnan.encoding.SymmetryEncoder;
+import com.dat3m.dartagnan.encoding.WmmEncoder;
+import com.dat3m.dartagnan.expression.BoundGuard;
+import com.dat3m.dartagnan.program.Program;
+import com.dat3m.dartagnan.program.processing.LoopUnrolling;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.dat3m.dartagnan.utils.Result.*;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/*
+    Verifies a task for increasing unrolling bounds with a single encoding, in the style of AssumeSolver.
+    The program gets unrolled once with the largest bound and with bound guards (see LoopUnrolling):
+    each loop iteration i > 1 starts with a jump to the end of its thread, guarded by the literal of bound i-1.
+    Assuming the literal of bound k and the negations of the literals of all smaller bounds makes the program
+    behave exactly like the program unrolled k times, so both the specification and the bound check of each bound
+    are single solver calls under assumptions, and everything the solver learns carries over to the next bound.
+ */
+public class DeepeningSolver {
+
+    private static final Logger logger = LogManager.getLogger(DeepeningSolver.class);
+
+    public static Result run(SolverContext ctx, ProverEnvironment prover, VerificationTask task, List<Integer> bounds)
+            throws InterruptedException, SolverException, InvalidConfigurationException {
+        LoopUnrolling unrolling = LoopUnrolling.fromConfig(task.getConfig());
+        checkArgument(unrolling.usesBoundGuards(), "The task must be unrolled with bound guards.");
+        checkArgument(bounds.stream().allMatch(b -> b <= unrolling.getUnrollingBound()),
+                "The task must be unrolled with the largest bound.");
+        Result res = UNKNOWN;
+
+        task.preprocessProgram();
+        Program program = task.getProgram();
+        if(program.getAss() instanceof AssertTrue) {
+            logger.info("Verification finished: assertion trivially holds");
+            return PASS;
+        }
+        task.performStaticProgramAnalyses();
+        task.performStaticWmmAnalyses();
+
+        task.initializeEncoders(ctx);
+        ProgramEncoder programEncoder = task.getProgramEncoder();
+        PropertyEncoder propertyEncoder = task.getPropertyEncoder();
+        WmmEncoder wmmEncoder = task.getWmmEncoder();
+        SymmetryEncoder symmEncoder = task.getSymmetryEncoder();
+
+        logger.info("Starting encoding using " + ctx.getVersion());
+        prover.addConstraint(programEncoder.encodeFullProgram(ctx));
+        prover.addConstraint(wmmEncoder.encodeFullMemoryModel(ctx));
+        prover.addConstraint(task.getWitness().encode(program, ctx));
+        prover.addConstraint(symmEncoder.encodeFullSymmetry(ctx));
+
+        BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
+        BooleanFormula specLiteral = bmgr.makeVariable("DAT3M_spec_assumption");
+        prover.addConstraint(bmgr.implication(specLiteral,
+                propertyEncoder.encodeSpecification(task.getProperty(), ctx)));
+        BooleanFormula boundLiteral = bmgr.makeVariable("DAT3M_bound_check_assumption");
+        prover.addConstraint(bmgr.implication(boundLiteral, propertyEncoder.encodeBoundEventExec(ctx)));
+
+        for(int bound : bounds) {
+            logger.info("Checking unrolling bound " + bound);
+            List<BooleanFormula> assumptions = getBoundAssumptions(bound, unrolling.getUnrollingBound(), ctx);
+            assumptions.add(specLiteral);
+            if(!prover.isUnsatWithAssumptions(assumptions)) {
+                res = FAIL;
+            } else {
+                assumptions.set(assumptions.size() - 1, boundLiteral);
+                res = prover.isUnsatWithAssumptions(assumptions) ? PASS : UNKNOWN;
+            }
+            if(res != UNKNOWN) {
+                // E.g. witnesses report the bound of the result
+                program.restrictUnrollingBound(bound);
+                break;
+            }
+        }
+
+        if(logger.isDebugEnabled()) {
+            String smtStatistics = "\n ===== SMT Statistics ===== \n";
+            for(String key : prover.getStatistics().keySet()) {
+                smtStatistics += String.format("\t%s -> %s\n", key, prover.getStatistics().get(key));
+            }
+            logger.debug(smtStatistics);
+        }
+
+        res = program.getAss().getInvert() ? res.invert() : res;
+        logger.info("Verification finished with result " + res);
+        return res;
+    }
+
+    // Only the guards of <bound> cut off iterations (the largest bound is cut off by the unrolling itself)
+    private static List<BooleanFormula> getBoundAssumptions(int bound, int maxBound, SolverContext ctx) {
+        BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
+        List<BooleanFormula> assumptions = new ArrayList<>();
+        for(int smaller = 1; smaller < bound; smaller++) {
+            assumptions.add(bmgr.not(BoundGuard.getLiteral(smaller, ctx)));
+        }
+        if(bound < maxBound) {
+            assumptions.add(BoundGuard.getLiteral(bound, ctx));
+        }
+        return assumptions;
+    }
+}
@@ -0,0 +1,263 @@
+package com.dat3m.dartagnan.verification.solving;
+
+import com.dat3m.dartagnan.configuration.Baseline;
+import com.dat3m.dartagnan.configuration.Method;
+import com.dat3m.dartagnan.program.Program;
+import com.dat3m.dartagnan.program.analysis.AliasAnalysis;
+import com.dat3m.dartagnan.program.analysis.LocationIndex;
+import com.dat3m.dartagnan.program.analysis.ThreadSymmetry;
+import com.dat3m.dartagnan.program.event.core.MemEvent;
+import com.dat3m.dartagnan.program.filter.FilterBasic;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.verification.Context;
+import com.dat3m.dartagnan.verification.RefinementTask;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.wmm.axiom.Acyclic;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
+import static com.dat3m.dartagnan.program.event.Tag.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    Selects the verification method (and, for CAAT, the refinement baseline) from cheap features of a task.
+    The selection is driven by a table of rules, one per line, of the form
+        <feature> <op> <value> & ... & <feature> <op> <value> -> <method> [<baseline>,...,<baseline>]
+    where <op> is one of <, <=, ==, >=, >. The first rule whose conditions all hold wins, a rule without conditions
+    always holds. Without a baseline, the configured baseline is used. Lines starting with # are comments.
+    The built-in rules (method-selection.rules) were derived from batch runs that logged the features
+    together with the runtimes of each method (see BatchRunner); they can be replaced to retrain the selection.
+ */
+public class MethodSelector {
+
+    public static final String THREADS = "threads";
+    public static final String EVENTS = "events";
+    public static final String MEMORY_EVENTS = "memoryEvents";
+    public static final String RF_PAIRS = "rfPairs";
+    public static final String CO_PAIRS = "coPairs";
+    public static final String RECURSIVE_GROUPS = "recursiveGroups";
+    public static final String SYMMETRY_CLASSES = "symmetryClasses";
+    public static final String ACYCLICITY_AXIOMS = "acyclicityAxioms";
+
+    public static final List<String> FEATURES = List.of(THREADS, EVENTS, MEMORY_EVENTS, RF_PAIRS, CO_PAIRS,
+            RECURSIVE_GROUPS, SYMMETRY_CLASSES, ACYCLICITY_AXIOMS);
+
+    private static final String DEFAULT_RULES = "/method-selection.rules";
+
+    private final List<Rule> rules;
+
+    private MethodSelector(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    // Reads the rules from <path> or, if it is empty, uses the built-in rules
+    public static MethodSelector fromFile(String path) throws InvalidConfigurationException {
+        try (Reader reader = path.isEmpty() ?
+                new InputStreamReader(MethodSelector.class.getResourceAsStream(DEFAULT_RULES), UTF_8) :
+                new FileReader(path, UTF_8)) {
+            return new MethodSelector(parseRules(new BufferedReader(reader)));
+        } catch (IOException e) {
+            throw new InvalidConfigurationException("Cannot read the method selection rules: " + e.getMessage());
+        }
+    }
+
+    public Choice select(Map<String, Long> features) {
+        for (Rule rule : rules) {
+            if (rule.conditions.stream().allMatch(c -> c.test(features))) {
+                return rule.choice;
+            }
+        }
+        return new Choice(Method.getDefault(), null);
+    }
+
+    /*
+        The features are computed from the preprocessed program, its static analyses and the (unanalysed)
+        memory model. The analyses are performed on <task>, so the selected method reuses them.
+        The rf and co pairs are counted via a LocationIndex, the same way the static relation analysis
+        computes the may-sets of rf and co.
+     */
+    public static Map<String, Long> extractFeatures(VerificationTask task) throws InvalidConfigurationException {
+        task.preprocessProgram();
+        task.performStaticProgramAnalyses();
+        Program program = task.getProgram();
+        Context analysisContext = task.getAnalysisContext();
+        Map<String, Long> features = new LinkedHashMap<>();
+
+        features.put(THREADS, program.getThreads().stream()
+                .filter(t -> t.getCache().getEvents(FilterBasic.get(INIT)).isEmpty()).count());
+        features.put(EVENTS, (long) program.getEvents().size());
+
+        List<MemEvent> writes = getMemEvents(program, WRITE);
+        List<MemEvent> reads = getMemEvents(program, READ);
+        features.put(MEMORY_EVENTS, (long) program.getCache().getEvents(FilterBasic.get(MEMORY)).size());
+        AliasAnalysis alias = analysisContext.requires(AliasAnalysis.class);
+        LocationIndex writeIndex = new LocationIndex(alias, writes);
+        LocationIndex nonInitWriteIndex = new LocationIndex(alias,
+                writes.stream().filter(w -> !w.is(INIT)).collect(Collectors.toList()));
+        long rfPairs = 0;
+        long coPairs = 0;
+        for (MemEvent r : reads) {
+            rfPairs += writeIndex.getMayAlias(r).size();
+        }
+        for (MemEvent w : writes) {
+            coPairs += nonInitWriteIndex.getMayAlias(w).stream().filter(w2 -> w2 != w).count();
+        }
+        features.put(RF_PAIRS, rfPairs);
+        features.put(CO_PAIRS, coPairs);
+
+        features.put(RECURSIVE_GROUPS, (long) task.getMemoryModel().getRecursiveGroups().size());
+        features.put(SYMMETRY_CLASSES, analysisContext.requires(ThreadSymmetry.class)
+                .getAllEquivalenceClasses().stream().filter(c -> c.size() > 1).count());
+        features.put(ACYCLICITY_AXIOMS, task.getMemoryModel().getAxioms().stream()
+                .filter(Acyclic.class::isInstance).count());
+        return features;
+    }
+
+    private static List<MemEvent> getMemEvents(Program program, String tag) {
+        return program.getCache().getEvents(FilterBasic.get(tag)).stream()
+                .filter(MemEvent.class::isInstance).map(MemEvent.class::cast).collect(Collectors.toList());
+    }
+
+    // ==================== Rules =====================
+
+    public static class Choice {
+        private final Method method;
+        private final EnumSet<Baseline> baselines;
+
+        private Choice(Method method, EnumSet<Baseline> baselines) {
+            this.method = method;
+            this.baselines = baselines;
+        }
+
+        public Method getMethod() { return method; }
+        // null if the configured baseline should be used
+        public EnumSet<Baseline> getBaselines() { return baselines; }
+
+        public Result run(SolverContext ctx, ProverEnvironment prover, VerificationTask task) throws Exception {
+            if (baselines == null || method != Method.CAAT) {
+                return PortfolioSolver.runStrategy(method, ctx, prover, task);
+            }
+            RefinementTask refinementTask = new RefinementTask.RefinementTaskBuilder()
+                    .withWitness(task.getWitness())
+                    .withConfig(task.getConfig())
+                    .withBaselines(baselines)
+                    .build(task.getProgram(), task.getMemoryModel(), task.getProperty());
+            refinementTask.reuseStaticProgramAnalyses(task);
+            return RefinementSolver.run(ctx, prover, refinementTask);
+        }
+
+        @Override
+        public String toString() {
+            return method.asStringOption() + (baselines == null ? "" : " " + baselines);
+        }
+    }
+
+    private static class Rule {
+        private final List<Condition> conditions;
+        private final Choice choice;
+
+        private Rule(List<Condition> conditions, Choice choice) {
+            this.conditions = conditions;
+            this.choice = choice;
+        }
+    }
+
+    private static class Condition {
+        private final String feature;
+        private final LongPredicate predicate;
+
+        private Condition(String feature, LongPredicate predicate) {
+            this.feature = feature;
+            this.predicate = predicate;
+        }
+
+        private boolean test(Map<String, Long> features) {
+            return predicate.test(features.get(feature));
+        }
+    }
+
+    private static List<Rule> parseRules(BufferedReader reader) throws IOException, InvalidConfigurationException {
+        List<Rule> rules = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("->");
+            if (parts.length != 2) {
+                throw new InvalidConfigurationException("Illegal method selection rule " + line);
+            }
+            List<Condition> conditions = new ArrayList<>();
+            if (!parts[0].isBlank()) {
+                for (String condition : parts[0].split("&")) {
+                    conditions.add(parseCondition(condition.trim(), line));
+                }
+            }
+            rules.add(new Rule(conditions, parseChoice(parts[1].trim(), line)));
+        }
+        return rules;
+    }
+
+    private static Condition parseCondition(String condition, String line) throws InvalidConfigurationException {
+        String[] parts = condition.split("\\s+");
+        if (parts.length != 3 || !FEATURES.contains(parts[0])) {
+            throw new InvalidConfigurationException("Illegal condition " + condition + " in rule " + line);
+        }
+        long value;
+        try {
+            value = Long.parseLong(parts[2]);
+        } catch (NumberFormatException e) {
+            throw new InvalidConfigurationException("Illegal condition " + condition + " in rule " + line);
+        }
+        switch (parts[1]) {
+            case "<":
+                return new Condition(parts[0], x -> x < value);
+            case "<=":
+                return new Condition(parts[0], x -> x <= value);
+            case "==":
+                return new Condition(parts[0], x -> x == value);
+            case ">=":
+                return new Condition(parts[0], x -> x >= value);
+            case ">":
+                return new Condition(parts[0], x -> x > value);
+            default:
+                throw new InvalidConfigurationException("Illegal condition " + condition + " in rule " + line);
+        }
+    }
+
+    private static Choice parseChoice(String choice, String line) throws InvalidConfigurationException {
+        String[] parts = choice.split("\\s+");
+        if (parts.length > 2) {
+            throw new InvalidConfigurationException("Illegal method selection rule " + line);
+        }
+        try {
+            Method method = Method.valueOf(normalize(parts[0]));
+            if (method == Method.AUTO || method == Method.PORTFOLIO) {
+                throw new InvalidConfigurationException("Rules cannot select the " + method.asStringOption() +
+                        " method: " + line);
+            }
+            EnumSet<Baseline> baselines = null;
+            if (parts.length == 2) {
+                baselines = EnumSet.noneOf(Baseline.class);
+                for (String baseline : parts[1].split(",")) {
+                    baselines.add(Baseline.valueOf(normalize(baseline.trim())));
+                }
+            }
+            return new Choice(method, baselines);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidConfigurationException("Illegal method selection rule " + line);
+        }
+    }
+
+    // Allows to write the names of methods and baselines in lower case and with dashes (e.g. no-oota)
+    private static String normalize(String name) {
+        return name.replace('-', '_').toUpperCase();
+    }
+}
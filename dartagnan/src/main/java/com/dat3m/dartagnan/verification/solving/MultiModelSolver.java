@@ -0,0 +1,97 @@
+package com.dat3m.dartagnan.verification.solving;
+
+import com.dat3m.dartagnan.asserts.AssertTrue;
+import com.dat3m.dartagnan.encoding.PropertyEncoder;
+import com.dat3m.dartagnan.program.Program;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.google.common.base.Preconditions;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.dat3m.dartagnan.configuration.Property.RACES;
+import static com.dat3m.dartagnan.utils.Result.*;
+
+/*
+    Verifies one program against several memory models with a single prover.
+    The program is processed, analysed and encoded only once, since this does not depend on the memory model
+    (it only depends on the target architecture, which is the same for all tasks).
+    The encoding of each memory model is guarded by its own assumption literal, so that the models
+    can be checked one after another (as in AssumeSolver) while the prover keeps what it learned about the program.
+ */
+public class MultiModelSolver {
+
+    private static final Logger logger = LogManager.getLogger(MultiModelSolver.class);
+
+    // All <tasks> have to share the same program. Returns the results in the order of the tasks.
+    public static List<Result> run(SolverContext ctx, ProverEnvironment prover, List<VerificationTask> tasks)
+            throws InterruptedException, SolverException, InvalidConfigurationException {
+        Preconditions.checkArgument(!tasks.isEmpty(), "No tasks to verify.");
+        VerificationTask first = tasks.get(0);
+        Program program = first.getProgram();
+        Preconditions.checkArgument(tasks.stream().allMatch(t -> t.getProgram() == program),
+                "The tasks have to share their program.");
+
+        first.preprocessProgram();
+        if(program.getAss() instanceof AssertTrue && !first.getProperty().contains(RACES)) {
+            logger.info("Verification finished: assertion trivially holds");
+            return new ArrayList<>(Collections.nCopies(tasks.size(), PASS));
+        }
+        first.performStaticProgramAnalyses();
+        for(VerificationTask task : tasks) {
+            if(task != first) {
+                task.performStaticProgramAnalyses(first);
+            }
+            task.performStaticWmmAnalyses();
+            task.initializeEncoders(ctx);
+        }
+
+        BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
+        PropertyEncoder propertyEncoder = first.getPropertyEncoder();
+        logger.info("Starting encoding using " + ctx.getVersion());
+        prover.addConstraint(first.getProgramEncoder().encodeFullProgram(ctx));
+        BooleanFormula specLiteral = bmgr.makeVariable("DAT3M_spec_assumption");
+        prover.addConstraint(bmgr.implication(specLiteral,
+                propertyEncoder.encodeSpecification(first.getProperty(), ctx)));
+        BooleanFormula boundLiteral = bmgr.makeVariable("DAT3M_bound_assumption");
+        prover.addConstraint(bmgr.implication(boundLiteral, propertyEncoder.encodeBoundEventExec(ctx)));
+
+        List<BooleanFormula> modelLiterals = new ArrayList<>();
+        for(int i = 0; i < tasks.size(); i++) {
+            VerificationTask task = tasks.get(i);
+            BooleanFormula modelLiteral = bmgr.makeVariable("DAT3M_model_assumption_" + i);
+            // The models may define different relations with the same name, which is fine
+            // since at most one of them is assumed at a time
+            prover.addConstraint(bmgr.implication(modelLiteral, bmgr.and(
+                    task.getWmmEncoder().encodeFullMemoryModel(ctx),
+                    task.getSymmetryEncoder().encodeFullSymmetry(ctx))));
+            modelLiterals.add(modelLiteral);
+        }
+
+        List<Result> results = new ArrayList<>();
+        for(int i = 0; i < tasks.size(); i++) {
+            BooleanFormula modelLiteral = modelLiterals.get(i);
+            logger.info("Starting solver.check() for memory model {}", i);
+            Result res;
+            if(prover.isUnsatWithAssumptions(List.of(modelLiteral, specLiteral))) {
+                res = prover.isUnsatWithAssumptions(List.of(modelLiteral, boundLiteral)) ? PASS : UNKNOWN;
+            } else {
+                res = FAIL;
+            }
+            res = program.getAss().getInvert() && !first.getProperty().contains(RACES) ? res.invert() : res;
+            logger.info("Verification against memory model {} finished with result {}", i, res);
+            results.add(res);
+        }
+        return results;
+    }
+}
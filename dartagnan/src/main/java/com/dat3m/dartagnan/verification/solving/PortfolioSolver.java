@@ -0,0 +1,188 @@
+package com.dat3m.dartagnan.verification.solving;
+
+import com.dat3m.dartagnan.configuration.Method;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.verification.RefinementTask;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.BasicLogManager;
+import org.sosy_lab.java_smt.SolverContextFactory;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static com.dat3m.dartagnan.utils.Result.UNKNOWN;
+
+/*
+    The portfolio runs several verification strategies (a method together with an SMT solver) concurrently.
+    The first strategy that returns a definitive result (PASS or FAIL) wins and all others get cancelled.
+    Each strategy works on its own SolverContext and ProverEnvironment.
+    Since the encoding state of a program is stored in its events and relations, the strategies cannot share
+    a single VerificationTask. Instead, each strategy obtains its own task from a TaskFactory.
+ */
+public class PortfolioSolver {
+
+    private static final Logger logger = LogManager.getLogger(PortfolioSolver.class);
+
+    // Creates an independent copy of the verification task for each strategy
+    @FunctionalInterface
+    public interface TaskFactory {
+        VerificationTask create() throws Exception;
+    }
+
+    // Gets called by the winning strategy while its solver context is still alive (e.g. to generate witnesses)
+    @FunctionalInterface
+    public interface ResultHandler {
+        void handle(SolverContext ctx, ProverEnvironment prover, VerificationTask task, Result result) throws Exception;
+    }
+
+    public static class Strategy {
+        private final Method method;
+        private final Solvers solver;
+
+        public Strategy(Method method, Solvers solver) {
+            this.method = method;
+            this.solver = solver;
+        }
+
+        public Method getMethod() { return method; }
+        public Solvers getSolver() { return solver; }
+
+        @Override
+        public String toString() {
+            return method.asStringOption() + ":" + solver.toString().toLowerCase();
+        }
+    }
+
+    // Parses a comma-separated list of strategies of the form <method> or <method>:<solver>
+    public static List<Strategy> parseStrategies(String description, Solvers defaultSolver)
+            throws InvalidConfigurationException {
+        List<Strategy> strategies = new ArrayList<>();
+        for (String entry : description.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts[0].isEmpty() || parts.length > 2) {
+                throw new InvalidConfigurationException("Illegal portfolio strategy " + entry);
+            }
+            Method method;
+            Solvers solver;
+            try {
+                method = Method.valueOf(parts[0].toUpperCase());
+                solver = parts.length == 2 ? Solvers.valueOf(parts[1].toUpperCase()) : defaultSolver;
+            } catch (IllegalArgumentException e) {
+                throw new InvalidConfigurationException("Illegal portfolio strategy " + entry);
+            }
+            if (method == Method.PORTFOLIO) {
+                throw new InvalidConfigurationException("A portfolio cannot contain itself.");
+            }
+            if (method == Method.AUTO) {
+                throw new InvalidConfigurationException("A portfolio cannot contain the automatic method selection.");
+            }
+            strategies.add(new Strategy(method, solver));
+        }
+        return strategies;
+    }
+
+    public static Result run(List<Strategy> strategies, TaskFactory taskFactory, Configuration solverConfig,
+                             ShutdownNotifier notifier, ResultHandler handler)
+            throws InterruptedException {
+        List<ShutdownManager> managers = new ArrayList<>();
+        for (int i = 0; i < strategies.size(); i++) {
+            managers.add(ShutdownManager.createWithParent(notifier));
+        }
+        Object lock = new Object();
+        Result[] winner = { null };
+
+        List<Callable<Result>> members = new ArrayList<>();
+        for (int i = 0; i < strategies.size(); i++) {
+            Strategy strategy = strategies.get(i);
+            ShutdownManager sdm = managers.get(i);
+            members.add(() -> {
+                VerificationTask task = taskFactory.create();
+                try (SolverContext ctx = SolverContextFactory.createSolverContext(
+                        solverConfig,
+                        BasicLogManager.create(solverConfig),
+                        sdm.getNotifier(),
+                        strategy.getSolver());
+                     ProverEnvironment prover = ctx.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+                    Result result = runStrategy(strategy.getMethod(), ctx, prover, task);
+                    logger.info("Strategy {} finished with result {}", strategy, result);
+                    if (result != UNKNOWN) {
+                        synchronized (lock) {
+                            if (winner[0] == null) {
+                                winner[0] = result;
+                                managers.stream().filter(m -> m != sdm)
+                                        .forEach(m -> m.requestShutdown("Strategy " + strategy + " won"));
+                                handler.handle(ctx, prover, task, result);
+                            }
+                        }
+                    }
+                    return result;
+                }
+            });
+        }
+
+        // The strategies run on daemon threads: we do not wait for cancelled strategies to terminate
+        ExecutorService executor = Executors.newFixedThreadPool(strategies.size(), runnable -> {
+            Thread thread = new Thread(runnable, "portfolio");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletionService<Result> completionService = new ExecutorCompletionService<>(executor);
+            List<Future<Result>> futures = new ArrayList<>();
+            members.forEach(member -> futures.add(completionService.submit(member)));
+            for (int i = 0; i < members.size(); i++) {
+                Future<Result> future = completionService.take();
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // Cancelled strategies usually end with an InterruptedException
+                    int index = futures.indexOf(future);
+                    if (!managers.get(index).getNotifier().shouldShutdown()) {
+                        logger.warn("Strategy {} failed: {}", strategies.get(index), e.getCause().getMessage());
+                    }
+                }
+                synchronized (lock) {
+                    if (winner[0] != null) {
+                        return winner[0];
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Without a winner, a shutdown can only come from the parent (e.g. a timeout)
+        notifier.shutdownIfNecessary();
+        return UNKNOWN;
+    }
+
+    static Result runStrategy(Method method, SolverContext ctx, ProverEnvironment prover, VerificationTask task)
+            throws Exception {
+        switch (method) {
+            case TWO:
+                try (ProverEnvironment prover2 = ctx.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+                    return TwoSolvers.run(ctx, prover, prover2, task);
+                }
+            case INCREMENTAL:
+                return IncrementalSolver.run(ctx, prover, task);
+            case ASSUME:
+                return AssumeSolver.run(ctx, prover, task);
+            case CAAT:
+                return RefinementSolver.run(ctx, prover,
+                        RefinementTask.fromVerificationTaskWithDefaultBaselineWMM(task));
+            default:
+                throw new UnsupportedOperationException("Portfolio strategy " + method + " is not supported.");
+        }
+    }
+}
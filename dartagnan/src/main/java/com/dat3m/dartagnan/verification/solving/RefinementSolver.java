@@ -7,9 +7,12 @@ import com.dat3m.dartagnan.encoding.SymmetryEncoder;
 import com.dat3m.dartagnan.encoding.WmmEncoder;
 import com.dat3m.dartagnan.program.Program;
 import com.dat3m.dartagnan.solver.caat.CAATSolver;
+import com.dat3m.dartagnan.solver.caat.misc.ForkJoinHelper;
+import com.dat3m.dartagnan.solver.caat4wmm.IncrementalModelReplayer;
 import com.dat3m.dartagnan.solver.caat4wmm.Refiner;
 import com.dat3m.dartagnan.solver.caat4wmm.WMMSolver;
 import com.dat3m.dartagnan.solver.caat4wmm.coreReasoning.CoreLiteral;
+import com.dat3m.dartagnan.solver.caat4wmm.coreReasoning.CoreReasonStore;
 import com.dat3m.dartagnan.solver.caat4wmm.coreReasoning.RelLiteral;
 import com.dat3m.dartagnan.utils.Result;
 import com.dat3m.dartagnan.utils.logic.Conjunction;
@@ -17,24 +20,40 @@ import com.dat3m.dartagnan.utils.logic.DNF;
 import com.dat3m.dartagnan.verification.RefinementTask;
 import com.dat3m.dartagnan.verification.model.EventData;
 import com.dat3m.dartagnan.verification.model.ExecutionModel;
+import com.dat3m.dartagnan.wmm.axiom.Axiom;
+import com.dat3m.dartagnan.wmm.relation.Relation;
+import com.dat3m.dartagnan.wmm.utils.Tuple;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.Model;
 import org.sosy_lab.java_smt.api.ProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverContext;
 import org.sosy_lab.java_smt.api.SolverException;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.BiPredicate;
 
 import static com.dat3m.dartagnan.GlobalSettings.REFINEMENT_GENERATE_GRAPHVIZ_DEBUG_FILES;
+import static com.dat3m.dartagnan.configuration.Property.RACES;
+import static com.dat3m.dartagnan.solver.caat.CAATSolver.Status.CONSISTENT;
 import static com.dat3m.dartagnan.solver.caat.CAATSolver.Status.INCONCLUSIVE;
 import static com.dat3m.dartagnan.solver.caat.CAATSolver.Status.INCONSISTENT;
 import static com.dat3m.dartagnan.utils.Result.*;
 import static com.dat3m.dartagnan.utils.visualization.ExecutionGraphVisualizer.generateGraphvizFile;
+import static com.dat3m.dartagnan.wmm.relation.RelationNameRepository.CO;
+import static com.dat3m.dartagnan.wmm.relation.RelationNameRepository.RF;
+import static java.lang.Boolean.TRUE;
 
 /*
     Refinement is a custom solving procedure that starts from a weak memory model (possibly the empty model)
@@ -56,7 +75,9 @@ public class RefinementSolver {
             throws InterruptedException, SolverException, InvalidConfigurationException {
 
 		task.preprocessProgram();
-		if(task.getProgram().getAss() instanceof AssertTrue) {
+		// Data races are checked regardless of the assertion
+		boolean races = task.getProperty().contains(RACES);
+		if(!races && task.getProgram().getAss() instanceof AssertTrue) {
             logger.info("Verification finished: assertion trivially holds");
             return PASS;
         }
@@ -71,160 +92,451 @@ public class RefinementSolver {
         SymmetryEncoder symmEncoder = task.getSymmetryEncoder();
 
         Program program = task.getProgram();
-        WMMSolver solver = new WMMSolver(task);
-        Refiner refiner = new Refiner(task);
-        CAATSolver.Status status = INCONSISTENT;
+        boolean incrementalChecking = task.useIncrementalModelChecking();
+        WMMSolver solver = new WMMSolver(task, incrementalChecking || task.useIncrementalModelUpdates(),
+                task.getReasoningParallelism());
+        // Reasons learned by previous runs (e.g. with a smaller unrolling bound) that are still valid
+        CoreReasonStore reasonStore = null;
+        RefinementLoop loop = null;
+        try {
+            solver.getExecutionGraph().setMaxNumberOfCycles(task.getMaxCycles());
+            Refiner refiner = new Refiner(task);
+            IncrementalModelReplayer modelReplayer = null;
+            if (incrementalChecking && races) {
+                logger.warn("Data race detection is not supported by incremental model checking. Checking full models instead.");
+            } else if (incrementalChecking) {
+                if (solver.getExecutionGraph().usesIncrementalUpdates()) {
+                    modelReplayer = new IncrementalModelReplayer(solver, refiner, ctx);
+                } else {
+                    logger.warn("The memory model does not support incremental model checking. Checking full models instead.");
+                }
+            }
 
-        logger.info("Starting encoding using " + ctx.getVersion());
-        prover.addConstraint(programEncoder.encodeFullProgram(ctx));
-        prover.addConstraint(baselineEncoder.encodeFullMemoryModel(ctx));
-        prover.addConstraint(symmEncoder.encodeFullSymmetry(ctx));
+            logger.info("Starting encoding using " + ctx.getVersion());
+            prover.addConstraint(programEncoder.encodeFullProgram(ctx));
+            prover.addConstraint(baselineEncoder.encodeFullMemoryModel(ctx));
+            prover.addConstraint(symmEncoder.encodeFullSymmetry(ctx));
+
+            if (!task.getReasonStore().isEmpty()) {
+                reasonStore = new CoreReasonStore(task);
+                try {
+                    reasonStore.load(new File(task.getReasonStore()));
+                } catch (IOException e) {
+                    logger.warn("Could not read core reasons from {}: {}", task.getReasonStore(), e.getMessage());
+                }
+                DNF<CoreLiteral> importedReasons = reasonStore.getReasons();
+                if (importedReasons.getNumberOfCubes() > 0) {
+                    // These are added outside the specification scope, so they also apply to the bound check
+                    prover.addConstraint(refiner.refine(importedReasons, ctx));
+                }
+                logger.info("Imported {} of {} stored core reasons from {}.",
+                        importedReasons.getNumberOfCubes(), reasonStore.size(), task.getReasonStore());
+            }
 
-        prover.push();
-        prover.addConstraint(propertyEncoder.encodeSpecification(task.getProperty(), ctx));
+            prover.push();
+            // Since hb is not encoded, data races get encoded lazily (see RefinementLoop.checkDataRaces)
+            prover.addConstraint(races ? propertyEncoder.encodeLazyDataRaces(ctx)
+                    : propertyEncoder.encodeSpecification(task.getProperty(), ctx));
 
-        //  ------ Just for statistics ------
-        List<DNF<CoreLiteral>> foundCoreReasons = new ArrayList<>();
-        List<WMMSolver.Statistics> statList = new ArrayList<>();
-        int iterationCount = 0;
-        long lastTime = System.currentTimeMillis();
-        long curTime;
-        long totalNativeSolvingTime = 0;
-        long totalCaatTime = 0;
-        //  ---------------------------------
+            loop = new RefinementLoop(ctx, prover, task, solver, refiner, modelReplayer, reasonStore);
+            if (races) {
+                loop.raceCandidates = propertyEncoder.computeRaceCandidates();
+            }
+            logger.info("Refinement procedure started.");
+            CAATSolver.Status status = loop.run();
+            long totalNativeSolvingTime = loop.nativeSolvingTime;
+            long totalCaatTime = loop.caatTime;
+
+            if (logger.isInfoEnabled()) {
+                String message;
+                switch (status) {
+                    case INCONCLUSIVE:
+                        message = "CAAT Solver was inconclusive (bug?).";
+                        break;
+                    case CONSISTENT:
+                        message = "Violation verified.";
+                        break;
+                    case INCONSISTENT:
+                        message = "Bounded safety proven.";
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown result type returned by CAAT Solver.");
+                }
+                logger.info(message);
+            }
 
-        logger.info("Refinement procedure started.");
-        while (!prover.isUnsat()) {
-        	if(iterationCount == 0 && logger.isDebugEnabled()) {
-        		String smtStatistics = "\n ===== SMT Statistics (after first iteration) ===== \n";
+            if (status == INCONCLUSIVE) {
+                // CAATSolver got no result (should not be able to happen), so we cannot proceed further.
+                return UNKNOWN;
+            }
+
+            Result veriResult;
+            long boundCheckTime = 0;
+            if (status == INCONSISTENT) {
+                // ------- CHECK BOUNDS -------
+                // NOTE: Guarding the specification by an assumption literal (as in AssumeSolver) would avoid
+                // the pop and the re-adding of the refinement clauses, but it makes every solver call of the
+                // (far more expensive) refinement loop above considerably slower.
+                prover.pop();
+                // Add bound check
+                prover.addConstraint(propertyEncoder.encodeBoundEventExec(ctx));
+                // Add back the constraints found during Refinement
+                for (BooleanFormula refinement : loop.getRefinements()) {
+                    prover.addConstraint(refinement);
+                }
+                // A model that reaches the bound might still be inconsistent with the target memory model,
+                // so the bound check performs its own refinement.
+                // Without the specification, the race literals are meaningless and thus not checked.
+                loop.raceCandidates = null;
+                logger.info("Bound check started.");
+                CAATSolver.Status boundStatus = loop.run();
+                // Includes the CAAT checks of the bound check's own refinement
+                boundCheckTime = (loop.nativeSolvingTime - totalNativeSolvingTime) + (loop.caatTime - totalCaatTime);
+                veriResult = boundStatus == INCONSISTENT ? PASS : UNKNOWN;
+            } else {
+                veriResult = FAIL;
+            }
+
+            if (logger.isInfoEnabled()) {
+                int numConsistencyChecks = modelReplayer != null ? modelReplayer.getNumChecks() : loop.statList.size();
+                logger.info(generateSummary(loop.statList, loop.iterationCount, loop.nativeSolvingTime, loop.caatTime,
+                        boundCheckTime, numConsistencyChecks));
+            }
+
+            if(logger.isDebugEnabled()) {        	
+                String smtStatistics = "\n ===== SMT Statistics (after final iteration) ===== \n";
         		for(String key : prover.getStatistics().keySet()) {
         			smtStatistics += String.format("\t%s -> %s\n", key, prover.getStatistics().get(key));
         		}
         		logger.debug(smtStatistics);
-        	}
-            iterationCount++;
-            curTime = System.currentTimeMillis();
-            totalNativeSolvingTime += (curTime - lastTime);
+            }
+
+            veriResult = !races && program.getAss().getInvert() ? veriResult.invert() : veriResult;
+            logger.info("Verification finished with result " + veriResult);
+            return veriResult;
+        } finally {
+            // The reasons learned so far stay valid, even if this run gets no result
+            if (reasonStore != null) {
+                try {
+                    reasonStore.save(new File(task.getReasonStore()));
+                } catch (IOException e) {
+                    logger.warn("Could not write core reasons to {}: {}", task.getReasonStore(), e.getMessage());
+                }
+            }
+            // The solvers may own thread pools
+            if (loop != null) {
+                loop.close();
+            }
+            solver.close();
+        }
+    }
+    // ======================= Helper Methods ======================
 
-            logger.debug("Solver iteration: \n" +
-                            " ===== Iteration: {} =====\n" +
-                            "Solving time(ms): {}", iterationCount, curTime - lastTime);
+    /*
+        Runs the refinement procedure until either the solver proves unsatisfiability (INCONSISTENT)
+        or it finds a model that is consistent with the target memory model (CONSISTENT).
+        All added refinement constraints are recorded, so they can be added back after a pop.
+     */
+    private static class RefinementLoop {
+
+        private final SolverContext ctx;
+        private final ProverEnvironment prover;
+        private final RefinementTask task;
+        private final WMMSolver solver;
+        private final Refiner refiner;
+        private final IncrementalModelReplayer modelReplayer;
+        private final CoreReasonStore reasonStore;
+        private final List<BooleanFormula> refinements = new ArrayList<>();
+        // If present, a consistent model is only accepted if one of its claimed data races is real
+        private List<Tuple> raceCandidates;
+
+        // Additional solvers (and the pool to run them) to check further models of a batch
+        private final int batchSize;
+        private final List<WMMSolver> batchSolvers = new ArrayList<>();
+        private final ForkJoinPool batchPool;
+        private final Relation rf;
+        private final Relation co;
+
+        // Axioms of the target memory model that got violated too often are encoded eagerly
+        private final Map<Axiom, Integer> violationCounts = new HashMap<>();
+        private final List<Axiom> eagerAxioms = new ArrayList<>();
 
-            curTime = System.currentTimeMillis();
-            WMMSolver.Result solverResult;
-            try (Model model = prover.getModel()) {
-                solverResult = solver.check(model, ctx);
-            } catch (SolverException e) {
-                logger.error(e);
-                throw e;
+        //  ------ Just for statistics ------
+        private final List<WMMSolver.Statistics> statList = new ArrayList<>();
+        private int iterationCount = 0;
+        private long nativeSolvingTime = 0;
+        private long caatTime = 0;
+        //  ---------------------------------
+
+        private RefinementLoop(SolverContext ctx, ProverEnvironment prover, RefinementTask task, WMMSolver solver,
+                               Refiner refiner, IncrementalModelReplayer modelReplayer, CoreReasonStore reasonStore) {
+            this.ctx = ctx;
+            this.prover = prover;
+            this.task = task;
+            this.solver = solver;
+            this.refiner = refiner;
+            this.modelReplayer = modelReplayer;
+            this.reasonStore = reasonStore;
+            if (modelReplayer != null && task.getBatchSize() > 1) {
+                logger.warn("Batched refinement is not supported by incremental model checking. Checking one model per iteration.");
             }
+            this.batchSize = modelReplayer == null ? task.getBatchSize() : 1;
+            this.batchPool = batchSize > 1 ?
+                    ForkJoinHelper.newPool(Math.min(batchSize - 1, Runtime.getRuntime().availableProcessors())) : null;
+            this.rf = task.getMemoryModel().getRelationRepository().getRelation(RF);
+            this.co = task.getMemoryModel().getRelationRepository().getRelation(CO);
+        }
 
-            WMMSolver.Statistics stats = solverResult.getStatistics();
-            statList.add(stats);
-            logger.debug("Refinement iteration:\n{}", stats);
+        private List<BooleanFormula> getRefinements() { return refinements; }
 
-            status = solverResult.getStatus();
-            if (status == INCONSISTENT) {
-                DNF<CoreLiteral> reasons = solverResult.getCoreReasons();
-                foundCoreReasons.add(reasons);
-                prover.addConstraint(refiner.refine(reasons, ctx));
+        private void close() {
+            batchSolvers.forEach(WMMSolver::close);
+            if (batchPool != null) {
+                batchPool.shutdown();
+            }
+        }
 
-                if (REFINEMENT_GENERATE_GRAPHVIZ_DEBUG_FILES) {
-                    generateGraphvizFiles(task, solver.getExecution(), iterationCount, reasons);
+        private CAATSolver.Status run() throws InterruptedException, SolverException {
+            long lastTime = System.currentTimeMillis();
+            long curTime;
+            while (!prover.isUnsat()) {
+                if (iterationCount == 0 && logger.isDebugEnabled()) {
+                    String smtStatistics = "\n ===== SMT Statistics (after first iteration) ===== \n";
+                    for (String key : prover.getStatistics().keySet()) {
+                        smtStatistics += String.format("\t%s -> %s\n", key, prover.getStatistics().get(key));
+                    }
+                    logger.debug(smtStatistics);
                 }
-                if (logger.isTraceEnabled()) {
-                    // Some statistics
-                    StringBuilder message = new StringBuilder().append("Found inconsistency reasons:");
-                    for (Conjunction<CoreLiteral> cube : reasons.getCubes()) {
-                        message.append("\n").append(cube);
+                iterationCount++;
+                curTime = System.currentTimeMillis();
+                nativeSolvingTime += (curTime - lastTime);
+
+                logger.debug("Solver iteration: \n" +
+                                " ===== Iteration: {} =====\n" +
+                                "Solving time(ms): {}", iterationCount, curTime - lastTime);
+
+                curTime = System.currentTimeMillis();
+                WMMSolver.Result solverResult;
+                BooleanFormula lemma = null;
+                BooleanFormula raceRefinement = null;
+                try (Model model = prover.getModel()) {
+                    if (modelReplayer != null) {
+                        lemma = modelReplayer.replay(model);
+                        solverResult = modelReplayer.getLastResult();
+                    } else {
+                        solverResult = solver.check(model, ctx);
+                        if (raceCandidates != null && solverResult.getStatus() == CONSISTENT) {
+                            raceRefinement = checkDataRaces(model);
+                        }
                     }
-                    logger.trace(message);
+                } catch (SolverException e) {
+                    logger.error(e);
+                    throw e;
                 }
-            } else {
-                // No violations found, we can't refine
-                break;
+
+                WMMSolver.Statistics stats = solverResult.getStatistics();
+                statList.add(stats);
+                logger.debug("Refinement iteration:\n{}", stats);
+
+                CAATSolver.Status status = solverResult.getStatus();
+                caatTime += (System.currentTimeMillis() - curTime);
+                if (raceRefinement != null) {
+                    // The model is consistent, but none of its claimed data races is real.
+                    // Since these clauses are about the race literals, they are not kept for the bound check.
+                    prover.addConstraint(raceRefinement);
+                    lastTime = System.currentTimeMillis();
+                    continue;
+                }
+                if (status != INCONSISTENT) {
+                    // No violations found, we can't refine
+                    return status;
+                }
+                refine(solverResult, lemma, solver);
+                if (batchSize > 1) {
+                    checkBatch();
+                }
+                if (task.getEagerAxiomThreshold() > 0) {
+                    strengthen();
+                }
+                lastTime = System.currentTimeMillis();
             }
-            totalCaatTime += (System.currentTimeMillis() - curTime);
-            lastTime = System.currentTimeMillis();
+            iterationCount++;
+            curTime = System.currentTimeMillis();
+            nativeSolvingTime += (curTime - lastTime);
+
+            logger.debug("Final solver iteration:\n" +
+                            " ===== Final Iteration: {} =====\n" +
+                            "Native Solving/Proof time(ms): {}", iterationCount, curTime - lastTime);
+            return INCONSISTENT;
         }
-        iterationCount++;
-        curTime = System.currentTimeMillis();
-        totalNativeSolvingTime += (curTime - lastTime);
-
-        logger.debug("Final solver iteration:\n" +
-                        " ===== Final Iteration: {} =====\n" +
-                        "Native Solving/Proof time(ms): {}", iterationCount, curTime - lastTime);
-		
-        if (logger.isInfoEnabled()) {
-            String message;
-            switch (status) {
-                case INCONCLUSIVE:
-                    message = "CAAT Solver was inconclusive (bug?).";
-                    break;
-                case CONSISTENT:
-                    message = "Violation verified.";
-                    break;
-                case INCONSISTENT:
-                    message = "Bounded safety proven.";
-                    break;
-                default:
-                    throw new IllegalStateException("Unknown result type returned by CAAT Solver.");
+
+        private void refine(WMMSolver.Result solverResult, BooleanFormula lemma, WMMSolver solver)
+                throws InterruptedException {
+            DNF<CoreLiteral> reasons = solverResult.getCoreReasons();
+            if (reasonStore != null) {
+                for (Conjunction<CoreLiteral> reason : reasons.getCubes()) {
+                    reasonStore.add(reason, solverResult.getSupportingEvents(reason));
+                }
+            }
+            BooleanFormula refinement = lemma != null ? lemma : refiner.refine(reasons, ctx);
+            refinements.add(refinement);
+            prover.addConstraint(refinement);
+            for (Axiom axiom : solverResult.getViolatedAxioms()) {
+                violationCounts.merge(axiom, 1, Integer::sum);
             }
-            logger.info(message);
-        }
 
-        if (status == INCONCLUSIVE) {
-            // CAATSolver got no result (should not be able to happen), so we cannot proceed further.
-            return UNKNOWN;
+            if (REFINEMENT_GENERATE_GRAPHVIZ_DEBUG_FILES) {
+                generateGraphvizFiles(task, solver.getExecution(), iterationCount, reasons);
+            }
+            if (logger.isTraceEnabled()) {
+                // Some statistics
+                StringBuilder message = new StringBuilder().append("Found inconsistency reasons:");
+                for (Conjunction<CoreLiteral> cube : reasons.getCubes()) {
+                    message.append("\n").append(cube);
+                }
+                logger.trace(message);
+            }
         }
 
+        /*
+            Checks the data races claimed by the consistent model, i.e., the candidates whose race literal is true.
+            Returns null if one of them is real. Otherwise, it returns a refinement that forbids each claim
+            whenever the hb-path that separates the racing events exists.
+         */
+        private BooleanFormula checkDataRaces(Model model) {
+            PropertyEncoder propertyEncoder = task.getPropertyEncoder();
+            BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
+            BooleanFormula refinement = bmgr.makeTrue();
+            for (Tuple candidate : raceCandidates) {
+                BooleanFormula race = propertyEncoder.getDataRaceLiteral(candidate, ctx);
+                if (!TRUE.equals(model.evaluate(race))) {
+                    continue;
+                }
+                Conjunction<CoreLiteral> reason = solver.explainNoDataRace("hb", candidate.getFirst(), candidate.getSecond());
+                if (reason == null) {
+                    logger.info("Data race between events {}: {} and {}: {}", candidate.getFirst().getCId(),
+                            candidate.getFirst(), candidate.getSecond().getCId(), candidate.getSecond());
+                    return null;
+                }
+                refinement = bmgr.and(refinement, refiner.refine(race, reason, ctx));
+            }
+            return refinement;
+        }
 
-        Result veriResult;
-        long boundCheckTime = 0;
-        if (prover.isUnsat()) {
-            // ------- CHECK BOUNDS -------
-            lastTime = System.currentTimeMillis();
-            prover.pop();
-            // Add bound check
-            prover.addConstraint(propertyEncoder.encodeBoundEventExec(ctx));
-            // Add back the constraints found during Refinement (TODO: We might need to perform a second refinement)
-            for (DNF<CoreLiteral> reason : foundCoreReasons) {
-                prover.addConstraint(refiner.refine(reason, ctx));
+        /*
+            Encodes the axioms that got violated in at least <eagerAxiomThreshold> iterations eagerly,
+            so the solver no longer enumerates their violations one by one (e.g. hundreds of similar cycles).
+            Axioms may share relations, so later strengthenings only encode the new axioms, the relations
+            that were not needed before, and the tuples the new axioms add to the relations that were.
+            Like the refinements, the encoding survives the bound check.
+         */
+        private void strengthen() throws InterruptedException {
+            List<Axiom> newAxioms = new ArrayList<>();
+            for (Map.Entry<Axiom, Integer> entry : violationCounts.entrySet()) {
+                if (entry.getValue() >= task.getEagerAxiomThreshold() && !eagerAxioms.contains(entry.getKey())) {
+                    newAxioms.add(entry.getKey());
+                }
+            }
+            if (newAxioms.isEmpty()) {
+                return;
+            }
+            logger.info("Encoding axioms {} eagerly after {} iterations.", newAxioms, iterationCount);
+            WmmEncoder encoder = task.getWmmEncoder();
+            BooleanFormula encoding;
+            if (eagerAxioms.isEmpty()) {
+                encoder.initializeEncoding(ctx, newAxioms);
+                encoding = encoder.encodeFullMemoryModel(ctx);
+            } else {
+                encoding = encoder.encodeAdditionalAxioms(ctx, newAxioms);
             }
-            veriResult = !prover.isUnsat() ? UNKNOWN : PASS;
-            boundCheckTime = System.currentTimeMillis() - lastTime;
-        } else {
-            veriResult = FAIL;
+            eagerAxioms.addAll(newAxioms);
+            refinements.add(encoding);
+            prover.addConstraint(encoding);
         }
 
-        if (logger.isInfoEnabled()) {
-            logger.info(generateSummary(statList, iterationCount, totalNativeSolvingTime, totalCaatTime, boundCheckTime));
+        /*
+            Collects up to <batchSize> - 1 further models of the current (refined) formula and checks them
+            concurrently, each with its own WMMSolver. The models are made distinct by temporarily blocking
+            the rf/co-assignment of each found model.
+            Consistent models are simply skipped: they satisfy all refinements and thus can still be found
+            by the next iteration of the main loop.
+         */
+        private void checkBatch() throws InterruptedException, SolverException {
+            List<WMMSolver> loadedSolvers = new ArrayList<>();
+            prover.push();
+            try {
+                while (loadedSolvers.size() < batchSize - 1) {
+                    long curTime = System.currentTimeMillis();
+                    boolean isUnsat = prover.isUnsat();
+                    nativeSolvingTime += (System.currentTimeMillis() - curTime);
+                    if (isUnsat) {
+                        break;
+                    }
+                    WMMSolver batchSolver = getBatchSolver(loadedSolvers.size());
+                    try (Model model = prover.getModel()) {
+                        batchSolver.loadModel(model, ctx);
+                    }
+                    loadedSolvers.add(batchSolver);
+                    prover.addConstraint(computeBlockingClause(batchSolver.getExecution()));
+                }
+            } finally {
+                prover.pop();
+            }
+            if (loadedSolvers.isEmpty()) {
+                return;
+            }
+
+            long curTime = System.currentTimeMillis();
+            List<WMMSolver.Result> results = batchPool.invoke(ForkJoinTask.adapt(
+                    () -> ForkJoinHelper.map(loadedSolvers, WMMSolver::checkLoadedModel)));
+            for (int i = 0; i < results.size(); i++) {
+                WMMSolver.Result result = results.get(i);
+                statList.add(result.getStatistics());
+                if (result.getStatus() == INCONSISTENT) {
+                    refine(result, null, loadedSolvers.get(i));
+                }
+            }
+            caatTime += (System.currentTimeMillis() - curTime);
         }
 
-        if(logger.isDebugEnabled()) {        	
-            String smtStatistics = "\n ===== SMT Statistics (after final iteration) ===== \n";
-    		for(String key : prover.getStatistics().keySet()) {
-    			smtStatistics += String.format("\t%s -> %s\n", key, prover.getStatistics().get(key));
-    		}
-    		logger.debug(smtStatistics);
+        private WMMSolver getBatchSolver(int index) {
+            while (batchSolvers.size() <= index) {
+                WMMSolver batchSolver = new WMMSolver(task, task.useIncrementalModelUpdates(),
+                        task.getReasoningParallelism());
+                batchSolver.getExecutionGraph().setMaxNumberOfCycles(task.getMaxCycles());
+                batchSolvers.add(batchSolver);
+            }
+            return batchSolvers.get(index);
         }
 
-        veriResult = program.getAss().getInvert() ? veriResult.invert() : veriResult;
-        logger.info("Verification finished with result " + veriResult);
-        return veriResult;
+        // Excludes all models with the same rf-edges and the same coherence order as <model>
+        private BooleanFormula computeBlockingClause(ExecutionModel model) {
+            BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
+            List<BooleanFormula> literals = new ArrayList<>();
+            for (Map.Entry<EventData, EventData> rfEntry : model.getReadWriteMap().entrySet()) {
+                literals.add(bmgr.not(rf.getSMTVar(rfEntry.getValue().getEvent(), rfEntry.getKey().getEvent(), ctx)));
+            }
+            for (List<EventData> writes : model.getCoherenceMap().values()) {
+                for (int i = 1; i < writes.size(); i++) {
+                    literals.add(bmgr.not(co.getSMTVar(writes.get(i - 1).getEvent(), writes.get(i).getEvent(), ctx)));
+                }
+            }
+            return bmgr.or(literals);
+        }
     }
-    // ======================= Helper Methods ======================
 
     // -------------------- Printing -----------------------------
 
     private static CharSequence generateSummary(List<WMMSolver.Statistics> statList, int iterationCount,
-                                                long totalNativeSolvingTime, long totalCaatTime, long boundCheckTime) {
+                                                long totalNativeSolvingTime, long totalCaatTime, long boundCheckTime,
+                                                int numConsistencyChecks) {
         long totalModelExtractTime = 0;
         long totalPopulationTime = 0;
         long totalConsistencyCheckTime = 0;
         long totalReasonComputationTime = 0;
         long totalNumReasons = 0;
         long totalNumReducedReasons = 0;
+        long totalNumIncrementalUpdates = 0;
         long totalModelSize = 0;
         long minModelSize = Long.MAX_VALUE;
         long maxModelSize = Long.MIN_VALUE;
@@ -236,6 +548,7 @@ public class RefinementSolver {
             totalReasonComputationTime += stats.getBaseReasonComputationTime() + stats.getCoreReasonComputationTime();
             totalNumReasons += stats.getNumComputedCoreReasons();
             totalNumReducedReasons += stats.getNumComputedReducedCoreReasons();
+            totalNumIncrementalUpdates += stats.wasUpdatedIncrementally() ? 1 : 0;
 
             totalModelSize += stats.getModelSize();
             minModelSize = Math.min(stats.getModelSize(), minModelSize);
@@ -245,12 +558,13 @@ public class RefinementSolver {
         StringBuilder message = new StringBuilder().append("Summary").append("\n")
                 .append(" ======== Summary ========").append("\n")
                 .append("Number of iterations: ").append(iterationCount).append("\n")
-                .append("Total native solving time(ms): ").append(totalNativeSolvingTime + boundCheckTime).append("\n")
-                .append("   -- Bound check time(ms): ").append(boundCheckTime).append("\n")
+                .append("Total native solving time(ms): ").append(totalNativeSolvingTime).append("\n")
                 .append("Total CAAT solving time(ms): ").append(totalCaatTime).append("\n")
                 .append("   -- Model extraction time(ms): ").append(totalModelExtractTime).append("\n")
                 .append("   -- Population time(ms): ").append(totalPopulationTime).append("\n")
+                .append("   -- #Incremental model updates: ").append(totalNumIncrementalUpdates).append("\n")
                 .append("   -- Consistency check time(ms): ").append(totalConsistencyCheckTime).append("\n")
+                .append("   -- #Consistency checks: ").append(numConsistencyChecks).append("\n")
                 .append("   -- Reason computation time(ms): ").append(totalReasonComputationTime).append("\n")
                 .append("   -- #Computed core reasons: ").append(totalNumReasons).append("\n")
                 .append("   -- #Computed core reduced reasons: ").append(totalNumReducedReasons).append("\n");
@@ -259,6 +573,8 @@ public class RefinementSolver {
                     .append("   -- Average model size (#events): ").append(totalModelSize / statList.size()).append("\n")
                     .append("   -- Max model size (#events): ").append(maxModelSize).append("\n");
         }
+        // Native solving and CAAT checks of the bound check (part of the above times)
+        message.append("Bound check time(ms): ").append(boundCheckTime).append("\n");
 
         return message;
     }
@@ -12,6 +12,7 @@ import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.IntegerFormulaManager;
 import org.sosy_lab.java_smt.api.SolverContext;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.math.BigInteger;
@@ -114,9 +115,14 @@ public class WitnessGraph extends ElemWithAttributes {
 		return enc;
 	}
 	
+	// The file the witness gets written to
+	public File getFile() {
+		return new File(String.format("%s/output/%s.graphml",
+				System.getenv("DAT3M_HOME"), Files.getNameWithoutExtension(getProgram())));
+	}
+
 	public void write() {
-		try (FileWriter fw = new FileWriter(String.format("%s/output/%s.graphml", 
-				System.getenv("DAT3M_HOME"), Files.getNameWithoutExtension(getProgram())))) {
+		try (FileWriter fw = new FileWriter(getFile())) {
 			fw.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
 			fw.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">\n");
 			for(GraphAttributes attr : GraphAttributes.values()) {fw.write("<key attr.name=\"" + attr.toString() + "\" attr.type=\"string\" for=\"graph\" id=\"" + attr + "\"/>\n");}
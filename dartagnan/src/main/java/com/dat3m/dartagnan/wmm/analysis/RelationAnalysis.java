@@ -1,19 +1,51 @@
 package com.dat3m.dartagnan.wmm.analysis;
 
+import com.dat3m.dartagnan.program.Program;
+import com.dat3m.dartagnan.program.Thread;
 import com.dat3m.dartagnan.program.analysis.AliasAnalysis;
 import com.dat3m.dartagnan.program.analysis.BranchEquivalence;
+import com.dat3m.dartagnan.solver.caat.misc.ForkJoinHelper;
+import com.dat3m.dartagnan.utils.dependable.DependencyGraph;
 import com.dat3m.dartagnan.verification.Context;
 import com.dat3m.dartagnan.verification.VerificationTask;
 import com.dat3m.dartagnan.wmm.Wmm;
 import com.dat3m.dartagnan.wmm.axiom.Axiom;
 import com.dat3m.dartagnan.wmm.relation.Relation;
 import com.dat3m.dartagnan.wmm.utils.RecursiveGroup;
+import com.google.common.base.Preconditions;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static com.dat3m.dartagnan.configuration.OptionNames.RELATION_ANALYSIS_PARALLELISM;
+
+@Options
 public class RelationAnalysis {
 
-    private RelationAnalysis(VerificationTask task, Context context, Configuration config) {
+    private static final Logger logger = LogManager.getLogger(RelationAnalysis.class);
+
+    // =========================== Configurables ===========================
+
+    @Option(name = RELATION_ANALYSIS_PARALLELISM,
+            description = "Number of threads used to compute the may and must sets of independent relations.",
+            secure = true)
+    @IntegerOption(min = 1)
+    private int parallelism = 1;
+
+    // =====================================================================
+
+    private RelationAnalysis(VerificationTask task, Context context, Configuration config) throws InvalidConfigurationException {
+        config.inject(this);
+        logger.info("{}: {}", RELATION_ANALYSIS_PARALLELISM, parallelism);
         context.requires(AliasAnalysis.class);
         context.requires(BranchEquivalence.class);
         context.requires(WmmAnalysis.class);
@@ -46,20 +78,124 @@ public class RelationAnalysis {
         }
 
         // ------------------------------------------------
-        for(String relName : Wmm.BASE_RELATIONS){
-            Relation baseRel = memoryModel.getRelationRepository().getRelation(relName);
-            baseRel.getMaxTupleSet();
-            baseRel.getMinTupleSet();
+        List<List<Set<DependencyGraph<Relation>.Node>>> levels = computeLevels(memoryModel);
+        if (parallelism > 1) {
+            // The caches get created lazily, so we create them before they get accessed concurrently
+            Program program = task.getProgram();
+            program.getCache();
+            program.getThreads().forEach(Thread::getCache);
+            ForkJoinPool pool = ForkJoinHelper.newPool(parallelism);
+            try {
+                pool.invoke(ForkJoinTask.adapt(() -> analyse(memoryModel, levels)));
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            analyse(memoryModel, levels);
         }
-        for (RecursiveGroup recursiveGroup : memoryModel.getRecursiveGroups()) {
-            recursiveGroup.initMaxTupleSets();
-            recursiveGroup.initMinTupleSets();
+    }
+
+    /*
+        Groups the SCCs of the relation dependency graph into levels:
+        each SCC is one level above the highest level of its dependencies.
+        Thus, the SCCs of a level only depend on SCCs of lower levels and can be analysed independently.
+        Only relations needed by the base relations and the axioms are considered.
+     */
+    private List<List<Set<DependencyGraph<Relation>.Node>>> computeLevels(Wmm memoryModel) {
+        DependencyGraph<Relation> depGraph = memoryModel.getRelationDependencyGraph();
+        Set<DependencyGraph<Relation>.Node> needed = new HashSet<>();
+        Deque<DependencyGraph<Relation>.Node> stack = new ArrayDeque<>();
+        for (String relName : Wmm.BASE_RELATIONS) {
+            stack.push(depGraph.get(memoryModel.getRelationRepository().getRelation(relName)));
         }
         for (Axiom ax : memoryModel.getAxioms()) {
-            ax.getRelation().getMaxTupleSet();
-            ax.getRelation().getMinTupleSet();
+            stack.push(depGraph.get(ax.getRelation()));
+        }
+        while (!stack.isEmpty()) {
+            DependencyGraph<Relation>.Node node = stack.pop();
+            if (needed.add(node)) {
+                node.getDependencies().forEach(stack::push);
+            }
         }
 
+        // The SCCs are ordered such that dependencies come first
+        Map<Set<DependencyGraph<Relation>.Node>, Integer> levelMap = new HashMap<>();
+        List<List<Set<DependencyGraph<Relation>.Node>>> levels = new ArrayList<>();
+        for (Set<DependencyGraph<Relation>.Node> scc : depGraph.getSCCs()) {
+            if (!needed.contains(scc.iterator().next())) {
+                continue;
+            }
+            int level = 0;
+            for (DependencyGraph<Relation>.Node node : scc) {
+                for (DependencyGraph<Relation>.Node dep : node.getDependencies()) {
+                    if (dep.getSCC() != scc) {
+                        level = Math.max(level, levelMap.get(dep.getSCC()) + 1);
+                    }
+                }
+            }
+            levelMap.put(scc, level);
+            if (level == levels.size()) {
+                levels.add(new ArrayList<>());
+            }
+            levels.get(level).add(scc);
+        }
+        return levels;
+    }
 
+    private void analyse(Wmm memoryModel, List<List<Set<DependencyGraph<Relation>.Node>>> levels) {
+        Map<Integer, RecursiveGroup> groupsById = new HashMap<>();
+        for (RecursiveGroup recursiveGroup : memoryModel.getRecursiveGroups()) {
+            groupsById.put(recursiveGroup.getId(), recursiveGroup);
+        }
+        Map<Relation, RecursiveGroup> groups = new HashMap<>();
+        for (List<Set<DependencyGraph<Relation>.Node>> level : levels) {
+            for (Set<DependencyGraph<Relation>.Node> scc : level) {
+                for (DependencyGraph<Relation>.Node node : scc) {
+                    Relation rel = node.getContent();
+                    if (rel.isRecursiveRelation()) {
+                        groups.put(rel, groupsById.get(rel.getRecursiveGroupId()));
+                    }
+                }
+            }
+        }
+
+        Set<Relation> analysed = ConcurrentHashMap.newKeySet();
+        for (List<Set<DependencyGraph<Relation>.Node>> level : levels) {
+            ForkJoinHelper.map(level, scc -> {
+                analyse(scc, groups, analysed);
+                return null;
+            });
+        }
+    }
+
+    /*
+        Computes the may and must sets of the relations of <scc>, whose dependencies are already computed.
+        Recursive groups (which form the cyclic SCCs) get computed as a whole.
+        The relations compute their sets lazily and without synchronization (see Relation.getMaxTupleSet).
+        This is safe, since the relations of <scc> only access their own sets and those of their dependencies,
+        and all dependencies outside of <scc> belong to lower levels, which are completed before.
+     */
+    private void analyse(Set<DependencyGraph<Relation>.Node> scc, Map<Relation, RecursiveGroup> groups,
+                         Set<Relation> analysed) {
+        Set<RecursiveGroup> sccGroups = new LinkedHashSet<>();
+        for (DependencyGraph<Relation>.Node node : scc) {
+            for (DependencyGraph<Relation>.Node dep : node.getDependencies()) {
+                Preconditions.checkState(dep.getSCC() == scc || analysed.contains(dep.getContent()),
+                        "%s is analysed before its dependency %s.", node.getContent(), dep.getContent());
+            }
+            RecursiveGroup recursiveGroup = groups.get(node.getContent());
+            if (recursiveGroup != null) {
+                sccGroups.add(recursiveGroup);
+            }
+        }
+        for (RecursiveGroup recursiveGroup : sccGroups) {
+            recursiveGroup.initMaxTupleSets();
+            recursiveGroup.initMinTupleSets();
+        }
+        for (DependencyGraph<Relation>.Node node : scc) {
+            node.getContent().getMaxTupleSet();
+            node.getContent().getMinTupleSet();
+            analysed.add(node.getContent());
+        }
     }
 }
@@ -17,6 +17,8 @@ public class RecursiveRelation extends Relation {
 
     private Relation r1;
     private boolean doRecurse = false;
+    // Tuples that were added to the encode set but not yet passed on to r1
+    private TupleSet encodeTupleSetDelta;
 
     public Relation getInner() {
         return r1;
@@ -41,6 +43,7 @@ public class RecursiveRelation extends Relation {
         if(doRecurse){
             doRecurse = false;
             super.initializeEncoding(ctx);
+            encodeTupleSetDelta = new TupleSet();
             r1.initializeEncoding(ctx);
         }
     }
@@ -102,16 +105,48 @@ public class RecursiveRelation extends Relation {
         return getMaxTupleSet();
     }
 
+    // Once evaluated recursively, the sets are the ones of r1 and so are the rounds in which they grew
+    @Override
+    protected TupleSet getEvaluatedMinTupleSetDelta(int round){
+        return minTupleSet != null && minTupleSet == r1.minTupleSet ?
+                r1.getEvaluatedMinTupleSetDelta(round) : super.getEvaluatedMinTupleSetDelta(round);
+    }
+
+    @Override
+    protected TupleSet getEvaluatedMaxTupleSetDelta(int round){
+        return maxTupleSet != null && maxTupleSet == r1.maxTupleSet ?
+                r1.getEvaluatedMaxTupleSetDelta(round) : super.getEvaluatedMaxTupleSetDelta(round);
+    }
+
+    @Override
+    public int getMinTupleSetRound(){
+        return minTupleSet != null && minTupleSet == r1.minTupleSet ? r1.getMinTupleSetRound() : super.getMinTupleSetRound();
+    }
+
+    @Override
+    public int getMaxTupleSetRound(){
+        return maxTupleSet != null && maxTupleSet == r1.maxTupleSet ? r1.getMaxTupleSetRound() : super.getMaxTupleSetRound();
+    }
+
+    public TupleSet getEncodeTupleSetDelta(){
+        return encodeTupleSetDelta;
+    }
+
     @Override
     public void addEncodeTupleSet(TupleSet tuples){
-        if(encodeTupleSet != tuples){
-            encodeTupleSet.addAll(tuples);
+        if(encodeTupleSetDelta != tuples){
+            TupleSet newTuples = tuples.difference(encodeTupleSet);
+            encodeTupleSet.addAll(newTuples);
+            encodeTupleSetDelta.addAll(newTuples);
             //TODO: This encodeTupleSet is never used except to stop this recursion
             // Can it get larger than r1's encodeTupleSet???
         }
         if(doRecurse){
             doRecurse = false;
-            r1.addEncodeTupleSet(encodeTupleSet);
+            // Only the new tuples are passed on, r1 already knows about the others
+            TupleSet delta = encodeTupleSetDelta;
+            encodeTupleSetDelta = new TupleSet();
+            r1.addEncodeTupleSet(delta);
         }
     }
 
@@ -139,4 +174,10 @@ public class RecursiveRelation extends Relation {
         return r1.encodeApprox(ctx);
     }
 
+    // The tuples are encoded by r1
+    @Override
+    protected BooleanFormula encodeTuples(SolverContext ctx) {
+        return ctx.getFormulaManager().getBooleanFormulaManager().makeTrue();
+    }
+
 }
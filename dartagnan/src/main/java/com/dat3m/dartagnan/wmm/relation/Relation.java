@@ -9,6 +9,7 @@ import com.dat3m.dartagnan.verification.VerificationTask;
 import com.dat3m.dartagnan.wmm.relation.base.stat.StaticRelation;
 import com.dat3m.dartagnan.wmm.relation.binary.BinaryRelation;
 import com.dat3m.dartagnan.wmm.relation.unary.UnaryRelation;
+import com.dat3m.dartagnan.wmm.utils.SMTVariableTable;
 import com.dat3m.dartagnan.wmm.utils.Tuple;
 import com.dat3m.dartagnan.wmm.utils.TupleSet;
 import com.google.common.base.Preconditions;
@@ -16,6 +17,7 @@ import com.google.common.collect.Sets;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.SolverContext;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -43,6 +45,11 @@ public abstract class Relation implements Encoder, Dependent<Relation> {
     protected TupleSet minTupleSet = null;
     protected TupleSet maxTupleSet = null;
     protected TupleSet encodeTupleSet = null;
+    // The encode set at the time the encoding got extended last (see encodeAddedTuples)
+    private TupleSet savedEncodeTupleSet = null;
+    // The tuples gained in each round of the analysis of a recursive group (see getMaxTupleSetDelta)
+    private final List<TupleSet> minTupleSetRounds = new ArrayList<>();
+    private final List<TupleSet> maxTupleSetRounds = new ArrayList<>();
 
     protected int recursiveGroupId = 0;
     protected boolean forceUpdateRecursiveGroupId = false;
@@ -84,6 +91,7 @@ public abstract class Relation implements Encoder, Dependent<Relation> {
     			String.format("No available relation data to encode %s. Perform RelationAnalysis before encoding.", this));
         this.isEncoded = false;
         this.encodeTupleSet = new TupleSet();
+        this.savedEncodeTupleSet = null;
     }
 
     // TODO: We misuse <task> as data object and analysis information object.
@@ -93,8 +101,12 @@ public abstract class Relation implements Encoder, Dependent<Relation> {
         this.analysisContext = context;
         this.maxTupleSet = null;
         this.minTupleSet = null;
+        this.minTupleSetRounds.clear();
+        this.maxTupleSetRounds.clear();
     }
 
+    // The sets get computed lazily on the first call. This is not synchronized:
+    // RelationAnalysis makes sure that each relation gets computed by a single task.
     public abstract TupleSet getMinTupleSet();
 
     public abstract TupleSet getMaxTupleSet();
@@ -107,6 +119,69 @@ public abstract class Relation implements Encoder, Dependent<Relation> {
         return getMaxTupleSet();
     }
 
+    // Semi-naive evaluation of recursive groups: instead of recomputing their sets from the full sets
+    // of their dependencies in each round, relations only join the tuples their dependencies gained.
+    // A consumer remembers the last round it has processed (see getMaxTupleSetRound) and asks for the tuples
+    // gained since then. Round 0 stands for nothing processed yet, so it gets the full set, and round 1 for
+    // the tuples the relation had before the first round (all of them for relations outside the group).
+    public TupleSet getMinTupleSetDelta(int round){
+        getMinTupleSetRecursive();
+        return getEvaluatedMinTupleSetDelta(round);
+    }
+
+    public TupleSet getMaxTupleSetDelta(int round){
+        getMaxTupleSetRecursive();
+        return getEvaluatedMaxTupleSetDelta(round);
+    }
+
+    // Like getMinTupleSetDelta, but without evaluating the relation first
+    protected TupleSet getEvaluatedMinTupleSetDelta(int round){
+        return getDelta(getMinTupleSet(), minTupleSetRounds, round);
+    }
+
+    protected TupleSet getEvaluatedMaxTupleSetDelta(int round){
+        return getDelta(getMaxTupleSet(), maxTupleSetRounds, round);
+    }
+
+    public int getMinTupleSetRound(){
+        return minTupleSetRounds.size() + 1;
+    }
+
+    public int getMaxTupleSetRound(){
+        return maxTupleSetRounds.size() + 1;
+    }
+
+    // Adds the tuples a relation of a recursive group gained in a round
+    protected void addMinTupleSetRound(TupleSet tuples){
+        addRound(minTupleSet, minTupleSetRounds, tuples);
+    }
+
+    protected void addMaxTupleSetRound(TupleSet tuples){
+        addRound(maxTupleSet, maxTupleSetRounds, tuples);
+    }
+
+    private static TupleSet getDelta(TupleSet set, List<TupleSet> rounds, int round){
+        if(round == 0){
+            return set;
+        }
+        if(round == rounds.size()){
+            return rounds.get(round - 1);
+        }
+        TupleSet delta = new TupleSet();
+        for(TupleSet tuples : rounds.subList(round - 1, rounds.size())){
+            delta.addAll(tuples);
+        }
+        return delta;
+    }
+
+    private static void addRound(TupleSet set, List<TupleSet> rounds, TupleSet tuples){
+        TupleSet delta = tuples.difference(set);
+        if(!delta.isEmpty()){
+            set.addAll(delta);
+            rounds.add(delta);
+        }
+    }
+
     public TupleSet getEncodeTupleSet(){
         return encodeTupleSet;
     }
@@ -166,6 +241,35 @@ public abstract class Relation implements Encoder, Dependent<Relation> {
 
     protected abstract BooleanFormula encodeApprox(SolverContext ctx);
 
+    // An encoding can be extended by further axioms (see WmmEncoder.encodeAdditionalAxioms).
+    // Encoded relations save their encode sets before these axioms add tuples to them,
+    // and then only encode the added tuples.
+    public void saveEncodeTupleSets(){
+        savedEncodeTupleSet = isEncoded ? new TupleSet(encodeTupleSet) : null;
+    }
+
+    // Relations that are not encoded yet return true, they get encoded as a whole by encode
+    public BooleanFormula encodeAddedTuples(SolverContext ctx){
+        BooleanFormula enc = ctx.getFormulaManager().getBooleanFormulaManager().makeTrue();
+        if(savedEncodeTupleSet == null){
+            return enc;
+        }
+        TupleSet temp = encodeTupleSet;
+        encodeTupleSet = encodeTupleSet.difference(savedEncodeTupleSet);
+        if(!encodeTupleSet.isEmpty()){
+            enc = encodeTuples(ctx);
+        }
+        encodeTupleSet = temp;
+        savedEncodeTupleSet = null;
+        return enc;
+    }
+
+    // Encodes the tuples of <encodeTupleSet>. Relations whose encoding also has parts that do not depend
+    // on their encode set (e.g. because they are always encoded as a whole) must leave these parts out.
+    protected BooleanFormula encodeTuples(SolverContext ctx){
+        return encodeApprox(ctx);
+    }
+
     protected BooleanFormula doEncode(SolverContext ctx){
         if(!encodeTupleSet.isEmpty() || forceDoEncode){
         	return encodeApprox(ctx);
@@ -183,6 +287,17 @@ public abstract class Relation implements Encoder, Dependent<Relation> {
         return getSMTVar(new Tuple(e1, e2), ctx);
     }
 
+    // Creates the variables of all <edges> at once.
+    // Goes through getSMTVar, so relations that define their edges differently (e.g. co, dependencies) are respected.
+    public List<BooleanFormula> getSMTVars(List<Tuple> edges, SolverContext ctx) {
+        SMTVariableTable.get(ctx).getRelationVariables(getName()).reserve(edges.size());
+        List<BooleanFormula> result = new ArrayList<>(edges.size());
+        for (Tuple edge : edges) {
+            result.add(getSMTVar(edge, ctx));
+        }
+        return result;
+    }
+
     protected BooleanFormula getExecPair(Event e1, Event e2, SolverContext ctx) {
         ExecutionAnalysis exec = analysisContext.requires(ExecutionAnalysis.class);
         return execution(e1, e2, exec, ctx);
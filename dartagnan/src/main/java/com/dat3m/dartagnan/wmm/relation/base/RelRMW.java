@@ -132,16 +132,19 @@ public class RelRMW extends StaticRelation {
         return maxTupleSet;
     }
 
+    // The exclusive pairs are encoded as a whole as soon as the relation is encoded
+    @Override
+    protected BooleanFormula encodeTuples(SolverContext ctx) {
+        return encodeBase(ctx);
+    }
+
     @Override
     protected BooleanFormula encodeApprox(SolverContext ctx) {
         FormulaManager fmgr = ctx.getFormulaManager();
 		BooleanFormulaManager bmgr = fmgr.getBooleanFormulaManager();
         
         // Encode base (not exclusive pairs) RMW
-        TupleSet origEncodeTupleSet = encodeTupleSet;
-        encodeTupleSet = new TupleSet(Sets.intersection(encodeTupleSet, baseMaxTupleSet));
-        BooleanFormula enc = super.encodeApprox(ctx);
-        encodeTupleSet = origEncodeTupleSet;
+        BooleanFormula enc = encodeBase(ctx);
 
         // Encode RMW for exclusive pairs
 		BooleanFormula unpredictable = bmgr.makeFalse();
@@ -195,4 +198,12 @@ public class RelRMW extends StaticRelation {
     private BooleanFormula exclPair(Event load, Event store, SolverContext ctx){
     	return ctx.getFormulaManager().makeVariable(BooleanType, "excl(" + load.getCId() + "," + store.getCId() + ")");
     }
-}
\ No newline at end of file
+
+    private BooleanFormula encodeBase(SolverContext ctx) {
+        TupleSet origEncodeTupleSet = encodeTupleSet;
+        encodeTupleSet = new TupleSet(Sets.intersection(encodeTupleSet, baseMaxTupleSet));
+        BooleanFormula enc = super.encodeApprox(ctx);
+        encodeTupleSet = origEncodeTupleSet;
+        return enc;
+    }
+}
@@ -59,6 +59,12 @@ abstract class BasicRegRelation extends StaticRelation {
         				ctx.getFormulaManager().getBooleanFormulaManager().makeFalse();
     }
 
+    // Encoded as a whole as soon as the relation is encoded
+    @Override
+    protected BooleanFormula encodeTuples(SolverContext ctx) {
+        return ctx.getFormulaManager().getBooleanFormulaManager().makeTrue();
+    }
+
     @Override
     protected BooleanFormula encodeApprox(SolverContext ctx) {
         return ctx.getFormulaManager().getBooleanFormulaManager().makeTrue();
@@ -2,6 +2,7 @@ package com.dat3m.dartagnan.wmm.relation.base.memory;
 
 import com.dat3m.dartagnan.expression.IExpr;
 import com.dat3m.dartagnan.program.analysis.AliasAnalysis;
+import com.dat3m.dartagnan.program.analysis.LocationIndex;
 import com.dat3m.dartagnan.program.event.core.Event;
 import com.dat3m.dartagnan.program.event.core.Init;
 import com.dat3m.dartagnan.program.event.core.MemEvent;
@@ -102,17 +103,17 @@ public class RelCo extends Relation {
                     FilterBasic.get(INIT)
             ));
 
+            LocationIndex storeIndex = new LocationIndex(alias, eventsStore);
+
             for(Event e1 : eventsInit){
-                for(Event e2 : eventsStore){
-                    if(alias.mayAlias((MemEvent) e1, (MemEvent)e2)){
-                        maxTupleSet.add(new Tuple(e1, e2));
-                    }
+                for(Event e2 : storeIndex.getMayAlias((MemEvent) e1)){
+                    maxTupleSet.add(new Tuple(e1, e2));
                 }
             }
 
             for(Event e1 : eventsStore){
-                for(Event e2 : eventsStore){
-                    if(e1.getCId() != e2.getCId() && alias.mayAlias((MemEvent) e1, (MemEvent)e2)){
+                for(Event e2 : storeIndex.getMayAlias((MemEvent) e1)){
+                    if(e1.getCId() != e2.getCId()){
                         maxTupleSet.add(new Tuple(e1, e2));
                     }
                 }
@@ -133,6 +134,12 @@ public class RelCo extends Relation {
         maxTupleSet.removeIf(t -> t.getSecond().is(INIT) || t.isBackward());
     }
 
+    // Encoded as a whole as soon as the relation is encoded
+    @Override
+    protected BooleanFormula encodeTuples(SolverContext ctx) {
+        return ctx.getFormulaManager().getBooleanFormulaManager().makeTrue();
+    }
+
     @Override
     protected BooleanFormula encodeApprox(SolverContext ctx) {
         AliasAnalysis alias = analysisContext.get(AliasAnalysis.class);
@@ -2,6 +2,7 @@ package com.dat3m.dartagnan.wmm.relation.base.memory;
 
 import com.dat3m.dartagnan.expression.utils.Utils;
 import com.dat3m.dartagnan.program.analysis.AliasAnalysis;
+import com.dat3m.dartagnan.program.analysis.LocationIndex;
 import com.dat3m.dartagnan.program.event.core.Event;
 import com.dat3m.dartagnan.program.event.core.MemEvent;
 import com.dat3m.dartagnan.program.filter.FilterBasic;
@@ -13,7 +14,7 @@ import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.FormulaManager;
 import org.sosy_lab.java_smt.api.SolverContext;
 
-import java.util.Collection;
+import java.util.List;
 
 import static com.dat3m.dartagnan.program.event.Tag.MEMORY;
 import static com.dat3m.dartagnan.wmm.relation.RelationNameRepository.LOC;
@@ -43,12 +44,11 @@ public class RelLoc extends Relation {
         if(maxTupleSet == null){
             AliasAnalysis alias = analysisContext.get(AliasAnalysis.class);
             maxTupleSet = new TupleSet();
-            Collection<Event> events = task.getProgram().getCache().getEvents(FilterBasic.get(MEMORY));
+            List<Event> events = task.getProgram().getCache().getEvents(FilterBasic.get(MEMORY));
+            LocationIndex index = new LocationIndex(alias, events);
             for(Event e1 : events){
-                for(Event e2 : events){
-                    if(alias.mayAlias((MemEvent) e1, (MemEvent)e2)){
-                        maxTupleSet.add(new Tuple(e1, e2));
-                    }
+                for(Event e2 : index.getMayAlias((MemEvent) e1)){
+                    maxTupleSet.add(new Tuple(e1, e2));
                 }
             }
             removeMutuallyExclusiveTuples(maxTupleSet);
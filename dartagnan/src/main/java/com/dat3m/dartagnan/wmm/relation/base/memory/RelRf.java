@@ -2,6 +2,7 @@ package com.dat3m.dartagnan.wmm.relation.base.memory;
 
 import com.dat3m.dartagnan.program.analysis.AliasAnalysis;
 import com.dat3m.dartagnan.program.analysis.ExecutionAnalysis;
+import com.dat3m.dartagnan.program.analysis.LocationIndex;
 import com.dat3m.dartagnan.program.event.core.Event;
 import com.dat3m.dartagnan.program.event.core.Load;
 import com.dat3m.dartagnan.program.event.core.MemEvent;
@@ -54,11 +55,11 @@ public class RelRf extends Relation {
             List<Event> loadEvents = task.getProgram().getCache().getEvents(FilterBasic.get(READ));
             List<Event> storeEvents = task.getProgram().getCache().getEvents(FilterBasic.get(WRITE));
 
+            LocationIndex loadIndex = new LocationIndex(alias, loadEvents);
+
             for(Event e1 : storeEvents){
-                for(Event e2 : loadEvents){
-                    if(alias.mayAlias((MemEvent) e1, (MemEvent) e2)){
-                    	maxTupleSet.add(new Tuple(e1, e2));
-                    }
+                for(Event e2 : loadIndex.getMayAlias((MemEvent) e1)){
+                    maxTupleSet.add(new Tuple(e1, e2));
                 }
             }
             removeMutuallyExclusiveTuples(maxTupleSet);
@@ -164,6 +165,12 @@ public class RelRf extends Relation {
         logger.info("Atomic block optimization eliminated "  + (sizeBefore - maxTupleSet.size()) + " reads");
     }
 
+    // Encoded as a whole as soon as the relation is encoded
+    @Override
+    protected BooleanFormula encodeTuples(SolverContext ctx) {
+        return ctx.getFormulaManager().getBooleanFormulaManager().makeTrue();
+    }
+
     @Override
     protected BooleanFormula encodeApprox(SolverContext ctx) {
     	FormulaManager fmgr = ctx.getFormulaManager();
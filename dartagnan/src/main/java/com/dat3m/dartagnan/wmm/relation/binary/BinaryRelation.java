@@ -1,5 +1,7 @@
 package com.dat3m.dartagnan.wmm.relation.binary;
 
+import com.dat3m.dartagnan.verification.Context;
+import com.dat3m.dartagnan.verification.VerificationTask;
 import com.dat3m.dartagnan.wmm.relation.Relation;
 import com.dat3m.dartagnan.wmm.utils.TupleSet;
 import com.google.common.collect.Sets;
@@ -19,6 +21,13 @@ public abstract class BinaryRelation extends Relation {
     protected Relation r1;
     protected Relation r2;
 
+    // The last rounds of the dependencies that were processed during the analysis of a recursive group
+    // (see Relation.getMaxTupleSetDelta)
+    protected int r1MinRound;
+    protected int r2MinRound;
+    protected int r1MaxRound;
+    protected int r2MaxRound;
+
     BinaryRelation(Relation r1, Relation r2) {
         this.r1 = r1;
         this.r2 = r2;
@@ -43,6 +52,15 @@ public abstract class BinaryRelation extends Relation {
         return Arrays.asList(r1 ,r2);
     }
 
+    @Override
+    public void initializeRelationAnalysis(VerificationTask task, Context context) {
+        super.initializeRelationAnalysis(task, context);
+        r1MinRound = 0;
+        r2MinRound = 0;
+        r1MaxRound = 0;
+        r2MaxRound = 0;
+    }
+
     @Override
     public int updateRecursiveGroupId(int parentId){
         if(recursiveGroupId == 0 || forceUpdateRecursiveGroupId){
@@ -12,6 +12,7 @@ import org.sosy_lab.java_smt.api.SolverContext;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.BiPredicate;
 
 /**
  *
@@ -58,10 +59,18 @@ public class RelComposition extends BinaryRelation {
     public TupleSet getMinTupleSetRecursive(){
         if(recursiveGroupId > 0 && maxTupleSet != null){
             ExecutionAnalysis exec = analysisContext.get(ExecutionAnalysis.class);
-            minTupleSet = r1.getMinTupleSetRecursive().postComposition(r2.getMinTupleSetRecursive(),
-                    (t1, t2) -> exec.isImplied(t1.getFirst(), t1.getSecond())
-                            || exec.isImplied(t2.getSecond(), t1.getSecond()));
-            removeMutuallyExclusiveTuples(minTupleSet);
+            BiPredicate<Tuple, Tuple> implied = (t1, t2) -> exec.isImplied(t1.getFirst(), t1.getSecond())
+                    || exec.isImplied(t2.getSecond(), t1.getSecond());
+            // A composed tuple can only be new if it is composed from a new tuple of r1 or of r2
+            TupleSet delta = r1.getMinTupleSetDelta(r1MinRound).postComposition(r2.getMinTupleSet(), implied);
+            r1MinRound = r1.getMinTupleSetRound();
+            delta.addAll(r1.getMinTupleSet().postComposition(r2.getMinTupleSetDelta(r2MinRound), implied));
+            r2MinRound = r2.getMinTupleSetRound();
+            removeMutuallyExclusiveTuples(delta);
+            if(minTupleSet == null){
+                minTupleSet = new TupleSet();
+            }
+            addMinTupleSetRound(delta);
             return minTupleSet;
         }
         return getMinTupleSet();
@@ -71,8 +80,12 @@ public class RelComposition extends BinaryRelation {
     public TupleSet getMaxTupleSetRecursive(){
         if(recursiveGroupId > 0 && maxTupleSet != null){
             ExecutionAnalysis exec = analysisContext.get(ExecutionAnalysis.class);
-            maxTupleSet = r1.getMaxTupleSetRecursive().postComposition(r2.getMaxTupleSetRecursive(),
-                    (t1, t2) -> !exec.areMutuallyExclusive(t1.getFirst(), t2.getSecond()));
+            BiPredicate<Tuple, Tuple> compatible = (t1, t2) -> !exec.areMutuallyExclusive(t1.getFirst(), t2.getSecond());
+            TupleSet delta = r1.getMaxTupleSetDelta(r1MaxRound).postComposition(r2.getMaxTupleSet(), compatible);
+            r1MaxRound = r1.getMaxTupleSetRound();
+            delta.addAll(r1.getMaxTupleSet().postComposition(r2.getMaxTupleSetDelta(r2MaxRound), compatible));
+            r2MaxRound = r2.getMaxTupleSetRound();
+            addMaxTupleSetRound(delta);
             return maxTupleSet;
         }
         return getMaxTupleSet();
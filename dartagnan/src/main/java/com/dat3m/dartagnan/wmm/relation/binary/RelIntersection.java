@@ -1,6 +1,5 @@
 package com.dat3m.dartagnan.wmm.relation.binary;
 
-import com.google.common.collect.Sets;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.SolverContext;
@@ -32,7 +31,7 @@ public class RelIntersection extends BinaryRelation {
     @Override
     public TupleSet getMinTupleSet(){
         if(minTupleSet == null){
-            minTupleSet = new TupleSet(Sets.intersection(r1.getMinTupleSet(), r2.getMinTupleSet()));
+            minTupleSet = r1.getMinTupleSet().intersection(r2.getMinTupleSet());
         }
         return minTupleSet;
     }
@@ -40,7 +39,7 @@ public class RelIntersection extends BinaryRelation {
     @Override
     public TupleSet getMaxTupleSet(){
         if(maxTupleSet == null){
-            maxTupleSet = new TupleSet(Sets.intersection(r1.getMaxTupleSet(), r2.getMaxTupleSet()));
+            maxTupleSet = r1.getMaxTupleSet().intersection(r2.getMaxTupleSet());
         }
         return maxTupleSet;
     }
@@ -48,7 +47,11 @@ public class RelIntersection extends BinaryRelation {
     @Override
     public TupleSet getMinTupleSetRecursive(){
         if(recursiveGroupId > 0 && minTupleSet != null){
-            minTupleSet.addAll(Sets.intersection(r1.getMinTupleSetRecursive(), r2.getMinTupleSetRecursive()));
+            TupleSet delta = r1.getMinTupleSetDelta(r1MinRound).intersection(r2.getMinTupleSet());
+            r1MinRound = r1.getMinTupleSetRound();
+            delta.addAll(r2.getMinTupleSetDelta(r2MinRound).intersection(r1.getMinTupleSet()));
+            r2MinRound = r2.getMinTupleSetRound();
+            addMinTupleSetRound(delta);
             return minTupleSet;
         }
         return getMinTupleSet();
@@ -57,7 +60,11 @@ public class RelIntersection extends BinaryRelation {
     @Override
     public TupleSet getMaxTupleSetRecursive(){
         if(recursiveGroupId > 0 && maxTupleSet != null){
-            maxTupleSet.addAll(Sets.intersection(r1.getMaxTupleSetRecursive(), r2.getMaxTupleSetRecursive()));
+            TupleSet delta = r1.getMaxTupleSetDelta(r1MaxRound).intersection(r2.getMaxTupleSet());
+            r1MaxRound = r1.getMaxTupleSetRound();
+            delta.addAll(r2.getMaxTupleSetDelta(r2MaxRound).intersection(r1.getMaxTupleSet()));
+            r2MaxRound = r2.getMaxTupleSetRound();
+            addMaxTupleSetRound(delta);
             return maxTupleSet;
         }
         return getMaxTupleSet();
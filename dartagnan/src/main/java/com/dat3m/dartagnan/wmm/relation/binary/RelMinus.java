@@ -3,7 +3,6 @@ package com.dat3m.dartagnan.wmm.relation.binary;
 import com.dat3m.dartagnan.wmm.relation.Relation;
 import com.dat3m.dartagnan.wmm.utils.Tuple;
 import com.dat3m.dartagnan.wmm.utils.TupleSet;
-import com.google.common.collect.Sets;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.SolverContext;
@@ -39,7 +38,7 @@ public class RelMinus extends BinaryRelation {
     @Override
     public TupleSet getMinTupleSet(){
         if(minTupleSet == null){
-            minTupleSet = new TupleSet(Sets.difference(r1.getMinTupleSet(), r2.getMaxTupleSet()));
+            minTupleSet = r1.getMinTupleSet().difference(r2.getMaxTupleSet());
         }
         return minTupleSet;
     }
@@ -47,7 +46,7 @@ public class RelMinus extends BinaryRelation {
     @Override
     public TupleSet getMaxTupleSet(){
         if(maxTupleSet == null){
-            maxTupleSet = new TupleSet(Sets.difference(r1.getMaxTupleSet(), r2.getMinTupleSet()));
+            maxTupleSet = r1.getMaxTupleSet().difference(r2.getMinTupleSet());
             r2.getMaxTupleSet();
         }
         return maxTupleSet;
@@ -56,7 +55,10 @@ public class RelMinus extends BinaryRelation {
     @Override
     public TupleSet getMinTupleSetRecursive(){
         if(recursiveGroupId > 0 && minTupleSet != null){
-            minTupleSet.addAll(Sets.difference(r1.getMinTupleSetRecursive(), r2.getMaxTupleSetRecursive()));
+            // The must set only grows with the must set of r1, since the may set of r2 is already known
+            TupleSet delta = r1.getMinTupleSetDelta(r1MinRound).difference(r2.getMaxTupleSetRecursive());
+            r1MinRound = r1.getMinTupleSetRound();
+            addMinTupleSetRound(delta);
             return minTupleSet;
         }
         return getMinTupleSet();
@@ -65,7 +67,9 @@ public class RelMinus extends BinaryRelation {
     @Override
     public TupleSet getMaxTupleSetRecursive(){
         if(recursiveGroupId > 0 && maxTupleSet != null){
-            maxTupleSet.addAll(Sets.difference(r1.getMaxTupleSetRecursive(), r2.getMinTupleSetRecursive()));
+            TupleSet delta = r1.getMaxTupleSetDelta(r1MaxRound).difference(r2.getMinTupleSetRecursive());
+            r1MaxRound = r1.getMaxTupleSetRound();
+            addMaxTupleSetRound(delta);
             return maxTupleSet;
         }
         return getMaxTupleSet();
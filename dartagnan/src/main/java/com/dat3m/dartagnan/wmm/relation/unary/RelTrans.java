@@ -12,17 +12,15 @@ import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.SolverContext;
 
-import java.util.Map;
-import java.util.Set;
-
 /**
  *
  * @author Florian Furbach
  */
 public class RelTrans extends UnaryRelation {
 
-    Map<Event, Set<Event>> transitiveReachabilityMap;
+    TupleSet transitiveClosure;
     private TupleSet fullEncodeTupleSet;
+    private TupleSet savedFullEncodeTupleSet;
 
     public static String makeTerm(Relation r1){
         return r1.getName() + "^+";
@@ -41,8 +39,14 @@ public class RelTrans extends UnaryRelation {
     @Override
     public void initializeRelationAnalysis(VerificationTask task, Context context) {
         super.initializeRelationAnalysis(task, context);
+        transitiveClosure = null;
+    }
+
+    @Override
+    public void initializeEncoding(SolverContext ctx){
+        super.initializeEncoding(ctx);
         fullEncodeTupleSet = new TupleSet();
-        transitiveReachabilityMap = null;
+        savedFullEncodeTupleSet = null;
     }
 
     @Override
@@ -69,13 +73,8 @@ public class RelTrans extends UnaryRelation {
     @Override
     public TupleSet getMaxTupleSet(){
         if(maxTupleSet == null){
-            transitiveReachabilityMap = r1.getMaxTupleSet().transMap();
-            maxTupleSet = new TupleSet();
-            for(Event e1 : transitiveReachabilityMap.keySet()){
-                for(Event e2 : transitiveReachabilityMap.get(e1)){
-                    maxTupleSet.add(new Tuple(e1, e2));
-                }
-            }
+            transitiveClosure = r1.getMaxTupleSet().transitiveClosure();
+            maxTupleSet = new TupleSet(transitiveClosure);
             removeMutuallyExclusiveTuples(maxTupleSet);
         }
         return maxTupleSet;
@@ -93,6 +92,22 @@ public class RelTrans extends UnaryRelation {
         }
     }
 
+    @Override
+    public void saveEncodeTupleSets(){
+        super.saveEncodeTupleSets();
+        savedFullEncodeTupleSet = isEncoded ? new TupleSet(fullEncodeTupleSet) : null;
+    }
+
+    // The encoding iterates over the full encode set
+    @Override
+    protected BooleanFormula encodeTuples(SolverContext ctx) {
+        TupleSet temp = fullEncodeTupleSet;
+        fullEncodeTupleSet = fullEncodeTupleSet.difference(savedFullEncodeTupleSet);
+        BooleanFormula enc = super.encodeTuples(ctx);
+        fullEncodeTupleSet = temp;
+        return enc;
+    }
+
     @Override
     protected BooleanFormula encodeApprox(SolverContext ctx) {
     	BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
@@ -121,7 +136,7 @@ public class RelTrans extends UnaryRelation {
 
             for(Tuple t : r1Max.getByFirst(e1)){
                 Event e3 = t.getSecond();
-                if(e3.getCId() != e1.getCId() && e3.getCId() != e2.getCId() && transitiveReachabilityMap.get(e3).contains(e2)){
+                if(e3.getCId() != e1.getCId() && e3.getCId() != e2.getCId() && transitiveClosure.contains(new Tuple(e3, e2))){
                     BooleanFormula tVar = minSet.contains(t) ? this.getSMTVar(t, ctx) : r1.getSMTVar(t, ctx);
                     orClause = bmgr.or(orClause, bmgr.and(tVar, this.getSMTVar(e3, e2, ctx)));
                 }
@@ -151,7 +166,7 @@ public class RelTrans extends UnaryRelation {
                 for (Tuple t : r1.getMaxTupleSet().getByFirst(e1)) {
                     Event e3 = t.getSecond();
                     if (e3.getCId() != e1.getCId() && e3.getCId() != e2.getCId() &&
-                            transitiveReachabilityMap.get(e3).contains(e2)) {
+                            transitiveClosure.contains(new Tuple(e3, e2))) {
                         result.add(new Tuple(e1, e3));
                         processNext.add(new Tuple(e3, e2));
                     }
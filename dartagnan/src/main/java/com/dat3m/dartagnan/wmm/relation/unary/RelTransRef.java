@@ -3,8 +3,6 @@ package com.dat3m.dartagnan.wmm.relation.unary;
 import com.dat3m.dartagnan.program.event.Tag;
 import com.dat3m.dartagnan.program.event.core.Event;
 import com.dat3m.dartagnan.program.filter.FilterBasic;
-import com.dat3m.dartagnan.verification.Context;
-import com.dat3m.dartagnan.verification.VerificationTask;
 import com.dat3m.dartagnan.wmm.relation.Relation;
 import com.dat3m.dartagnan.wmm.utils.Tuple;
 import com.dat3m.dartagnan.wmm.utils.TupleSet;
@@ -13,8 +11,6 @@ import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.SolverContext;
 
-import java.util.Map;
-import java.util.Set;
 import java.util.function.Function;
 
 /**
@@ -25,6 +21,7 @@ public class RelTransRef extends RelTrans {
 
     private TupleSet identityEncodeTupleSet = new TupleSet();
     private TupleSet transEncodeTupleSet = new TupleSet();
+    private TupleSet savedIdentityEncodeTupleSet;
 
     public static String makeTerm(Relation r1){
         return r1.getName() + "^*";
@@ -41,10 +38,11 @@ public class RelTransRef extends RelTrans {
     }
 
     @Override
-    public void initializeRelationAnalysis(VerificationTask task, Context context) {
-        super.initializeRelationAnalysis(task, context);
+    public void initializeEncoding(SolverContext ctx){
+        super.initializeEncoding(ctx);
         identityEncodeTupleSet = new TupleSet();
         transEncodeTupleSet = new TupleSet();
+        savedIdentityEncodeTupleSet = null;
     }
 
     @Override
@@ -62,9 +60,7 @@ public class RelTransRef extends RelTrans {
     public TupleSet getMaxTupleSet(){
         if(maxTupleSet == null){
             super.getMaxTupleSet();
-            for (Map.Entry<Event, Set<Event>> entry : transitiveReachabilityMap.entrySet()) {
-                entry.getValue().remove(entry.getKey());
-            }
+            transitiveClosure.removeIf(Tuple::isLoop);
             for(Event e : task.getProgram().getCache().getEvents(FilterBasic.get(Tag.VISIBLE))){
                 maxTupleSet.add(new Tuple(e, e));
             }
@@ -93,6 +89,21 @@ public class RelTransRef extends RelTrans {
         encodeTupleSet = temp;
     }
 
+    @Override
+    public void saveEncodeTupleSets(){
+        super.saveEncodeTupleSets();
+        savedIdentityEncodeTupleSet = isEncoded ? new TupleSet(identityEncodeTupleSet) : null;
+    }
+
+    @Override
+    protected BooleanFormula encodeTuples(SolverContext ctx) {
+        TupleSet temp = identityEncodeTupleSet;
+        identityEncodeTupleSet = identityEncodeTupleSet.difference(savedIdentityEncodeTupleSet);
+        BooleanFormula enc = super.encodeTuples(ctx);
+        identityEncodeTupleSet = temp;
+        return enc;
+    }
+
     @Override
     protected BooleanFormula encodeApprox(SolverContext ctx) {
     	return invokeEncode(super::encodeApprox, ctx);
@@ -1,7 +1,6 @@
 package com.dat3m.dartagnan.wmm.utils;
 
 import com.dat3m.dartagnan.wmm.relation.RecursiveRelation;
-import com.dat3m.dartagnan.wmm.relation.Relation;
 
 import java.util.*;
 
@@ -29,6 +28,9 @@ public class RecursiveGroup {
         }
     }
 
+    // The relations of the group are evaluated semi-naively:
+    // each round only processes the tuples that were added in the previous rounds (see Relation.getMaxTupleSetDelta).
+    // Since the sets only grow, the fixpoint is reached once no set changes its size.
     public void initMaxTupleSets(){
         boolean changed = true;
 
@@ -59,21 +61,16 @@ public class RecursiveGroup {
         }
     }
 
+    // Passes on the tuples that were added to the encode sets of the recursive relations until there are none left
     public void updateEncodeTupleSets(){
-        Map<Relation, Integer> encodeSetSizes = new HashMap<>();
-        for(Relation relation : relations){
-            encodeSetSizes.put(relation, 0);
-        }
-
         boolean changed = true;
         while(changed){
             changed = false;
             for(RecursiveRelation relation : relations){
-                relation.setDoRecurse();
-                relation.addEncodeTupleSet(relation.getEncodeTupleSet());
-                int newSize = relation.getEncodeTupleSet().size();
-                if(newSize != encodeSetSizes.get(relation)){
-                    encodeSetSizes.put(relation, newSize);
+                TupleSet delta = relation.getEncodeTupleSetDelta();
+                if(!delta.isEmpty()){
+                    relation.setDoRecurse();
+                    relation.addEncodeTupleSet(delta);
                     changed = true;
                 }
             }
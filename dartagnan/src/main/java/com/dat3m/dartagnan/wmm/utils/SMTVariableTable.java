@@ -0,0 +1,112 @@
+package com.dat3m.dartagnan.wmm.utils;
+
+import com.dat3m.dartagnan.program.event.core.Event;
+import com.dat3m.dartagnan.utils.collections.LongObjectMap;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.sosy_lab.java_smt.api.FormulaType.BooleanType;
+import static org.sosy_lab.java_smt.api.FormulaType.IntegerType;
+
+/*
+    Interns the variables of relation edges and clocks (integer variables of events), one table per solver context.
+    Variables are looked up by (relation id, cId1, cId2) resp. (relation id, cId) in primitive-keyed tables,
+    so the name of a variable only gets built and passed to the solver the first time it is requested.
+    Like solver contexts, tables must not be used by several threads at once.
+    A table lives as long as its context unless it gets released earlier (see release).
+ */
+public final class SMTVariableTable {
+
+    // Weak keys compare contexts by identity and drop the table once its context is gone
+    private static final LoadingCache<SolverContext, SMTVariableTable> tables = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(CacheLoader.from(SMTVariableTable::new));
+
+    private final FormulaManager fmgr;
+    private final Map<String, RelationVariables> relations = new HashMap<>();
+
+    private SMTVariableTable(SolverContext ctx) {
+        fmgr = ctx.getFormulaManager();
+    }
+
+    public static SMTVariableTable get(SolverContext ctx) {
+        return tables.getUnchecked(ctx);
+    }
+
+    // Drops the table of <ctx>, e.g. once a job is done with a context that is kept alive for later jobs
+    public static void release(SolverContext ctx) {
+        tables.invalidate(ctx);
+    }
+
+    public BooleanFormula edge(String relName, Event e1, Event e2) {
+        return getRelationVariables(relName).edge(e1, e2);
+    }
+
+    public IntegerFormula clock(String relName, Event e) {
+        return getRelationVariables(relName).clock(e);
+    }
+
+    // Looks up the relation only once when creating many of its variables
+    public RelationVariables getRelationVariables(String relName) {
+        return relations.computeIfAbsent(relName, RelationVariables::new);
+    }
+
+    public final class RelationVariables {
+
+        private final String escapedName;
+        private final LongObjectMap<BooleanFormula> edges = new LongObjectMap<>();
+        private IntegerFormula[] clocks = new IntegerFormula[0];
+
+        private RelationVariables(String name) {
+            escapedName = fmgr.escape(name);
+        }
+
+        public BooleanFormula edge(Event e1, Event e2) {
+            if (e1.getCId() < 0 || e2.getCId() < 0) {
+                // Events of programs that are not compiled yet have no cId
+                return makeEdge(e1, e2);
+            }
+            return edges.computeIfAbsent(pack(e1.getCId(), e2.getCId()), key -> makeEdge(e1, e2));
+        }
+
+        public IntegerFormula clock(Event e) {
+            int cId = e.getCId();
+            if (cId < 0) {
+                return makeClock(e);
+            }
+            if (cId >= clocks.length) {
+                clocks = Arrays.copyOf(clocks, Math.max(cId + 1, 2 * clocks.length));
+            }
+            if (clocks[cId] == null) {
+                clocks[cId] = makeClock(e);
+            }
+            return clocks[cId];
+        }
+
+        // Makes room for <count> more edges, e.g. before creating the variables of a whole relation
+        public void reserve(int count) {
+            edges.ensureCapacity(edges.size() + count);
+        }
+
+        private BooleanFormula makeEdge(Event e1, Event e2) {
+            return fmgr.makeVariable(BooleanType, escapedName + "(" + e1.repr() + "," + e2.repr() + ")");
+        }
+
+        private IntegerFormula makeClock(Event e) {
+            return fmgr.makeVariable(IntegerType, escapedName + "(" + e.repr() + ")");
+        }
+    }
+
+    private static long pack(int cId1, int cId2) {
+        return ((long) cId1 << 32) | (cId2 & 0xFFFFFFFFL);
+    }
+}
@@ -2,194 +2,405 @@ package com.dat3m.dartagnan.wmm.utils;
 
 import com.dat3m.dartagnan.program.analysis.ExecutionAnalysis;
 import com.dat3m.dartagnan.program.event.core.Event;
+import com.dat3m.dartagnan.utils.collections.CompactIntSet;
 import com.dat3m.dartagnan.utils.dependable.DependencyGraph;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 
 import java.util.*;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
 
 
-//TODO: This class should probably be replaced
-// The utility functions are nice, but it is not extensible/interchangeable with custom
-// implementations
-// The solutions are as follows:
-// (1) Make TupleSet an interface and this class its default implementation (easy)
-// (2) Use Set<Tuple> instead, and move the utility of this class into a separate class
-//     Right now, the only value it has is the byFirst/bySecond functionality
-//     which could be computed on demand instead.
-//     Advantage over (1): We can reuse all code that generates arbitrary sets (e.g. the functionality provided by guava)
-public class TupleSet implements Set<Tuple>{
+// Relations over (compiled) events, stored as adjacency rows indexed by cId:
+// each event with outgoing tuples has a row holding the cIds of its successors (see CompactIntSet).
+// Tuple objects are only created when the set is accessed via the Set<Tuple> interface.
+// Bulk operations between TupleSets (set algebra, compositions, inverse, transitive closure)
+// work row-wise and should be preferred over iterating the tuples.
+public class TupleSet extends AbstractSet<Tuple> {
 
-    private final Set<Tuple> tuples;
-    private final Map<Event, Set<Tuple>> byFirst = new HashMap<>();
-    private final Map<Event, Set<Tuple>> bySecond = new HashMap<>();
-    private boolean isUpdated = false;
+    private static final CompactIntSet EMPTY_ROW = new CompactIntSet(); // Must not be modified
+
+    // Events occurring in this set indexed by their cId (may contain events whose tuples were removed)
+    private final List<Event> events = new ArrayList<>();
+    // Indexed by the cId of the first event: cIds of the second events (null or empty if there are none)
+    private final List<CompactIntSet> rows = new ArrayList<>();
+    // Indexed by the cId of the second event: cIds of the first events, computed on demand (also by concurrent readers)
+    private volatile List<CompactIntSet> columns;
+    private int size;
+    // Counts the modifications, so that iterators fail fast if the set gets changed while iterating
+    private int modCount;
 
     public TupleSet() {
-        tuples = new HashSet<>();
     }
 
     public TupleSet(Collection<? extends Tuple> c) {
-        tuples = new HashSet<>(c);
-        isUpdated = !tuples.isEmpty();
+        addAll(c);
     }
 
     @Override
     public boolean add(Tuple e){
-        boolean result = tuples.add(e);
-        isUpdated |= result;
-        return result;
+        Event first = e.getFirst();
+        Event second = e.getSecond();
+        Preconditions.checkArgument(first.getCId() >= 0 && second.getCId() >= 0,
+                "Tuple %s contains an event that is not compiled.", e);
+        addEvent(first);
+        addEvent(second);
+        if(getOrCreateRow(rows, first.getCId()).add(second.getCId())) {
+            size++;
+            modified();
+            return true;
+        }
+        return false;
     }
 
     @Override
     public boolean addAll(Collection<? extends Tuple> c){
-        boolean result = c instanceof TupleSet ? tuples.addAll(((TupleSet)c).tuples) : tuples.addAll(c);
-        isUpdated |= result;
-        return result;
+        if(!(c instanceof TupleSet)) {
+            return super.addAll(c);
+        }
+        TupleSet other = (TupleSet)c;
+        addEvents(other.events);
+        int oldSize = size;
+        for(int first = 0; first < other.rows.size(); first++) {
+            CompactIntSet row = other.rows.get(first);
+            if(row != null && !row.isEmpty()) {
+                CompactIntSet ownRow = getOrCreateRow(rows, first);
+                int rowSize = ownRow.size();
+                ownRow.addAll(row);
+                size += ownRow.size() - rowSize;
+            }
+        }
+        return updated(oldSize);
     }
 
     @Override
     public void clear(){
-        tuples.clear();
-        isUpdated = true;
+        events.clear();
+        rows.clear();
+        size = 0;
+        modified();
     }
 
     @Override
     public boolean contains(Object e){
-        return tuples.contains(e);
+        if(!(e instanceof Tuple)) {
+            return false;
+        }
+        Tuple t = (Tuple)e;
+        return getRow(rows, t.getFirst().getCId()).contains(t.getSecond().getCId());
     }
 
     @Override
     public boolean containsAll(Collection<?> c){
-        return c instanceof TupleSet ? tuples.containsAll(((TupleSet)c).tuples) : tuples.containsAll(c);
-    }
-
-    @Override
-    public boolean equals(Object obj){
-        if (this == obj) {
-            return true;
-        } else if (obj == null || getClass() != obj.getClass()) {
+        if(!(c instanceof TupleSet)) {
+            return super.containsAll(c);
+        }
+        TupleSet other = (TupleSet)c;
+        if(other.size > size) {
             return false;
         }
-
-        return tuples.equals(((TupleSet)obj).tuples);
-    }
-
-    @Override
-    public int hashCode(){
-        return tuples.hashCode();
+        for(int first = 0; first < other.rows.size(); first++) {
+            CompactIntSet row = other.rows.get(first);
+            if(row != null && !row.isEmpty() && !getRow(rows, first).containsAll(row)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public boolean isEmpty(){
-        return tuples.isEmpty();
+        return size == 0;
     }
 
     @Override
     public Iterator<Tuple> iterator(){
-        return tuples.iterator();
+        return new Iterator<>() {
+            private int nextFirst;
+            private Event first;
+            private PrimitiveIterator.OfInt secondIterator = EMPTY_ROW.iterator();
+            private PrimitiveIterator.OfInt lastIterator;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                checkModCount(expectedModCount);
+                while(!secondIterator.hasNext()) {
+                    if(nextFirst >= rows.size()) {
+                        return false;
+                    }
+                    CompactIntSet row = rows.get(nextFirst);
+                    if(row != null) {
+                        first = events.get(nextFirst);
+                        secondIterator = row.iterator();
+                    }
+                    nextFirst++;
+                }
+                return true;
+            }
+
+            @Override
+            public Tuple next() {
+                if(!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                lastIterator = secondIterator;
+                return new Tuple(first, events.get(secondIterator.nextInt()));
+            }
+
+            @Override
+            public void remove() {
+                if(lastIterator == null) {
+                    throw new IllegalStateException();
+                }
+                checkModCount(expectedModCount);
+                lastIterator.remove();
+                lastIterator = null;
+                size--;
+                modified();
+                expectedModCount = modCount;
+            }
+        };
     }
 
     @Override
     public boolean remove(Object e){
-        boolean result = tuples.remove(e);
-        isUpdated |= result;
-        return result;
+        if(!(e instanceof Tuple)) {
+            return false;
+        }
+        Tuple t = (Tuple)e;
+        if(getRow(rows, t.getFirst().getCId()).remove(t.getSecond().getCId())) {
+            size--;
+            modified();
+            return true;
+        }
+        return false;
     }
 
     @Override
     public boolean removeAll(Collection<?> c){
-        boolean result = c instanceof TupleSet ? tuples.removeAll(((TupleSet)c).tuples) : tuples.removeAll(c);
-        isUpdated |= result;
-        return result;
+        if(!(c instanceof TupleSet)) {
+            boolean result = false;
+            for(Object e : c) {
+                result |= remove(e);
+            }
+            return result;
+        }
+        TupleSet other = (TupleSet)c;
+        int oldSize = size;
+        for(int first = 0; first < Math.min(rows.size(), other.rows.size()); first++) {
+            CompactIntSet ownRow = rows.get(first);
+            CompactIntSet row = other.rows.get(first);
+            if(ownRow != null && row != null) {
+                int rowSize = ownRow.size();
+                ownRow.removeAll(row);
+                size -= rowSize - ownRow.size();
+            }
+        }
+        removeEmptyRows();
+        return updated(oldSize);
     }
 
     @Override
     public boolean retainAll(Collection<?> c){
-        boolean result = c instanceof TupleSet ? tuples.retainAll(((TupleSet)c).tuples) : tuples.retainAll(c);
-        isUpdated |= result;
-        return result;
+        if(!(c instanceof TupleSet)) {
+            return removeIf(t -> !c.contains(t));
+        }
+        TupleSet other = (TupleSet)c;
+        int oldSize = size;
+        for(int first = 0; first < rows.size(); first++) {
+            CompactIntSet row = rows.get(first);
+            if(row != null) {
+                int rowSize = row.size();
+                row.retainAll(getRow(other.rows, first));
+                size -= rowSize - row.size();
+            }
+        }
+        removeEmptyRows();
+        return updated(oldSize);
     }
 
     @Override
     public int size(){
-        return tuples.size();
+        return size;
     }
 
-    @Override
-    public Object[] toArray(){
-        return tuples.toArray();
+    // The tuples starting in <e>, as a read-only view that reflects later changes of this set.
+    // Its iterators fail fast with a ConcurrentModificationException if this set gets changed while iterating.
+    public Set<Tuple> getByFirst(Event e){
+        return new RowView(e, false);
     }
 
-    @Override
-    public <T> T[] toArray(T[] a){
-        return tuples.toArray(a);
+    // The tuples ending in <e>, as a read-only view with the same contract as getByFirst.
+    public Set<Tuple> getBySecond(Event e){
+        return new RowView(e, true);
     }
 
-    @Override
-    public String toString(){
-        return tuples.toString();
-    }
+    public Map<Event, Set<Event>> transMap(){
+        TupleSet closure = transitiveClosure();
+        Map<Event, Set<Event>> map = new HashMap<>();
+        for(Event e : events) {
+            if(e == null) {
+                continue;
+            }
+            CompactIntSet row = getRow(closure.rows, e.getCId());
+            map.put(e, new AbstractSet<>() {
+                @Override
+                public Iterator<Event> iterator() {
+                    return Iterators.transform(row.iterator(), closure.events::get);
+                }
 
-    public Set<Tuple> getByFirst(Event e){
-        if(isUpdated){
-            updateAuxiliary();
+                @Override
+                public boolean contains(Object o) {
+                    return o instanceof Event && row.contains(((Event)o).getCId());
+                }
+
+                @Override
+                public int size() {
+                    return row.size();
+                }
+            });
         }
-        return byFirst.computeIfAbsent(e, key -> new HashSet<>());
+        return map;
     }
 
-    public Set<Tuple> getBySecond(Event e){
-        if(isUpdated){
-            updateAuxiliary();
+    private List<CompactIntSet> getColumns(){
+        List<CompactIntSet> result = columns;
+        return result != null ? result : computeColumns();
+    }
+
+    private synchronized List<CompactIntSet> computeColumns(){
+        if(columns == null){
+            List<CompactIntSet> inverse = new ArrayList<>();
+            for(int first = 0; first < rows.size(); first++) {
+                CompactIntSet row = rows.get(first);
+                if(row != null) {
+                    int f = first;
+                    row.forEach(second -> getOrCreateRow(inverse, second).add(f));
+                }
+            }
+            columns = inverse;
         }
-        return bySecond.computeIfAbsent(e, key -> new HashSet<>());
+        return columns;
     }
 
-    //TODO: Reimplement transMap using tarjan and SCCs
-    public Map<Event, Set<Event>> transMap(){
-        Map<Event, Set<Event>> map = new HashMap<>();
+    private void modified(){
+        columns = null;
+        modCount++;
+    }
 
-        final Function<Event, Set<Event>> newSet = key -> new HashSet<>();
-        for(Tuple tuple : tuples){
-            map.computeIfAbsent(tuple.getFirst(), newSet).add(tuple.getSecond());
-            map.computeIfAbsent(tuple.getSecond(), newSet);
+    private boolean updated(int oldSize){
+        if(size != oldSize){
+            modified();
+            return true;
         }
+        return false;
+    }
 
-        boolean changed = true;
+    private void checkModCount(int expectedModCount){
+        if(modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
 
-        while (changed){
-            changed = false;
-            for(Event e1 : map.keySet()){
-                Set<Event> newEls = new HashSet<>();
-                for(Event e2 : map.get(e1)){
-                    if(e1.getCId() != e2.getCId()){
-                        newEls.addAll(map.get(e2));
-                    }
-                }
-                if(map.get(e1).addAll(newEls)) {
-                    changed = true;
-                }
+    private void addEvent(Event e){
+        int cId = e.getCId();
+        while(events.size() <= cId) {
+            events.add(null);
+        }
+        if(events.get(cId) == null) {
+            events.set(cId, e);
+        }
+    }
+
+    private void addEvents(List<Event> other){
+        for(Event e : other) {
+            if(e != null) {
+                addEvent(e);
             }
         }
+    }
 
-        return map;
+    private void removeEmptyRows(){
+        rows.replaceAll(row -> row == null || row.isEmpty() ? null : row);
+    }
+
+    // The row at <index> of <table>, or an (unmodifiable) empty row if there is none
+    private static CompactIntSet getRow(List<CompactIntSet> table, int index){
+        CompactIntSet row = index >= 0 && index < table.size() ? table.get(index) : null;
+        return row != null ? row : EMPTY_ROW;
     }
 
-    private void updateAuxiliary(){
-        byFirst.clear();
-        bySecond.clear();
-        final Function<Event, Set<Tuple>> newSet = key -> new HashSet<>();
-        for(Tuple e : tuples){
-            byFirst.computeIfAbsent(e.getFirst(), newSet).add(e);
-            bySecond.computeIfAbsent(e.getSecond(), newSet).add(e);
+    private static CompactIntSet getOrCreateRow(List<CompactIntSet> table, int index){
+        while(table.size() <= index) {
+            table.add(null);
+        }
+        CompactIntSet row = table.get(index);
+        if(row == null) {
+            row = new CompactIntSet();
+            table.set(index, row);
         }
-        isUpdated = false;
+        return row;
     }
 
     // ================ Utility functions ==============
     public TupleSet inverse() {
-        return this.mapped(Tuple::getInverse);
+        TupleSet result = new TupleSet();
+        result.events.addAll(events);
+        for(CompactIntSet column : getColumns()) {
+            result.rows.add(column == null ? null : new CompactIntSet(column));
+        }
+        result.size = size;
+        return result;
+    }
+
+    public TupleSet union(TupleSet tuples) {
+        TupleSet result = new TupleSet(this);
+        result.addAll(tuples);
+        return result;
+    }
+
+    public TupleSet intersection(TupleSet tuples) {
+        TupleSet result = new TupleSet(size <= tuples.size ? this : tuples);
+        result.retainAll(size <= tuples.size ? tuples : this);
+        return result;
+    }
+
+    public TupleSet difference(TupleSet tuples) {
+        TupleSet result = new TupleSet(this);
+        result.removeAll(tuples);
+        return result;
+    }
+
+    // The transitive closure is computed by merging the rows of successors until nothing changes.
+    // Processing later events first makes a single round sufficient for relations along po.
+    public TupleSet transitiveClosure() {
+        TupleSet result = new TupleSet(this);
+        boolean changed = true;
+        while(changed) {
+            changed = false;
+            for(int first = result.rows.size() - 1; first >= 0; first--) {
+                CompactIntSet row = result.rows.get(first);
+                if(row == null) {
+                    continue;
+                }
+                int f = first;
+                CompactIntSet reachable = new CompactIntSet();
+                rows.get(first).forEach(second -> {
+                    if(second != f) {
+                        reachable.addAll(getRow(result.rows, second));
+                    }
+                });
+                int rowSize = row.size();
+                if(row.addAll(reachable)) {
+                    result.size += row.size() - rowSize;
+                    changed = true;
+                }
+            }
+        }
+        return result;
     }
 
     //TODO: Make clear through which tuple set is iterated first/second
@@ -197,12 +408,18 @@ public class TupleSet implements Set<Tuple>{
     // if the corresponding tuple set is changed (e.g. by repeated composition)
     public TupleSet preComposition(TupleSet tuples) {
         TupleSet result = new TupleSet();
-        for (Tuple t1 : tuples) {
-            Event e1 = t1.getFirst();
-            Event e2 = t1.getSecond();
-            for (Tuple t2 : this.getByFirst(e2)) {
-                Event e3 = t2.getSecond();
-                result.add(new Tuple(e1, e3));
+        result.addEvents(tuples.events);
+        result.addEvents(events);
+        for(int first = 0; first < tuples.rows.size(); first++) {
+            CompactIntSet row = tuples.rows.get(first);
+            if(row == null) {
+                continue;
+            }
+            CompactIntSet composed = new CompactIntSet();
+            row.forEach(second -> composed.addAll(getRow(rows, second)));
+            if(!composed.isEmpty()) {
+                getOrCreateRow(result.rows, first).addAll(composed);
+                result.size += composed.size();
             }
         }
         return result;
@@ -233,7 +450,7 @@ public class TupleSet implements Set<Tuple>{
 
     public TupleSet mapped(Function<Tuple, Tuple> mapping) {
         TupleSet result = new TupleSet();
-        tuples.stream().map(mapping).forEach(result::add);
+        this.stream().map(mapping).forEach(result::add);
         return result;
     }
 
@@ -267,4 +484,58 @@ public class TupleSet implements Set<Tuple>{
         }
         return reduct;
     }
+
+    // =============== Views =================
+
+    // Read-only view of the tuples starting (or ending, if inverse) in <event>.
+    // The row is looked up on each access, since rows get replaced (and columns recomputed) when the set changes.
+    private final class RowView extends AbstractSet<Tuple> {
+        private final Event event;
+        private final boolean inverse;
+
+        private RowView(Event event, boolean inverse) {
+            this.event = event;
+            this.inverse = inverse;
+        }
+
+        private CompactIntSet row() {
+            return getRow(inverse ? getColumns() : rows, event.getCId());
+        }
+
+        @Override
+        public Iterator<Tuple> iterator() {
+            int expectedModCount = modCount;
+            PrimitiveIterator.OfInt others = row().iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    checkModCount(expectedModCount);
+                    return others.hasNext();
+                }
+
+                @Override
+                public Tuple next() {
+                    checkModCount(expectedModCount);
+                    Event other = events.get(others.nextInt());
+                    return inverse ? new Tuple(other, event) : new Tuple(event, other);
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if(!(o instanceof Tuple)) {
+                return false;
+            }
+            Tuple t = (Tuple)o;
+            Event own = inverse ? t.getSecond() : t.getFirst();
+            Event other = inverse ? t.getFirst() : t.getSecond();
+            return own.getCId() == event.getCId() && row().contains(other.getCId());
+        }
+
+        @Override
+        public int size() {
+            return row().size();
+        }
+    }
 }
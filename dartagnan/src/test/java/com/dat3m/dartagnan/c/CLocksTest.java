@@ -4,16 +4,19 @@ import com.dat3m.dartagnan.utils.Result;
 import com.dat3m.dartagnan.utils.rules.CSVLogger;
 import com.dat3m.dartagnan.utils.rules.Provider;
 import com.dat3m.dartagnan.verification.RefinementTask;
+import com.dat3m.dartagnan.verification.VerificationTask;
 import com.dat3m.dartagnan.verification.solving.AssumeSolver;
 import com.dat3m.dartagnan.verification.solving.RefinementSolver;
 import com.dat3m.dartagnan.configuration.Arch;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
+import org.sosy_lab.common.configuration.Configuration;
 
 import java.io.IOException;
 import java.util.Arrays;
 
+import static com.dat3m.dartagnan.configuration.OptionNames.BATCH_SIZE;
 import static com.dat3m.dartagnan.utils.ResourceHelper.TEST_RESOURCE_PATH;
 import static com.dat3m.dartagnan.utils.Result.*;
 import static com.dat3m.dartagnan.configuration.Arch.*;
@@ -109,9 +112,9 @@ public class CLocksTest extends AbstractCTest {
                 {"mutex_musl-3-rel2rx_unlock", TSO, UNKNOWN},
                 {"mutex_musl-3-rel2rx_unlock", ARM8, FAIL},
                 {"mutex_musl-3-rel2rx_unlock", POWER, FAIL},
-                {"seqlock-6", TSO, UNKNOWN},
-                {"seqlock-6", ARM8, UNKNOWN},
-                {"seqlock-6", POWER, UNKNOWN},
+                {"seqlock-6", TSO, PASS},
+                {"seqlock-6", ARM8, PASS},
+                {"seqlock-6", POWER, PASS},
 		});
     }
 
@@ -127,4 +130,16 @@ public class CLocksTest extends AbstractCTest {
 		assertEquals(expected, RefinementSolver.run(contextProvider.get(), proverProvider.get(),
 				RefinementTask.fromVerificationTaskWithDefaultBaselineWMM(taskProvider.get())));
 	}
+
+    @Test
+	@CSVLogger.FileName("csv/refinement-batched")
+	public void testBatchedRefinement() throws Exception {
+		// Checking several models per iteration must not change the results of the refinement
+		VerificationTask task = taskProvider.get();
+		RefinementTask refinementTask = new RefinementTask.RefinementTaskBuilder()
+				.withConfig(Configuration.builder().copyFrom(task.getConfig())
+						.setOption(BATCH_SIZE, "4").build())
+				.build(task.getProgram(), task.getMemoryModel(), task.getProperty());
+		assertEquals(expected, RefinementSolver.run(contextProvider.get(), proverProvider.get(), refinementTask));
+	}
 }
\ No newline at end of file
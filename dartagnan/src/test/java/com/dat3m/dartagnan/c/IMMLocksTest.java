@@ -75,7 +75,7 @@ public class IMMLocksTest extends AbstractCTest {
             {"mutex_musl-3-acq2rx_lock", IMM, FAIL},
             {"mutex_musl-3-rel2rx_futex", IMM, UNKNOWN},
             {"mutex_musl-3-rel2rx_unlock", IMM, FAIL},
-            {"seqlock-6", IMM, UNKNOWN},
+            {"seqlock-6", IMM, PASS},
 		});
     }
 
@@ -112,9 +112,9 @@ public class LivenessTest extends AbstractCTest {
                 {"mutex_musl-3-rel2rx_unlock", TSO, UNKNOWN},
                 {"mutex_musl-3-rel2rx_unlock", ARM8, UNKNOWN},
                 {"mutex_musl-3-rel2rx_unlock", POWER, UNKNOWN},
-                {"seqlock-6", TSO, UNKNOWN},
-                {"seqlock-6", ARM8, UNKNOWN},
-                {"seqlock-6", POWER, UNKNOWN},
+                {"seqlock-6", TSO, PASS},
+                {"seqlock-6", ARM8, PASS},
+                {"seqlock-6", POWER, PASS},
 		});
     }
 
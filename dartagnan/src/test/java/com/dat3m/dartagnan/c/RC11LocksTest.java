@@ -75,7 +75,7 @@ public class RC11LocksTest extends AbstractCTest {
                 {"mutex_musl-3-acq2rx_lock", C11, FAIL},
                 {"mutex_musl-3-rel2rx_futex", C11, UNKNOWN},
                 {"mutex_musl-3-rel2rx_unlock", C11, FAIL},
-                {"seqlock-6", C11, UNKNOWN},
+                {"seqlock-6", C11, PASS},
 		});
     }
 
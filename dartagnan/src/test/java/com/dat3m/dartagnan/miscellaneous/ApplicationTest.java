@@ -1,15 +1,30 @@
 package com.dat3m.dartagnan.miscellaneous;
 
 import com.dat3m.dartagnan.Dartagnan;
+import com.dat3m.dartagnan.configuration.Method;
+import com.dat3m.dartagnan.configuration.OptionNames;
 import com.dat3m.dartagnan.utils.ResourceHelper;
+import com.dat3m.dartagnan.utils.Result;
 import org.junit.Test;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static com.dat3m.dartagnan.configuration.OptionNames.*;
 import static com.dat3m.dartagnan.utils.ResourceHelper.LITMUS_RESOURCE_PATH;
 import static com.dat3m.dartagnan.configuration.Method.*;
 import static com.dat3m.dartagnan.configuration.Property.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class ApplicationTest {
 
@@ -41,6 +56,139 @@ public class ApplicationTest {
     										Solvers.Z3.toString()));
     }
 
+    @Test
+    public void CAATIncrementalModelChecking() throws Exception {
+		String[] options = createAndFillOptions(REACHABILITY.asStringOption(),
+												CAAT.asStringOption(),
+												Solvers.Z3.toString());
+		Dartagnan.main(withOptions(options, String.format("--%s=%s", INCREMENTAL_MODEL_CHECKING, true)));
+    }
+
+    @Test
+    public void CAATIncrementalModelCheckingLitmus() throws Exception {
+		String[] options = new String[3];
+
+	    options[0] = LITMUS_RESOURCE_PATH + "litmus/X86/IRIWX.litmus";
+	    options[1] = ResourceHelper.CAT_RESOURCE_PATH + "cat/tso.cat";
+	    options[2] = String.format("--%s=%s", METHOD, CAAT.asStringOption());
+
+		// Replaying models level by level must not change the result of the refinement
+		assertEquals(run(options), run(withOptions(options, String.format("--%s=%s", INCREMENTAL_MODEL_CHECKING, true))));
+    }
+
+    @Test
+    public void Auto() throws Exception {
+    	Dartagnan.main(createAndFillOptions(REACHABILITY.asStringOption(),
+    										AUTO.asStringOption(),
+    										Solvers.Z3.toString()));
+    }
+
+    @Test
+    public void CAATReasonStore() throws Exception {
+		File reasonStore = File.createTempFile("reasons", ".txt");
+		reasonStore.deleteOnExit();
+		String[] options = createAndFillOptions(REACHABILITY.asStringOption(),
+												CAAT.asStringOption(),
+												Solvers.Z3.toString());
+		String[] optionsWithStore = Arrays.copyOf(options, options.length + 1);
+		optionsWithStore[options.length] = String.format("--%s=%s", REASON_STORE, reasonStore.getPath());
+		// The second run imports the reasons exported by the first one
+		Dartagnan.main(optionsWithStore);
+		Dartagnan.main(optionsWithStore);
+    }
+
+    @Test
+    public void CAATEagerAxioms() throws Exception {
+		String[] options = createAndFillOptions(REACHABILITY.asStringOption(),
+												CAAT.asStringOption(),
+												Solvers.Z3.toString());
+		String[] optionsWithThreshold = Arrays.copyOf(options, options.length + 1);
+		// Encodes each axiom eagerly right after its first violation
+		optionsWithThreshold[options.length] = String.format("--%s=%s", EAGER_AXIOM_THRESHOLD, 1);
+		Dartagnan.main(optionsWithThreshold);
+    }
+
+    @Test
+    public void ParallelRelationAnalysis() throws Exception {
+		String[] options = createAndFillOptions(REACHABILITY.asStringOption(),
+												ASSUME.asStringOption(),
+												Solvers.Z3.toString());
+		String[] optionsWithParallelism = Arrays.copyOf(options, options.length + 1);
+		optionsWithParallelism[options.length] = String.format("--%s=%s", RELATION_ANALYSIS_PARALLELISM, 4);
+		Dartagnan.main(optionsWithParallelism);
+    }
+
+    @Test
+    public void ResultCache() throws Exception {
+		File cache = Files.createTempDirectory("cache").toFile();
+		cache.deleteOnExit();
+		String[] options = createAndFillOptions(REACHABILITY.asStringOption(),
+												ASSUME.asStringOption(),
+												Solvers.Z3.toString());
+		// Only definitive results get cached, so this uses a program with a reachable violation
+		options[0] = ResourceHelper.TEST_RESOURCE_PATH + "locks/ttas-5-acq2rx.bpl";
+		options[1] = ResourceHelper.CAT_RESOURCE_PATH + "cat/aarch64.cat";
+		options = withOptions(options, String.format("--%s=%s", TARGET, "arm8"));
+		String[] optionsWithCache = withOptions(options, String.format("--%s=%s", CACHE, cache.getPath()));
+		Result expected = verdict(run(options));
+		assertEquals(Result.FAIL, expected);
+		assertEquals(expected, verdict(run(optionsWithCache)));
+
+		// Marks the stored output, so that the second run only prints the mark if it finds the result in the cache
+		File[] entries = cache.listFiles((dir, name) -> name.endsWith(".result"));
+		assertEquals(1, entries.length);
+		List<String> lines = new ArrayList<>(Files.readAllLines(entries[0].toPath()));
+		lines.add(2, "cached");
+		Files.write(entries[0].toPath(), lines);
+
+		String output = run(optionsWithCache);
+		assertTrue(output.startsWith("cached"));
+		assertEquals(expected, verdict(output));
+    }
+
+    @Test
+    public void CAATDeepening() throws Exception {
+		String[] options = createAndFillOptions(REACHABILITY.asStringOption(),
+												CAAT.asStringOption(),
+												Solvers.Z3.toString());
+		String[] optionsWithDeepening = Arrays.copyOf(options, options.length + 1);
+		// Deepens from bound 1 to the bound used by the other tests
+		optionsWithDeepening[2] = String.format("--%s=%s", BOUND, 1);
+		optionsWithDeepening[options.length] = String.format("--%s=%s", MAX_BOUND, 2);
+		// The reasons learned with bound 1 are reused with bound 2
+		Dartagnan.main(withOptions(optionsWithDeepening, String.format("--%s=%s", BOUND_SHARE_REASONS, true)));
+    }
+
+    @Test
+    public void AssumeDeepening() throws Exception {
+		String[] options = createAndFillOptions(REACHABILITY.asStringOption(),
+												ASSUME.asStringOption(),
+												Solvers.Z3.toString());
+		// Checks both bounds with a single encoding (see DeepeningSolver)
+		options[2] = String.format("--%s=%s", BOUND, 1);
+		Dartagnan.main(withOptions(options, String.format("--%s=%s", MAX_BOUND, 2)));
+    }
+
+    @Test
+    public void Portfolio() throws Exception {
+		String[] options = createAndFillOptions(REACHABILITY.asStringOption(),
+												Method.PORTFOLIO.asStringOption(),
+												Solvers.Z3.toString());
+		String[] optionsWithPortfolio = Arrays.copyOf(options, options.length + 1);
+		optionsWithPortfolio[options.length] = String.format("--%s=%s", OptionNames.PORTFOLIO, "caat,assume:z3");
+		Dartagnan.main(optionsWithPortfolio);
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void UnsupportedPortfolio() throws Exception {
+		String[] options = createAndFillOptions(REACHABILITY.asStringOption(),
+												Method.PORTFOLIO.asStringOption(),
+												Solvers.Z3.toString());
+		String[] optionsWithPortfolio = Arrays.copyOf(options, options.length + 1);
+		optionsWithPortfolio[options.length] = String.format("--%s=%s", OptionNames.PORTFOLIO, "caat,portfolio");
+		Dartagnan.main(optionsWithPortfolio);
+    }
+
     @Test
     public void Races() throws Exception {
     	Dartagnan.main(createAndFillOptions(RACES.asStringOption(), 
@@ -48,6 +196,23 @@ public class ApplicationTest {
     										Solvers.Z3.toString()));
     }
 
+    @Test
+    public void RacesCAAT() throws Exception {
+    	Dartagnan.main(createAndFillOptions(RACES.asStringOption(),
+    										CAAT.asStringOption(),
+    										Solvers.Z3.toString()));
+    }
+
+    @Test
+    public void RacesByLocation() throws Exception {
+		String[] options = createAndFillOptions(RACES.asStringOption(),
+												ASSUME.asStringOption(),
+												Solvers.Z3.toString());
+		String[] optionsByLocation = Arrays.copyOf(options, options.length + 1);
+		optionsByLocation[options.length] = String.format("--%s=%s", RACES_BY_LOCATION, true);
+		Dartagnan.main(optionsByLocation);
+    }
+
     @Test
     public void Validation() throws Exception {
 		String[] options = new String[3];
@@ -69,6 +234,55 @@ public class ApplicationTest {
     	Dartagnan.main(options);
     }
 
+    @Test
+    public void LitmusMultiModel() throws Exception {
+		String[] options = new String[4];
+
+	    options[0] = LITMUS_RESOURCE_PATH + "litmus/X86/2+2W.litmus";
+	    options[1] = ResourceHelper.CAT_RESOURCE_PATH + "cat/tso.cat";
+	    options[2] = ResourceHelper.CAT_RESOURCE_PATH + "cat/sc.cat";
+	    options[3] = ResourceHelper.CAT_RESOURCE_PATH + "cat/power.cat";
+
+    	Dartagnan.main(options);
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void LitmusMultiModelWrongMethod() throws Exception {
+		String[] options = new String[3];
+
+	    options[0] = LITMUS_RESOURCE_PATH + "litmus/X86/2+2W.litmus";
+	    options[1] = ResourceHelper.CAT_RESOURCE_PATH + "cat/tso.cat";
+	    options[2] = ResourceHelper.CAT_RESOURCE_PATH + "cat/sc.cat";
+
+    	Dartagnan.main(withOptions(options, String.format("--%s=%s", METHOD, CAAT.asStringOption())));
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void LitmusMultiModelRaces() throws Exception {
+		String[] options = new String[3];
+
+	    options[0] = LITMUS_RESOURCE_PATH + "litmus/X86/2+2W.litmus";
+	    options[1] = ResourceHelper.CAT_RESOURCE_PATH + "cat/tso.cat";
+	    options[2] = ResourceHelper.CAT_RESOURCE_PATH + "cat/sc.cat";
+
+    	Dartagnan.main(withOptions(options, String.format("--%s=%s", PROPERTY, RACES.asStringOption())));
+    }
+
+    @Test
+    public void LitmusBatch() throws Exception {
+		File output = File.createTempFile("batch", ".csv");
+		output.deleteOnExit();
+		String[] options = new String[5];
+
+	    options[0] = ResourceHelper.CAT_RESOURCE_PATH + "cat/tso.cat";
+	    options[1] = String.format("--%s=%s", BATCH, LITMUS_RESOURCE_PATH + "litmus/X86");
+	    options[2] = String.format("--%s=%s", BATCH_EXPECTED, ResourceHelper.TEST_RESOURCE_PATH + "dartagnan-expected.csv");
+	    options[3] = String.format("--%s=%s", BATCH_SHARD, "0/50");
+	    options[4] = String.format("--%s=%s", BATCH_OUTPUT, output.getPath());
+
+    	Dartagnan.main(options);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void WrongProgramFormat() throws Exception {
 		String[] options = new String[1];
@@ -121,4 +335,31 @@ public class ApplicationTest {
 	    
 	    return dartagnanOptions;
 	}
+
+	private static String[] withOptions(String[] options, String... additionalOptions) {
+		String[] result = Arrays.copyOf(options, options.length + additionalOptions.length);
+		System.arraycopy(additionalOptions, 0, result, options.length, additionalOptions.length);
+		return result;
+	}
+
+	// Runs Dartagnan and returns what it printed
+	private static String run(String[] options) throws Exception {
+		PrintStream stdout = System.out;
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(buffer, true, UTF_8));
+		try {
+			Dartagnan.main(options);
+		} finally {
+			System.setOut(stdout);
+		}
+		String output = buffer.toString(UTF_8);
+		stdout.print(output);
+		return output;
+	}
+
+	// The result printed last by a run
+	private static Result verdict(String output) {
+		List<String> lines = output.lines().collect(Collectors.toList());
+		return Result.valueOf(lines.get(lines.size() - 1).trim());
+	}
 }
@@ -0,0 +1,157 @@
+package com.dat3m.dartagnan.miscellaneous;
+
+import com.dat3m.dartagnan.utils.collections.CompactIntSet;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CompactIntSetTest {
+
+    @Test
+    public void sparseSet() {
+        CompactIntSet set = of(1000, 5, 300);
+        assertTrue(set.add(42));
+        assertFalse(set.add(5));
+        assertEquals(4, set.size());
+        assertTrue(set.contains(42));
+        assertFalse(set.contains(43));
+        assertFalse(set.contains(-1));
+        assertEquals(List.of(5, 42, 300, 1000), toList(set));
+        assertTrue(set.remove(300));
+        assertFalse(set.remove(300));
+        assertEquals(List.of(5, 42, 1000), toList(set));
+    }
+
+    @Test
+    public void denseSet() {
+        CompactIntSet set = new CompactIntSet();
+        for (int i = 0; i < 100; i += 2) {
+            set.add(i);
+        }
+        assertEquals(50, set.size());
+        assertTrue(set.contains(98));
+        assertFalse(set.contains(99));
+        assertFalse(set.contains(-1));
+        assertFalse(set.add(98));
+        assertTrue(set.add(10_000));
+        assertTrue(set.remove(0));
+        assertFalse(set.remove(-1));
+        assertEquals(50, set.size());
+        assertEquals(2, toList(set).get(0).intValue());
+        assertEquals(10_000, toList(set).get(49).intValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeValueInSparseSet() {
+        of(1000).add(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeValueInDenseSet() {
+        of(0, 1, 2, 3).add(-1);
+    }
+
+    @Test
+    public void iteratorRemoval() {
+        for (CompactIntSet set : List.of(of(3, 700, 5000), of(0, 1, 2, 3, 4))) {
+            List<Integer> expected = toList(set);
+            expected.remove(1);
+            PrimitiveIterator.OfInt iterator = set.iterator();
+            iterator.nextInt();
+            iterator.nextInt();
+            iterator.remove();
+            assertEquals(expected.get(1).intValue(), iterator.nextInt());
+            assertEquals(expected, toList(set));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void iteratorRemovalTwice() {
+        PrimitiveIterator.OfInt iterator = of(0, 1, 2, 3).iterator();
+        iterator.nextInt();
+        iterator.remove();
+        iterator.remove();
+    }
+
+    @Test
+    public void equalityAcrossRepresentations() {
+        CompactIntSet dense = of(0, 1, 2, 3);
+        // The intersection of a dense set with a sparse one is sparse
+        CompactIntSet sparse = new CompactIntSet();
+        for (int i = 0; i < 64; i++) {
+            sparse.add(i);
+        }
+        sparse.retainAll(of(0, 1, 2, 3, 1_000_000));
+        assertEquals(sparse, dense);
+        assertEquals(dense, sparse);
+        assertEquals(sparse.hashCode(), dense.hashCode());
+        assertEquals("{0, 1, 2, 3}", dense.toString());
+    }
+
+    // Compares the bulk operations between all combinations of sparse and dense sets with TreeSet
+    @Test
+    public void bulkOperations() {
+        Random random = new Random(0);
+        for (int i = 0; i < 200; i++) {
+            TreeSet<Integer> a = randomSet(random);
+            TreeSet<Integer> b = randomSet(random);
+
+            CompactIntSet union = copy(a);
+            TreeSet<Integer> expectedUnion = new TreeSet<>(a);
+            assertEquals(expectedUnion.addAll(b), union.addAll(copy(b)));
+            assertEquals(new ArrayList<>(expectedUnion), toList(union));
+
+            CompactIntSet intersection = copy(a);
+            TreeSet<Integer> expectedIntersection = new TreeSet<>(a);
+            assertEquals(expectedIntersection.retainAll(b), intersection.retainAll(copy(b)));
+            assertEquals(new ArrayList<>(expectedIntersection), toList(intersection));
+
+            CompactIntSet difference = copy(a);
+            TreeSet<Integer> expectedDifference = new TreeSet<>(a);
+            assertEquals(expectedDifference.removeAll(b), difference.removeAll(copy(b)));
+            assertEquals(new ArrayList<>(expectedDifference), toList(difference));
+
+            assertEquals(a.containsAll(b), copy(a).containsAll(copy(b)));
+            assertTrue(union.containsAll(copy(b)));
+        }
+    }
+
+    // Sets with few values over a large range stay sparse, sets with many values over a small range get dense
+    private static TreeSet<Integer> randomSet(Random random) {
+        TreeSet<Integer> set = new TreeSet<>();
+        int range = random.nextBoolean() ? 100 : 100_000;
+        int count = random.nextInt(60);
+        for (int i = 0; i < count; i++) {
+            set.add(random.nextInt(range));
+        }
+        return set;
+    }
+
+    private static CompactIntSet copy(Collection<Integer> values) {
+        CompactIntSet set = new CompactIntSet();
+        values.forEach(set::add);
+        return new CompactIntSet(set);
+    }
+
+    private static CompactIntSet of(int... values) {
+        CompactIntSet set = new CompactIntSet();
+        for (int value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    private static List<Integer> toList(CompactIntSet set) {
+        List<Integer> list = new ArrayList<>();
+        set.forEach(list::add);
+        List<Integer> iterated = new ArrayList<>();
+        PrimitiveIterator.OfInt iterator = set.iterator();
+        while (iterator.hasNext()) {
+            iterated.add(iterator.nextInt());
+        }
+        assertEquals(list, iterated);
+        return list;
+    }
+}
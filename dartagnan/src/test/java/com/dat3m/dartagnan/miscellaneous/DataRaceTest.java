@@ -0,0 +1,75 @@
+package com.dat3m.dartagnan.miscellaneous;
+
+import com.dat3m.dartagnan.configuration.Arch;
+import com.dat3m.dartagnan.parsers.cat.ParserCat;
+import com.dat3m.dartagnan.parsers.program.ProgramParser;
+import com.dat3m.dartagnan.utils.ResourceHelper;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.verification.RefinementTask;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.verification.solving.DataRaceSolver;
+import com.dat3m.dartagnan.verification.solving.RefinementSolver;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.dat3m.dartagnan.configuration.Property.RACES;
+import static com.dat3m.dartagnan.utils.TestHelper.createContext;
+import static org.junit.Assert.assertEquals;
+
+// Checks that the lazy data race detection of the refinement finds the same races as the eager encoding
+@RunWith(Parameterized.class)
+public class DataRaceTest {
+
+    @Parameterized.Parameters(name = "{index}: {0}")
+    public static Iterable<Object[]> data() throws IOException {
+        try (Stream<Path> fileStream = Files.walk(Paths.get(ResourceHelper.TEST_RESOURCE_PATH + "boogie/data-races/"))) {
+            return fileStream
+                    .filter(Files::isRegularFile)
+                    .filter(f -> (f.toString().endsWith("bpl")))
+                    .map(f -> new Object[]{f.toString()})
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private final String path;
+
+    public DataRaceTest(String path) {
+        this.path = path;
+    }
+
+    @Test
+    public void test() throws Exception {
+        try (SolverContext ctx = createContext()) {
+            Result expected;
+            try (ProverEnvironment prover = ctx.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+                expected = DataRaceSolver.run(ctx, prover, createTask());
+            }
+            try (ProverEnvironment prover = ctx.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+                assertEquals(expected, RefinementSolver.run(ctx, prover,
+                        RefinementTask.fromVerificationTaskWithDefaultBaselineWMM(createTask())));
+            }
+        }
+    }
+
+    private VerificationTask createTask() throws Exception {
+        return VerificationTask.builder()
+                .withTarget(Arch.C11)
+                .withBound(1)
+                .build(new ProgramParser().parse(new File(path)),
+                        new ParserCat().parse(new File(ResourceHelper.CAT_RESOURCE_PATH + "cat/svcomp.cat")),
+                        EnumSet.of(RACES));
+    }
+}
@@ -0,0 +1,84 @@
+package com.dat3m.dartagnan.miscellaneous;
+
+import com.dat3m.dartagnan.configuration.Arch;
+import com.dat3m.dartagnan.configuration.Property;
+import com.dat3m.dartagnan.parsers.cat.ParserCat;
+import com.dat3m.dartagnan.parsers.program.ProgramParser;
+import com.dat3m.dartagnan.utils.ResourceHelper;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.verification.solving.AssumeSolver;
+import com.dat3m.dartagnan.verification.solving.DeepeningSolver;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import static com.dat3m.dartagnan.configuration.OptionNames.BOUND_GUARDS;
+import static com.dat3m.dartagnan.utils.TestHelper.createContext;
+import static org.junit.Assert.assertEquals;
+
+// Checks that a program unrolled with bound guards behaves like the program unrolled with each smaller bound
+@RunWith(Parameterized.class)
+public class DeepeningTest {
+
+    private static final int MAX_BOUND = 3;
+
+    @Parameterized.Parameters(name = "{index}: {0}")
+    public static Iterable<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+                {"for_bounded_loop1"},
+                {"string-2"},
+                {"sum_array-1"},
+                {"sum01_bug02"},
+                {"sum01-1"},
+                {"verisec_NetBSD-libc_loop"},
+        });
+    }
+
+    private final String path;
+
+    public DeepeningTest(String name) {
+        this.path = ResourceHelper.TEST_RESOURCE_PATH + "boogie/loops/" + name + "-O3.bpl";
+    }
+
+    @Test
+    public void test() throws Exception {
+        try (SolverContext ctx = createContext()) {
+            Result first = Result.UNKNOWN;
+            for(int bound = 1; bound <= MAX_BOUND; bound++) {
+                Result expected;
+                try (ProverEnvironment prover = ctx.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+                    expected = AssumeSolver.run(ctx, prover, createTask(bound, false));
+                }
+                try (ProverEnvironment prover = ctx.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+                    assertEquals("Bound " + bound, expected,
+                            DeepeningSolver.run(ctx, prover, createTask(MAX_BOUND, true), List.of(bound)));
+                }
+                first = first == Result.UNKNOWN ? expected : first;
+            }
+            // Deepening stops at the first definitive result
+            try (ProverEnvironment prover = ctx.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+                assertEquals(first, DeepeningSolver.run(ctx, prover, createTask(MAX_BOUND, true), List.of(1, 2, 3)));
+            }
+        }
+    }
+
+    private VerificationTask createTask(int bound, boolean boundGuards) throws Exception {
+        return VerificationTask.builder()
+                .withConfig(Configuration.builder().setOption(BOUND_GUARDS, String.valueOf(boundGuards)).build())
+                .withTarget(Arch.C11)
+                .withBound(bound)
+                .build(new ProgramParser().parse(new File(path)),
+                        new ParserCat().parse(new File(ResourceHelper.CAT_RESOURCE_PATH + "cat/svcomp.cat")),
+                        EnumSet.of(Property.getDefault()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.dat3m.dartagnan.miscellaneous;
+
+import com.dat3m.dartagnan.configuration.Arch;
+import com.dat3m.dartagnan.configuration.Property;
+import com.dat3m.dartagnan.encoding.WmmEncoder;
+import com.dat3m.dartagnan.parsers.cat.ParserCat;
+import com.dat3m.dartagnan.parsers.program.ProgramParser;
+import com.dat3m.dartagnan.utils.ResourceHelper;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.wmm.axiom.Axiom;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import static com.dat3m.dartagnan.utils.TestHelper.createContext;
+import static org.junit.Assert.assertEquals;
+
+// Checks that extending the encoding of a memory model axiom by axiom is equivalent to encoding all axioms at once
+@RunWith(Parameterized.class)
+public class IncrementalWmmEncodingTest {
+
+    @Parameterized.Parameters(name = "{index}: {0}")
+    public static Iterable<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+                {"litmus/PPC/IRIW+lwsyncs.litmus", "cat/power.cat", Arch.POWER},
+                {"litmus/PPC/IRIW+syncs.litmus", "cat/power.cat", Arch.POWER},
+                {"litmus/PPC/MP+lwsyncs.litmus", "cat/power.cat", Arch.POWER},
+                {"litmus/AARCH64/PPO/MP+dmb.sy+[fr-rf]-addr-addr-rfi-addr.litmus", "cat/aarch64.cat", Arch.ARM8},
+                {"litmus/AARCH64/PPO/MP+dmb.sy+[fr-rf]-addr-ctrl-rfi-addr.litmus", "cat/aarch64.cat", Arch.ARM8},
+                {"litmus/C/manual/atomic/C-atomic-01.litmus", "cat/linux-kernel.cat", Arch.LKMM},
+                {"litmus/C/manual/atomic/C-PaulEMcKenney-SB+adat-o+adat-o.litmus", "cat/linux-kernel.cat", Arch.LKMM},
+                {"litmus/X86/SB.litmus", "cat/tso.cat", Arch.TSO},
+        });
+    }
+
+    private final String path;
+    private final String catPath;
+    private final Arch arch;
+
+    public IncrementalWmmEncodingTest(String path, String catPath, Arch arch) {
+        this.path = ResourceHelper.LITMUS_RESOURCE_PATH + path;
+        this.catPath = ResourceHelper.CAT_RESOURCE_PATH + catPath;
+        this.arch = arch;
+    }
+
+    @Test
+    public void test() throws Exception {
+        try (SolverContext ctx = createContext()) {
+            VerificationTask fullTask = createTask(ctx);
+            boolean expected;
+            try (ProverEnvironment prover = ctx.newProverEnvironment()) {
+                WmmEncoder encoder = fullTask.getWmmEncoder();
+                encoder.initializeEncoding(ctx, fullTask.getMemoryModel().getAxioms());
+                prover.addConstraint(encoder.encodeFullMemoryModel(ctx));
+                expected = isUnsat(prover, fullTask, ctx);
+            }
+
+            VerificationTask task = createTask(ctx);
+            try (ProverEnvironment prover = ctx.newProverEnvironment()) {
+                WmmEncoder encoder = task.getWmmEncoder();
+                encoder.initializeEncoding(ctx, List.of());
+                prover.addConstraint(encoder.encodeFullMemoryModel(ctx));
+                for (Axiom axiom : task.getMemoryModel().getAxioms()) {
+                    prover.addConstraint(encoder.encodeAdditionalAxioms(ctx, List.of(axiom)));
+                }
+                assertEquals(expected, isUnsat(prover, task, ctx));
+            }
+        }
+    }
+
+    private VerificationTask createTask(SolverContext ctx) throws Exception {
+        VerificationTask task = VerificationTask.builder()
+                .withTarget(arch)
+                .withBound(1)
+                .build(new ProgramParser().parse(new File(path)), new ParserCat().parse(new File(catPath)),
+                        EnumSet.of(Property.REACHABILITY));
+        task.preprocessProgram();
+        task.performStaticProgramAnalyses();
+        task.performStaticWmmAnalyses();
+        task.initializeEncoders(ctx);
+        return task;
+    }
+
+    private static boolean isUnsat(ProverEnvironment prover, VerificationTask task, SolverContext ctx) throws Exception {
+        prover.addConstraint(task.getProgramEncoder().encodeFullProgram(ctx));
+        prover.addConstraint(task.getPropertyEncoder().encodeSpecification(task.getProperty(), ctx));
+        return prover.isUnsat();
+    }
+}
@@ -0,0 +1,136 @@
+package com.dat3m.dartagnan.miscellaneous;
+
+import com.dat3m.dartagnan.configuration.Baseline;
+import com.dat3m.dartagnan.parsers.cat.ParserCat;
+import com.dat3m.dartagnan.parsers.program.ProgramParser;
+import com.dat3m.dartagnan.program.Program;
+import com.dat3m.dartagnan.program.analysis.AliasAnalysis;
+import com.dat3m.dartagnan.program.event.core.MemEvent;
+import com.dat3m.dartagnan.program.filter.FilterBasic;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.verification.solving.MethodSelector;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.dat3m.dartagnan.configuration.Method.*;
+import static com.dat3m.dartagnan.configuration.Property.REACHABILITY;
+import static com.dat3m.dartagnan.program.event.Tag.*;
+import static com.dat3m.dartagnan.utils.ResourceHelper.CAT_RESOURCE_PATH;
+import static com.dat3m.dartagnan.utils.ResourceHelper.TEST_RESOURCE_PATH;
+import static com.dat3m.dartagnan.verification.solving.MethodSelector.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MethodSelectorTest {
+
+    @Test
+    public void firstMatchingRuleWins() throws Exception {
+        MethodSelector selector = fromRules(
+                "# comment",
+                "threads >= 3 & events < 100 -> assume",
+                "threads >= 3 -> incremental",
+                "-> two");
+        assertEquals(ASSUME, selector.select(features(3, 99)).getMethod());
+        assertEquals(INCREMENTAL, selector.select(features(3, 100)).getMethod());
+        assertEquals(TWO, selector.select(features(2, 0)).getMethod());
+    }
+
+    @Test
+    public void defaultWithoutMatchingRule() throws Exception {
+        MethodSelector.Choice choice = fromRules("threads == 1 -> assume").select(features(2, 0));
+        assertEquals(getDefault(), choice.getMethod());
+        assertNull(choice.getBaselines());
+    }
+
+    @Test
+    public void baselines() throws Exception {
+        MethodSelector.Choice choice = fromRules("-> CAAT uniproc,no-oota").select(features(1, 1));
+        assertEquals(CAAT, choice.getMethod());
+        assertEquals(EnumSet.of(Baseline.UNIPROC, Baseline.NO_OOTA), choice.getBaselines());
+        assertNull(fromRules("-> caat").select(features(1, 1)).getBaselines());
+    }
+
+    @Test
+    public void builtinRules() throws Exception {
+        MethodSelector.fromFile("");
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void unknownFeature() throws Exception {
+        fromRules("unknown > 1 -> assume");
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void unknownOperator() throws Exception {
+        fromRules("threads != 1 -> assume");
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void unknownMethod() throws Exception {
+        fromRules("-> unknown");
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void unknownBaseline() throws Exception {
+        fromRules("-> caat unknown");
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void missingArrow() throws Exception {
+        fromRules("threads > 1 assume");
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void selectingAuto() throws Exception {
+        fromRules("-> auto");
+    }
+
+    @Test
+    public void pairFeatures() throws Exception {
+        Program program = new ProgramParser().parse(new File(TEST_RESOURCE_PATH + "locks/ttas-5.bpl"));
+        VerificationTask task = VerificationTask.builder()
+                .withConfig(Configuration.defaultConfiguration())
+                .build(program, new ParserCat().parse(new File(CAT_RESOURCE_PATH + "cat/aarch64.cat")),
+                        EnumSet.of(REACHABILITY));
+        Map<String, Long> features = extractFeatures(task);
+
+        // Counts the pairs of the (indexed) features by testing all pairs of events
+        AliasAnalysis alias = task.getAnalysisContext().requires(AliasAnalysis.class);
+        List<MemEvent> writes = getMemEvents(program, WRITE);
+        List<MemEvent> reads = getMemEvents(program, READ);
+        long rfPairs = writes.stream().mapToLong(w -> reads.stream().filter(r -> alias.mayAlias(w, r)).count()).sum();
+        long coPairs = writes.stream().mapToLong(w -> writes.stream()
+                .filter(w2 -> w != w2 && !w2.is(INIT) && alias.mayAlias(w, w2)).count()).sum();
+        assertEquals(rfPairs, (long) features.get(RF_PAIRS));
+        assertEquals(coPairs, (long) features.get(CO_PAIRS));
+    }
+
+    private static MethodSelector fromRules(String... rules) throws Exception {
+        File file = File.createTempFile("method-selection", ".rules");
+        file.deleteOnExit();
+        Files.write(file.toPath(), List.of(rules));
+        return MethodSelector.fromFile(file.getPath());
+    }
+
+    private static Map<String, Long> features(long threads, long events) {
+        Map<String, Long> features = new HashMap<>();
+        FEATURES.forEach(f -> features.put(f, 0L));
+        features.put(THREADS, threads);
+        features.put(EVENTS, events);
+        return features;
+    }
+
+    private static List<MemEvent> getMemEvents(Program program, String tag) {
+        return program.getCache().getEvents(FilterBasic.get(tag)).stream()
+                .filter(MemEvent.class::isInstance).map(MemEvent.class::cast).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,57 @@
+package com.dat3m.dartagnan.miscellaneous;
+
+import com.dat3m.dartagnan.parsers.cat.ParserCat;
+import com.dat3m.dartagnan.parsers.program.utils.ProgramBuilder;
+import com.dat3m.dartagnan.program.Program.SourceLanguage;
+import com.dat3m.dartagnan.program.event.Tag;
+import com.dat3m.dartagnan.program.event.core.Store;
+import com.dat3m.dartagnan.program.memory.MemoryObject;
+import com.dat3m.dartagnan.verification.ResultCache;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+
+import java.io.File;
+import java.util.EnumSet;
+
+import static com.dat3m.dartagnan.configuration.Property.REACHABILITY;
+import static com.dat3m.dartagnan.expression.IValue.ONE;
+import static com.dat3m.dartagnan.program.event.EventFactory.newStore;
+import static com.dat3m.dartagnan.utils.ResourceHelper.CAT_RESOURCE_PATH;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class ResultCacheTest {
+
+    @Test
+    public void sameProgram() throws Exception {
+        assertEquals(fingerprint(), fingerprint());
+    }
+
+    @Test
+    public void differentTags() throws Exception {
+        // Both programs print the same, but only one of the stores is part of an RMW
+        assertNotEquals(fingerprint(), fingerprint(Tag.RMW, Tag.EXCL));
+    }
+
+    @Test
+    public void differentStrength() throws Exception {
+        assertNotEquals(fingerprint(Tag.RMW, Tag.EXCL), fingerprint(Tag.RMW, Tag.EXCL, Tag.STRONG));
+    }
+
+    // Fingerprint of a program with a single store that has the additional <tags>
+    private String fingerprint(String... tags) throws Exception {
+        ProgramBuilder b = new ProgramBuilder(SourceLanguage.LITMUS);
+        MemoryObject x = b.getOrNewObject("x");
+        b.initThread(0);
+        Store store = newStore(x, ONE, "");
+        store.addFilters(tags);
+        b.addChild(0, store);
+
+        VerificationTask task = VerificationTask.builder()
+                .withConfig(Configuration.defaultConfiguration())
+                .build(b.build(), new ParserCat().parse(new File(CAT_RESOURCE_PATH + "cat/sc.cat")), EnumSet.of(REACHABILITY));
+        task.preprocessProgram();
+        return ResultCache.fingerprint(task);
+    }
+}
@@ -0,0 +1,158 @@
+package com.dat3m.dartagnan.miscellaneous;
+
+import com.dat3m.dartagnan.program.event.EventFactory;
+import com.dat3m.dartagnan.program.event.core.Event;
+import com.dat3m.dartagnan.wmm.utils.Tuple;
+import com.dat3m.dartagnan.wmm.utils.TupleSet;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+public class TupleSetTest {
+
+    private final Event[] events = new Event[200];
+
+    public TupleSetTest() {
+        for (int i = 0; i < events.length; i++) {
+            events[i] = EventFactory.newSkip();
+            events[i].setCId(i);
+        }
+    }
+
+    @Test
+    public void rowViews() {
+        TupleSet set = tuples(0, 1, 0, 2, 0, 150, 3, 2);
+        assertEquals(Set.of(tuple(0, 1), tuple(0, 2), tuple(0, 150)), set.getByFirst(events[0]));
+        assertEquals(Set.of(tuple(0, 2), tuple(3, 2)), set.getBySecond(events[2]));
+        assertEquals(3, set.getByFirst(events[0]).size());
+        assertEquals(2, set.getBySecond(events[2]).size());
+        assertTrue(set.getByFirst(events[0]).contains(tuple(0, 150)));
+        assertFalse(set.getByFirst(events[0]).contains(tuple(3, 2)));
+        assertFalse(set.getBySecond(events[2]).contains(tuple(0, 1)));
+        assertFalse(set.getByFirst(events[0]).contains(events[1]));
+        assertTrue(set.getByFirst(events[1]).isEmpty());
+        assertTrue(set.getBySecond(events[0]).isEmpty());
+    }
+
+    @Test
+    public void columnsFollowUpdates() {
+        TupleSet set = tuples(0, 1);
+        assertEquals(Set.of(tuple(0, 1)), set.getBySecond(events[1]));
+        set.add(tuple(2, 1));
+        assertEquals(Set.of(tuple(0, 1), tuple(2, 1)), set.getBySecond(events[1]));
+        set.remove(tuple(0, 1));
+        assertEquals(Set.of(tuple(2, 1)), set.getBySecond(events[1]));
+        assertTrue(set.getByFirst(events[0]).isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void rowViewsAreReadOnly() {
+        Iterator<Tuple> iterator = tuples(0, 1).getByFirst(events[0]).iterator();
+        iterator.next();
+        iterator.remove();
+    }
+
+    @Test
+    public void rowViewsAreLive() {
+        TupleSet set = tuples(0, 1);
+        Set<Tuple> row = set.getByFirst(events[0]);
+        Set<Tuple> column = set.getBySecond(events[2]);
+        set.add(tuple(0, 2));
+        assertEquals(Set.of(tuple(0, 1), tuple(0, 2)), row);
+        assertEquals(Set.of(tuple(0, 2)), column);
+        set.clear();
+        assertTrue(row.isEmpty());
+        assertTrue(column.isEmpty());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void rowViewsFailFast() {
+        TupleSet set = tuples(0, 1, 0, 2);
+        for (Tuple t : set.getByFirst(events[0])) {
+            set.add(tuple(t.getSecond().getCId(), 3));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void uncompiledEventsAreRejected() {
+        new TupleSet().add(new Tuple(events[0], EventFactory.newSkip()));
+    }
+
+    // Compares the set algebra of TupleSets with the one of plain sets of tuples
+    @Test
+    public void bulkOperations() {
+        Random random = new Random(0);
+        for (int i = 0; i < 50; i++) {
+            Set<Tuple> a = randomTuples(random);
+            Set<Tuple> b = randomTuples(random);
+            TupleSet setA = new TupleSet(a);
+            TupleSet setB = new TupleSet(b);
+
+            assertEquals(a, setA);
+            assertEquals(union(a, b), setA.union(setB));
+            assertEquals(intersection(a, b), setA.intersection(setB));
+            assertEquals(difference(a, b), setA.difference(setB));
+            assertEquals(inverse(a), setA.inverse());
+            assertEquals(a.containsAll(b), setA.containsAll(setB));
+            for (Event e : events) {
+                assertEquals(filter(a, t -> t.getFirst() == e), setA.getByFirst(e));
+                assertEquals(filter(a, t -> t.getSecond() == e), setA.getBySecond(e));
+            }
+        }
+    }
+
+    private Set<Tuple> randomTuples(Random random) {
+        Set<Tuple> set = new HashSet<>();
+        int range = random.nextBoolean() ? 10 : events.length;
+        int count = random.nextInt(50);
+        for (int i = 0; i < count; i++) {
+            set.add(tuple(random.nextInt(range), random.nextInt(range)));
+        }
+        return set;
+    }
+
+    private static Set<Tuple> union(Set<Tuple> a, Set<Tuple> b) {
+        Set<Tuple> result = new HashSet<>(a);
+        result.addAll(b);
+        return result;
+    }
+
+    private static Set<Tuple> intersection(Set<Tuple> a, Set<Tuple> b) {
+        return filter(a, b::contains);
+    }
+
+    private static Set<Tuple> difference(Set<Tuple> a, Set<Tuple> b) {
+        return filter(a, t -> !b.contains(t));
+    }
+
+    private static Set<Tuple> inverse(Set<Tuple> a) {
+        Set<Tuple> result = new HashSet<>();
+        a.forEach(t -> result.add(t.getInverse()));
+        return result;
+    }
+
+    private static Set<Tuple> filter(Set<Tuple> a, Predicate<Tuple> condition) {
+        Set<Tuple> result = new HashSet<>();
+        for (Tuple t : a) {
+            if (condition.test(t)) {
+                result.add(t);
+            }
+        }
+        return result;
+    }
+
+    private Tuple tuple(int first, int second) {
+        return new Tuple(events[first], events[second]);
+    }
+
+    private TupleSet tuples(int... ids) {
+        TupleSet set = new TupleSet();
+        for (int i = 0; i < ids.length; i += 2) {
+            set.add(tuple(ids[i], ids[i + 1]));
+        }
+        return set;
+    }
+}
@@ -63,6 +63,12 @@ public class ResourceHelper {
         int dirIndex = name.lastIndexOf("/");
         String dirPrefix = dirIndex == -1 ? "" : name.substring(0, dirIndex + 1);
         String fileName = dirIndex == -1 ? name : name.substring(dirIndex + 1);
-        return String.format("%s/output/%s%s-%s.csv", System.getenv("DAT3M_HOME"), dirPrefix, testingClass.getSimpleName(), fileName);
+        return String.format("%s/output/%s%s-%s.csv", getDat3mHome(), dirPrefix, testingClass.getSimpleName(), fileName);
+    }
+
+    // Tests run from the dartagnan module, so without DAT3M_HOME the repository root is its parent directory
+    // (otherwise outputs would end up in a directory called "null").
+    private static String getDat3mHome() {
+        return System.getenv().getOrDefault("DAT3M_HOME", "..");
     }
 }
\ No newline at end of file
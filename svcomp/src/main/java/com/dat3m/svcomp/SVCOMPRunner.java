@@ -27,6 +27,7 @@ import static com.dat3m.dartagnan.configuration.OptionNames.*;
 import static com.dat3m.dartagnan.parsers.program.utils.Compilation.*;
 import static com.dat3m.dartagnan.witness.GraphAttributes.UNROLLBOUND;
 import static java.lang.Integer.parseInt;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 @Options
 public class SVCOMPRunner extends BaseOptions {
@@ -73,6 +74,11 @@ public class SVCOMPRunner extends BaseOptions {
 		description="Run Dartagnan as a violation witness validator. Argument is the path to the witness file.")
 	private String witnessPath;
 
+	@Option(
+		name=REASON_STORE,
+		description="File the refinement reasons are shared in between the bounds (default: /output/<program>.reasons).")
+	private String reasonStorePath = "";
+
 	private static final Set<String> supportedFormats = 
     		ImmutableSet.copyOf(Arrays.asList(".c", ".i"));
 
@@ -109,12 +115,32 @@ public class SVCOMPRunner extends BaseOptions {
 			}
         }
 
+        // The sanitized programs, the Boogie files and the refinement reasons are all stored in DAT3M_HOME/output
+        String home = System.getenv().get("DAT3M_HOME");
+        if(home == null) {
+        	throw new IllegalStateException("DAT3M_HOME is not set");
+        }
+
         int bound = witness.hasAttributed(UNROLLBOUND.toString()) ? parseInt(witness.getAttributed(UNROLLBOUND.toString())) : r.umin;
+        // The sanitizer only depends on the bound if the program creates threads in a loop.
+        // Otherwise, a single Dartagnan process can increase the bound by itself.
+        File next = new SVCOMPSanitizer(fileProgram).run(bound + 1);
+        String sanitized = Files.asCharSource(next, UTF_8).read();
+        next.delete();
         File tmp = new SVCOMPSanitizer(fileProgram).run(bound);
+        boolean deepenInProcess = sanitized.equals(Files.asCharSource(tmp, UTF_8).read());
 
         // First time we compiler with standard atomic header to catch compilation problems
 		compileWithClang(tmp);
 
+		// Unless configured otherwise, the refinement reasons learned with one bound are reused by the next one
+		File reasonStore = null;
+		if(r.reasonStorePath.isEmpty()) {
+			reasonStore = new File(home + "/output/" +
+					Files.getNameWithoutExtension(programPath) + ".reasons");
+			reasonStore.delete();
+		}
+
 		String output = "UNKNOWN";
 		while(output.equals("UNKNOWN")) {
 			compileWithSmack(tmp);
@@ -123,7 +149,7 @@ public class SVCOMPRunner extends BaseOptions {
 	        // (it not the original C file) and we already created the Boogie file
 	        tmp.delete();
 	        
-	        String boogieName = System.getenv().get("DAT3M_HOME") + "/output/" +
+	        String boogieName = home + "/output/" +
 	        		Files.getNameWithoutExtension(programPath) + ".bpl";
 	        
 	        if(r.sanitize) {
@@ -132,15 +158,22 @@ public class SVCOMPRunner extends BaseOptions {
 	        
 	    	ArrayList<String> cmd = new ArrayList<>();
 	    	cmd.add("java");
-	    	cmd.add("-Dlog4j.configurationFile=" + System.getenv().get("DAT3M_HOME") + "/dartagnan/src/main/resources/log4j2.xml");
+	    	cmd.add("-Dlog4j.configurationFile=" + home + "/dartagnan/src/main/resources/log4j2.xml");
 	    	cmd.add("-DLOGNAME=" + Files.getNameWithoutExtension(programPath));
-	    	cmd.addAll(Arrays.asList("-jar", System.getenv().get("DAT3M_HOME") + "/dartagnan/target/dartagnan-3.0.0.jar"));
+	    	cmd.addAll(Arrays.asList("-jar", home + "/dartagnan/target/dartagnan-3.0.0.jar"));
 			cmd.add(fileModel.toString());
 			cmd.add(boogieName);
 			cmd.add(String.format("--%s=%s", PROPERTY, r.property.asStringOption()));
 			cmd.add(String.format("--%s=%s", BOUND, bound));
 			cmd.add(String.format("--%s=%s", WITNESS_ORIGINAL_PROGRAM_PATH, programPath));
 			cmd.addAll(filterOptions(config));
+			if(reasonStore != null) {
+				cmd.add(String.format("--%s=%s", REASON_STORE, reasonStore.getPath()));
+			}
+			if(deepenInProcess) {
+				cmd.add(String.format("--%s=%s", MAX_BOUND, r.umax));
+				cmd.add(String.format("--%s=%s", BOUND_STEP, r.step));
+			}
 
 	    	ProcessBuilder processBuilder = new ProcessBuilder(cmd);
 	        try {
@@ -162,6 +195,13 @@ public class SVCOMPRunner extends BaseOptions {
 				System.out.println(e.getMessage());
 				System.exit(0);
 			}
+			if(deepenInProcess) {
+				// Dartagnan already tried all bounds up to umax
+				if(output.equals("UNKNOWN")) {
+					System.out.println("PASS");
+				}
+				break;
+			}
 			if(bound > r.umax) {
 				System.out.println("PASS");
 				break;
@@ -172,12 +212,15 @@ public class SVCOMPRunner extends BaseOptions {
 		}
 
         tmp.delete();
+        if(reasonStore != null) {
+        	reasonStore.delete();
+        }
     }
     
     private static List<String> filterOptions(Configuration config) {
     	
     	// BOUND is computed based on umin and the information from the witness
-    	List<String> skip = Arrays.asList(PROPERTYPATH, UMIN, UMAX, STEP, SANITIZE, BOUND);
+    	List<String> skip = Arrays.asList(PROPERTYPATH, UMIN, UMAX, STEP, SANITIZE, BOUND, MAX_BOUND, BOUND_STEP);
     	
     	return Arrays.stream(config.asPropertiesString().split("\n")).
 			filter(p -> skip.stream().noneMatch(s -> s.equals(p.split(" = ")[0]))).